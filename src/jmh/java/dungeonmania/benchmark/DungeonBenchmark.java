@@ -0,0 +1,108 @@
+package dungeonmania.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dungeonmania.Dungeon;
+import dungeonmania.DungeonManiaController;
+import dungeonmania.Entity;
+import dungeonmania.items.Armour;
+import dungeonmania.items.Arrow;
+import dungeonmania.items.Item;
+import dungeonmania.items.SunStone;
+import dungeonmania.items.Treasure;
+import dungeonmania.items.Wood;
+import dungeonmania.util.Position;
+
+/**
+ * Measures the dungeon queries a tick leans on: entities on a cell and the buildables list,
+ * on generated dungeons of increasing size.
+ *
+ * Run with: gradle jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DungeonBenchmark {
+    @Param({"100", "10000", "100000"})
+    public int entities;
+
+    private Dungeon dungeon;
+    private Position[] cells;
+    private int cell;
+
+    @Setup
+    public void setup() {
+        DungeonManiaController controller = new DungeonManiaController();
+        controller.newGameFromJson("generated", generateDungeon(entities), "standard", 42);
+        dungeon = controller.getActiveGame();
+
+        // everything a shield, bow, sceptre and midnight armour need
+        Position held = new Position(-1, -1);
+        Item[] items = {
+            new Wood(held, dungeon), new Wood(held, dungeon),
+            new Arrow(held, dungeon), new Arrow(held, dungeon), new Arrow(held, dungeon),
+            new Treasure(held, dungeon), new SunStone(held, dungeon), new Armour(dungeon, 4)
+        };
+        for (Item item : items) {
+            dungeon.moveToInventory(item);
+        }
+
+        int side = sideOf(entities);
+        cells = new Position[side * side];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = new Position(i % side, i / side);
+        }
+    }
+
+    @Benchmark
+    public List<Entity> getEntitiesAtPosition() {
+        cell = (cell + 1) % cells.length;
+        return dungeon.getEntities(cells[cell]);
+    }
+
+    @Benchmark
+    public List<String> getBuildables() {
+        return dungeon.getInventory().getBuildables();
+    }
+
+    /**
+     * a square of walls in every other column with treasure between them and the player in a corner
+     * @param size number of entities
+     * @return String the dungeon json
+     */
+    static String generateDungeon(int size) {
+        int side = sideOf(size);
+        JSONArray entityList = new JSONArray();
+        entityList.put(new JSONObject().put("x", 0).put("y", 0).put("type", "player"));
+        for (int i = 1; i < size; i++) {
+            String type = (i % side) % 2 == 0 ? "wall" : "treasure";
+            entityList.put(new JSONObject().put("x", i % side).put("y", i / side).put("type", type));
+        }
+        JSONObject dungeonJson = new JSONObject();
+        dungeonJson.put("entities", entityList);
+        dungeonJson.put("goal-condition", new JSONObject().put("goal", "treasure"));
+        return dungeonJson.toString();
+    }
+
+    private static int sideOf(int size) {
+        return (int) Math.ceil(Math.sqrt(size));
+    }
+}
@@ -0,0 +1,128 @@
+package dungeonmania.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dungeonmania.Dungeon;
+import dungeonmania.DungeonManiaController;
+import dungeonmania.util.FlowField;
+import dungeonmania.util.PathGrid;
+import dungeonmania.util.Position;
+
+/**
+ * Measures the flow field builds enemies path by, on the advanced dungeon and on a generated 200x200 maze.
+ *
+ * Run with: gradle jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathfindingBenchmark {
+    private static final int MAZE_SIZE = 200;
+
+    private Dungeon advanced;
+    private PathGrid advancedGrid;
+    private Position advancedTarget;
+
+    private PathGrid maze;
+    private Position mazeTarget;
+
+    @Setup
+    public void setup() {
+        DungeonManiaController controller = new DungeonManiaController();
+        controller.newGame("advanced", "standard");
+        advanced = controller.getActiveGame();
+        advancedGrid = advanced.getPathGrid();
+        advancedTarget = advanced.getPlayer().getPosition();
+
+        maze = generateMaze(MAZE_SIZE, 42);
+        mazeTarget = new Position(1, 1);
+    }
+
+    @Benchmark
+    public FlowField advancedFlowField() {
+        return FlowField.towards(advancedGrid, advancedTarget);
+    }
+
+    @Benchmark
+    public FlowField advancedWithGrid() {
+        // what the dungeon pays when a wall or door changed, building the grid included
+        return FlowField.towards(advanced.getPathGrid(), advancedTarget);
+    }
+
+    @Benchmark
+    public FlowField mazeFlowField() {
+        // one search serves every chaser in the dungeon
+        return FlowField.towards(maze, mazeTarget);
+    }
+
+    /**
+     * carves a perfect maze with a randomised depth first search, then opens a few extra
+     * passages so there is more than one route. Odd cells are rooms, even cells start as walls.
+     * @param size
+     * @param seed
+     * @return PathGrid
+     */
+    private static PathGrid generateMaze(int size, long seed) {
+        PathGrid grid = new PathGrid(0, 0, size, size);
+        for (int i = 0; i < grid.size(); i++) {
+            grid.setCost(i, PathGrid.BLOCKED);
+        }
+        Random random = new Random(seed);
+        int rooms = (size - 1) / 2;
+        boolean[] visited = new boolean[rooms * rooms];
+        int[] stack = new int[rooms * rooms];
+        int top = 0;
+        stack[top++] = 0;
+        visited[0] = true;
+        grid.setCost(grid.indexOf(new Position(1, 1)), 1);
+
+        int[] dx = {0, 0, -1, 1};
+        int[] dy = {-1, 1, 0, 0};
+        while (top > 0) {
+            int room = stack[top - 1];
+            int rx = room % rooms;
+            int ry = room / rooms;
+            int start = random.nextInt(4);
+            boolean carved = false;
+            for (int i = 0; i < 4 && !carved; i++) {
+                int d = (start + i) % 4;
+                int nx = rx + dx[d];
+                int ny = ry + dy[d];
+                if (nx < 0 || ny < 0 || nx >= rooms || ny >= rooms || visited[ny * rooms + nx]) {
+                    continue;
+                }
+                visited[ny * rooms + nx] = true;
+                grid.setCost(grid.indexOf(new Position(2 * rx + 1 + dx[d], 2 * ry + 1 + dy[d])), 1);
+                grid.setCost(grid.indexOf(new Position(2 * nx + 1, 2 * ny + 1)), 1);
+                stack[top++] = ny * rooms + nx;
+                carved = true;
+            }
+            if (!carved) {
+                top--;
+            }
+        }
+
+        // knock out some walls, some of them becoming swamp, so costs are not uniform
+        for (int i = 0; i < size * size / 20; i++) {
+            int x = 1 + random.nextInt(size - 2);
+            int y = 1 + random.nextInt(size - 2);
+            grid.setCost(grid.indexOf(new Position(x, y)), 1 + random.nextInt(3));
+        }
+        return grid;
+    }
+}
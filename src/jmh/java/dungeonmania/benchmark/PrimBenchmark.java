@@ -0,0 +1,41 @@
+package dungeonmania.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dungeonmania.PrimDungeon;
+import dungeonmania.util.Position;
+import dungeonmania.util.SeededRandom;
+
+/**
+ * Measures maze generation with Prim's algorithm at several sizes, the game itself uses 50x50.
+ *
+ * Run with: gradle jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrimBenchmark {
+    @Param({"25", "50", "100", "200"})
+    public int size;
+
+    @Benchmark
+    public boolean[][] primGenerate() {
+        PrimDungeon primDungeon = new PrimDungeon(new Position(1, 1), new Position(size - 2, size - 2), new boolean[size][size], new SeededRandom(42));
+        primDungeon.primGenerate();
+        return primDungeon.getMazeMap();
+    }
+}
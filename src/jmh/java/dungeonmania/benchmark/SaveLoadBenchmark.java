@@ -0,0 +1,79 @@
+package dungeonmania.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dungeonmania.DungeonManiaController;
+import dungeonmania.loader.SaveFormat;
+import dungeonmania.response.models.DungeonResponse;
+
+/**
+ * Measures saveGame and loadGame on the advanced dungeon and on generated dungeons of increasing size,
+ * in each save format.
+ * The save file goes in saveFiles like any other and is deleted afterwards.
+ *
+ * Run with: gradle jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SaveLoadBenchmark {
+    private static final String SAVE_NAME = "jmhSaveLoadBenchmark";
+
+    // 0 plays the advanced dungeon, anything else a generated dungeon with that many entities
+    @Param({"0", "1000", "10000"})
+    public int entities;
+
+    @Param({"JSON", "BINARY"})
+    public SaveFormat format;
+
+    private DungeonManiaController saving;
+    private DungeonManiaController loading;
+
+    @Setup
+    public void setup() {
+        saving = new DungeonManiaController();
+        if (entities == 0) {
+            saving.newGame("advanced", "standard", 42);
+        } else {
+            saving.newGameFromJson("generated", DungeonBenchmark.generateDungeon(entities), "standard", 42);
+        }
+        saving.saveGame(SAVE_NAME, format);
+        loading = new DungeonManiaController();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        for (SaveFormat each : SaveFormat.values()) {
+            Files.deleteIfExists(Paths.get("saveFiles", SAVE_NAME + each.getExtension()));
+        }
+    }
+
+    @Benchmark
+    public DungeonResponse saveGame() {
+        return saving.saveGame(SAVE_NAME, format);
+    }
+
+    @Benchmark
+    public DungeonResponse loadGame() {
+        return loading.loadGame(SAVE_NAME);
+    }
+}
@@ -0,0 +1,68 @@
+package dungeonmania.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dungeonmania.DungeonManiaController;
+import dungeonmania.response.models.DungeonResponse;
+import dungeonmania.util.Direction;
+
+/**
+ * Measures a whole DungeonManiaController.tick, response included, on every dungeon in the resources.
+ * The player walks in a square and every game uses the same seed, so runs are comparable.
+ *
+ * Run with: gradle jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TickBenchmark {
+    private static final Direction[] MOVES = {Direction.UP, Direction.RIGHT, Direction.DOWN, Direction.LEFT};
+    private static final long SEED = 42;
+
+    // every resource dungeon that can be played for a long run, which leaves out portals (no goal),
+    // manyEntitiesTester (a portal without a pair) and spawner/spawnerinteract, where the player ends up
+    // at 1 health in a battle in which neither side can do damage any more
+    @Param({"advanced", "advanced-2", "andGoalTester", "blockedBoulder", "blockedSpawner", "bombExplode", "bombs",
+        "boulderAndSwitch", "boulderAndSwitchMultiple", "boulderGoalTester", "boulders", "craftingSceptre",
+        "craftingTest", "doors", "enemyGoalTester", "exit", "exitGoalTester", "interactInvalidTester", "items",
+        "manyItems", "maze", "milestone3Entities", "orGoalTester", "outofrangeinteract", "portals-2",
+        "potionUsed", "simple", "stuckEntity", "stuckEntity2", "swampAndEnemies", "swampTile",
+        "treasureGoalTester", "walls"})
+    public String dungeonName;
+
+    private DungeonManiaController controller;
+    private int moves;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        // a fresh game each iteration, so spawners do not fill the dungeon over a long run
+        controller = new DungeonManiaController();
+        controller.newGame(dungeonName, "standard", SEED);
+        moves = 0;
+    }
+
+    @Benchmark
+    public DungeonResponse tick() {
+        if (controller.getActiveGame().getPlayer() == null) {
+            // the player was killed, the game cannot go on
+            controller.newGame(dungeonName, "standard", SEED);
+        }
+        return controller.tick(null, MOVES[(moves++ / 3) % MOVES.length]);
+    }
+}
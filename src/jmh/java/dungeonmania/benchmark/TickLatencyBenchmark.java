@@ -0,0 +1,93 @@
+package dungeonmania.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dungeonmania.DungeonManiaController;
+import dungeonmania.response.models.DungeonResponse;
+import dungeonmania.util.Direction;
+
+/**
+ * Measures DungeonManiaController.tick on generated dungeons of 1k, 10k and 100k entities,
+ * made in memory so nothing is written to saveFiles.
+ *
+ * Run with: gradle jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TickLatencyBenchmark {
+    private static final Direction[] MOVES = {Direction.RIGHT, Direction.DOWN, Direction.LEFT, Direction.UP};
+    private static final long SEED = 42;
+
+    @Param({"1000", "10000", "100000"})
+    public int entities;
+
+    private String dungeonJson;
+    private DungeonManiaController controller;
+    private int moves;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        dungeonJson = generateDungeon(entities);
+    }
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        controller = new DungeonManiaController();
+        controller.newGameFromJson("tickLatency", dungeonJson, "peaceful", SEED);
+        moves = 0;
+    }
+
+    @Benchmark
+    public DungeonResponse tick() {
+        return controller.tick(null, MOVES[moves++ % MOVES.length]);
+    }
+
+    /**
+     * a square with walls in every other column, the columns between holding zombies and treasure,
+     * and the player just outside it
+     * @param size number of entities
+     * @return String the dungeon json
+     */
+    private static String generateDungeon(int size) {
+        int side = (int) Math.ceil(Math.sqrt(size));
+        if (side % 2 == 1) {
+            side++;
+        }
+        JSONArray entityList = new JSONArray();
+        for (int i = 0; i < size - 1; i++) {
+            String type;
+            if (i % 2 == 0) {
+                type = "wall";
+            } else if (i % 20 == 1) {
+                type = "zombie_toast";
+            } else {
+                type = "treasure";
+            }
+            entityList.put(new JSONObject().put("x", i % side).put("y", i / side).put("type", type));
+        }
+        entityList.put(new JSONObject().put("x", side + 1).put("y", 0).put("type", "player"));
+        JSONObject dungeon = new JSONObject();
+        dungeon.put("entities", entityList);
+        dungeon.put("goal-condition", new JSONObject().put("goal", "exit"));
+        return dungeon.toString();
+    }
+}
@@ -4,14 +4,18 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
 import dungeonmania.DungeonManiaController;
+import dungeonmania.loader.DungeonTemplates;
+import dungeonmania.loader.SaveFormat;
+import dungeonmania.metrics.TickMetrics;
 import dungeonmania.response.models.GenericResponseWrapper;
+import dungeonmania.session.SessionStore;
 import dungeonmania.util.Direction;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.file.Paths;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
+import scintilla.Environment;
 import scintilla.Scintilla;
 
 /**
@@ -23,22 +27,25 @@ import scintilla.Scintilla;
  * @author Braedon Wooding, Nick Patrikeos, Noa Challis, George Litsas
  */
 public class App {
-    private static volatile Map<String, DungeonManiaController> sessionStates = new HashMap<>();
+    // spills games to disk when they go idle or there are too many, so memory stays flat however many sessions come
+    private static final SessionStore sessionStates = new SessionStore(Paths.get("sessions"),
+        Environment.getSessionIdleSeconds() * 1000L, Environment.getMaxSessions(), App::newSessionController);
+    // answers the calls that read no game, so they need neither a session nor its lock
+    private static final DungeonManiaController sharedController = new DungeonManiaController();
+
+    private static DungeonManiaController newSessionController() {
+        DungeonManiaController controller = new DungeonManiaController();
+        controller.setJournaling(Environment.isJournaling());
+        return controller;
+    }
 
-    private static synchronized DungeonManiaController getDungeonManiaController(Request request) {
+    private static String getSessionId(Request request) {
         String session = request.session().id();
         if (session == null) {
             System.out.println("No Session Found... using default.");
             session = "__DEFAULT_SESSION__";
         }
-
-        if (sessionStates.containsKey(session)) {
-            return sessionStates.get(session);
-        } else {
-            DungeonManiaController bc = new DungeonManiaController();
-            sessionStates.put(session, bc);
-            return bc;
-        }
+        return session;
     }
 
     private static<T> GenericResponseWrapper<T> callWithWrapper(Supplier<T> runnable) {
@@ -52,10 +59,8 @@ public class App {
 
     private static<T> GenericResponseWrapper<T> callUsingSessionAndArgument(Request request, Function<DungeonManiaController, T> runnable) {
         try {
-            DungeonManiaController dmc = getDungeonManiaController(request);
-            synchronized (dmc) {
-                return GenericResponseWrapper.Ok(runnable.apply(dmc));
-            }
+            // one call at a time per session, the store loads the game back first if it was spilled
+            return GenericResponseWrapper.Ok(sessionStates.call(getSessionId(request), runnable));
         } catch (Exception e) {
             e.printStackTrace();
             return GenericResponseWrapper.Err(e);
@@ -64,10 +69,14 @@ public class App {
 
     public static void main(String[] args) throws Exception {
         Scintilla.initialize(); 
+        if (Environment.isPreloading()) {
+            long start = System.nanoTime();
+            int templates = DungeonTemplates.preload();
+            System.out.printf("Preloaded %d dungeons in %.1f ms%n", templates, (System.nanoTime() - start) / 1e6);
+        }
         GsonBuilder gsonBuilder = new GsonBuilder();
 
         Gson gson = gsonBuilder.create();
-        Object globalLock = new Object();
 
         Spark.after((request, response) -> {
             response.header("Access-Control-Allow-Origin", "*");
@@ -76,18 +85,32 @@ public class App {
         });
 
         Spark.get("/api/dungeons/", "application/json", (request, response) -> {
-            // we don't *need* to globally lock this but we might as well just to keep a nice standard.
-            synchronized (globalLock) {
-                return callWithWrapper(() -> DungeonManiaController.dungeons());
-            }
+            // the list of dungeons never changes, so no lock
+            return callWithWrapper(() -> DungeonManiaController.dungeons());
         }, gson::toJson);
 
         Spark.post("/api/game/new/", "application/json", (request, response) -> {
-            return callUsingSessionAndArgument(request, (dmc) -> dmc.newGame(request.queryParams("dungeonName"), request.queryParams("gameMode")));
+            // an optional seed replays the same random events
+            String seed = request.queryParams("seed");
+            return callUsingSessionAndArgument(request, (dmc) -> dmc.newGame(request.queryParams("dungeonName"), request.queryParams("gameMode"), seed == null ? System.nanoTime() : Long.parseLong(seed)));
         }, gson::toJson);
 
         Spark.post("api/game/save/", "application/json", (request, response) -> {
-            return callUsingSessionAndArgument(request, (dmc) -> dmc.saveGame(request.queryParams("name")));
+            // "json" unless the client asks for "binary"
+            String format = request.queryParams("format");
+            return callUsingSessionAndArgument(request, (dmc) -> dmc.saveGame(request.queryParams("name"), format == null ? SaveFormat.JSON : SaveFormat.fromName(format)));
+        }, gson::toJson);
+
+        Spark.post("api/game/save/async/", "application/json", (request, response) -> {
+            // returns once the game is copied, GET api/game/save/status/ says when it is on disk
+            String format = request.queryParams("format");
+            return callUsingSessionAndArgument(request, (dmc) -> dmc.saveGameAsync(request.queryParams("name"), format == null ? SaveFormat.JSON : SaveFormat.fromName(format)));
+        }, gson::toJson);
+
+        Spark.get("api/game/save/status/", "application/json", (request, response) -> {
+            // only reads the save queue, which every controller shares, so it does not wait behind the session's ticks
+            // or load a spilled game
+            return callWithWrapper(() -> sharedController.saveStatus(request.queryParams("name")));
         }, gson::toJson);
 
         Spark.post("api/game/load/", "application/json", (request, response) -> {
@@ -95,15 +118,23 @@ public class App {
         }, gson::toJson);
 
         Spark.get("api/games/all/", "application/json", (request, response) -> {
-            return callUsingSessionAndArgument(request, (dmc) -> dmc.allGames());
+            // read from the save catalogue and queue, which every controller shares
+            return callWithWrapper(() -> sharedController.allGames());
         }, gson::toJson);
 
         Spark.post("/api/game/tick/", "application/json", (request, response) -> {
             return callUsingSessionAndArgument(request, (dmc) -> dmc.tick(request.queryParams("itemUsed"), Direction.valueOf(request.queryParams("movementDirection").toUpperCase())));
         }, gson::toJson);
 
+        Spark.post("/api/game/tick/delta/", "application/json", (request, response) -> {
+            // a missing or stale version gets a full snapshot back
+            String version = request.queryParams("version");
+            return callUsingSessionAndArgument(request, (dmc) -> dmc.tickDelta(request.queryParams("itemUsed"), Direction.valueOf(request.queryParams("movementDirection").toUpperCase()), request.queryParams("dungeonId"), version == null ? -1 : Integer.parseInt(version)));
+        }, gson::toJson);
+
         Spark.post("/api/game/new/generate/", "application/json", (request, response) -> {
-            return callUsingSessionAndArgument(request, (dmc) -> dmc.generateDungeon(Integer.parseInt(request.queryParams("xStart")), Integer.parseInt(request.queryParams("yStart")), Integer.parseInt(request.queryParams("xEnd")), Integer.parseInt(request.queryParams("yEnd")), request.queryParams("gameMode")));
+            String seed = request.queryParams("seed");
+            return callUsingSessionAndArgument(request, (dmc) -> dmc.generateDungeon(Integer.parseInt(request.queryParams("xStart")), Integer.parseInt(request.queryParams("yStart")), Integer.parseInt(request.queryParams("xEnd")), Integer.parseInt(request.queryParams("yEnd")), request.queryParams("gameMode"), seed == null ? System.nanoTime() : Long.parseLong(seed)));
         }, gson::toJson);
 
         Spark.post("/api/game/build/", "application/json", (request, response) -> {
@@ -111,21 +142,49 @@ public class App {
         }, gson::toJson);
 
         Spark.get("/api/gamemode/", "application/json", (request, response) -> {
-            return callUsingSessionAndArgument(request, (dmc) -> dmc.getGameModes());
+            return callWithWrapper(() -> sharedController.getGameModes());
         }, gson::toJson);
 
         Spark.get("/api/skin/current/", "application/json", (request, response) -> {
-            return callUsingSessionAndArgument(request, (dmc) -> dmc.getSkin());
+            return callWithWrapper(() -> sharedController.getSkin());
         }, gson::toJson);
 
         Spark.get("/api/localisation/current/", "application/json", (request, response) -> {
-            return callUsingSessionAndArgument(request, (dmc) -> dmc.getLocalisation());
+            return callWithWrapper(() -> sharedController.getLocalisation());
         }, gson::toJson);
 
         Spark.post("/api/game/interact/", "application/json", (request, response) -> {
             return callUsingSessionAndArgument(request, (dmc) -> dmc.interact(request.queryParams("entityId")));
         }, gson::toJson);
 
+        Spark.post("/api/game/undo/", "application/json", (request, response) -> {
+            return callUsingSessionAndArgument(request, (dmc) -> dmc.undo());
+        }, gson::toJson);
+
+        Spark.post("/api/game/redo/", "application/json", (request, response) -> {
+            return callUsingSessionAndArgument(request, (dmc) -> dmc.redo());
+        }, gson::toJson);
+
+        Spark.post("/api/game/snapshot/", "application/json", (request, response) -> {
+            // held in memory only, so like the undo history they are gone once the session is spilled
+            return callUsingSessionAndArgument(request, (dmc) -> dmc.snapshot(request.queryParams("name")));
+        }, gson::toJson);
+
+        Spark.post("/api/game/snapshot/restore/", "application/json", (request, response) -> {
+            return callUsingSessionAndArgument(request, (dmc) -> dmc.restoreSnapshot(request.queryParams("name")));
+        }, gson::toJson);
+
+        Spark.post("/api/game/replay/", "application/json", (request, response) -> {
+            // without steps the whole journal is played, which recovers a game after a crash
+            String steps = request.queryParams("steps");
+            return callUsingSessionAndArgument(request, (dmc) -> dmc.replayGame(request.queryParams("name"), steps == null ? -1 : Integer.parseInt(steps)));
+        }, gson::toJson);
+
+        Spark.get("/api/metrics/tick/", "application/json", (request, response) -> {
+            // shared by every session and safe to read while games tick, so no lock
+            return callWithWrapper(() -> TickMetrics.summary());
+        }, gson::toJson);
+
         Scintilla.start();
     }
 }
\ No newline at end of file
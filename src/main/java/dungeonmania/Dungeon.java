@@ -12,57 +12,163 @@ import dungeonmania.moving_entities.Hydra;
 import dungeonmania.moving_entities.Spider;
 import dungeonmania.player.Inventory;
 import dungeonmania.player.Player;
+import dungeonmania.static_entities.Boulder;
 import dungeonmania.static_entities.Exit;
 import dungeonmania.static_entities.StaticEntity;
 import dungeonmania.static_entities.Switch;
 import dungeonmania.static_entities.Wall;
+import dungeonmania.util.FlowField;
+import dungeonmania.util.IntMap;
+import dungeonmania.util.PathGrid;
 import dungeonmania.util.Position;
+import dungeonmania.util.SeededRandom;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 
 
-import java.util.Random;
-import java.util.stream.Collectors;
-
 public class Dungeon {
+    // Free cells kept around the entities when the cost grid grows, so it rarely has to
+    private static final int GRID_MARGIN = 8;
 
     private String dungeonName;
     private Gamemode gamemode;
     private String dungeonId;
     private List<Entity> entities = new ArrayList<Entity>();
-    private Inventory inventory = new Inventory();    
+    // Entities in the dungeon bucketed by the cell they occupy
+    private Map<Position, List<Entity>> entitiesByPosition = new HashMap<Position, List<Entity>>();
+    // Entities bucketed by type string and by every class in their hierarchy, in insertion order
+    private Map<String, Set<Entity>> entitiesByType = new HashMap<String, Set<Entity>>();
+    private Map<Class<?>, Set<Entity>> entitiesByClass = new HashMap<Class<?>, Set<Entity>>();
+    // Movement cost of every cell around the entities, updated cell by cell as static entities change
+    private PathGrid costGrid;
+    // Bumped on every change to costGrid so anything derived from it knows to rebuild
+    private int costGridVersion;
+    // Path costs towards the player shared by all enemies, rebuilt when the player or the cost grid changes
+    private FlowField flowField;
+    private int flowFieldVersion;
+    // Entity changes since the last response, and how many responses have been produced
+    private EntityChangeLog changeLog = new EntityChangeLog();
+    private int version;
+    // Entity changes since the last snapshot was taken for undo
+    private EntityChangeLog snapshotLog = new EntityChangeLog(true);
+    private Inventory inventory = new Inventory(this);
+    // Entities in the dungeon and items in the inventory by id
+    private IntMap<Entity> entitiesById = new IntMap<Entity>();
     private List<GoalComponent> simpleGoals = new ArrayList<GoalComponent>();
     private GoalComponent overallGoal;
+    // Bumped whenever the goals or the overall goal's completion change, and the goal string built at that version
+    private int goalVersion;
+    private String goalString;
+    private int goalStringVersion = -1;
     private int counter;
+    private int entityIdCounter;
+    // Every random choice in the game is drawn from here, so a seed replays a game exactly
+    private SeededRandom random;
 
     public Dungeon(String dungeonName, String gamemodeString, String dungeonId) {
+        this(dungeonName, gamemodeString, dungeonId, System.nanoTime());
+    }
+
+    public Dungeon(String dungeonName, String gamemodeString, String dungeonId, long seed) {
         this.dungeonName = dungeonName;
         initialiseGameMode(gamemodeString); 
         this.dungeonId = dungeonId;
         this.counter = 0;
+        this.random = new SeededRandom(seed);
     }
 
     
+    /** 
+     * generate an entity id that is unique within this dungeon
+     * @return int
+     */
+    public int newEntityId() {
+        return entityIdCounter++;
+    }
+
+    /** 
+     * @return int the number the next new entity id will have
+     */
+    public int getNextEntityId() {
+        return entityIdCounter;
+    }
+
+    /** 
+     * @param nextEntityId
+     */
+    public void setNextEntityId(int nextEntityId) {
+        this.entityIdCounter = nextEntityId;
+    }
+
+    /** 
+     * move an entity, or an item in the inventory, to the id it was just given,
+     * and make sure newEntityId never hands that id out again
+     * @param entity
+     * @param oldId the id it had before
+     */
+    public void changeEntityId(Entity entity, int oldId) {
+        entityIdCounter = Math.max(entityIdCounter, entity.getNumericId() + 1);
+        if (entitiesById.get(oldId) == entity) {
+            entitiesById.remove(oldId);
+            entitiesById.put(entity.getNumericId(), entity);
+        }
+    }
+
+    /** 
+     * add an entity or inventory item to the id index
+     * @param entity
+     */
+    public void indexId(Entity entity) {
+        entitiesById.put(entity.getNumericId(), entity);
+    }
+
+    /** 
+     * remove an entity or inventory item from the id index, if it is the one indexed under its id
+     * @param entity
+     */
+    public void unindexId(Entity entity) {
+        if (entitiesById.get(entity.getNumericId()) == entity) {
+            entitiesById.remove(entity.getNumericId());
+        }
+    }
+
+    /** 
+     * @param id
+     * @return Entity the entity in the dungeon or item in the inventory with that id, null if there is none
+     */
+    public Entity getEntityById(int id) {
+        return entitiesById.get(id);
+    }
+
+    /** 
+     * @param id an id as the frontend sends it
+     * @return Entity the entity in the dungeon or item in the inventory with that id, null if there is none
+     */
+    public Entity getEntityById(String id) {
+        try {
+            return getEntityById(Integer.parseInt(id));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     /**
      * get the entity type string from a given entity id
      * @param id
      * @return String
      */
     public String getEntityTypeFromId(String id) {
-        for (Entity entity : entities) {
-            if (entity.getId().equals(id)) {
-                return entity.getType();
-            }
+        Entity entity = getEntityById(id);
+        if (entity == null) {
+            throw new IllegalArgumentException("Not a valid id!");
         }
-        List<Item> items = inventory.getInventoryList();
-        for (Item item : items) {
-            if (item.getId().equals(id)) {
-                return item.getType();
-            }
-        }
-
-        throw new IllegalArgumentException("Not a valid id!");
+        return entity.getType();
     }
 
     public void triggerBombExplosion() {
@@ -82,10 +188,163 @@ public class Dungeon {
 
     }
 
+    /** 
+     * get all entities with the given type string
+     * @param type
+     * @return List<Entity>
+     */
     public List<Entity> getEntitiesOfType(String type) {
-        return entities.stream().filter(n -> n.getType().equals(type)).collect(Collectors.toList());
-        
+        Set<Entity> entitiesOfType = entitiesByType.get(type);
+        if (entitiesOfType == null) {
+            return new ArrayList<Entity>();
+        }
+        return new ArrayList<Entity>(entitiesOfType);
+    }
 
+    /** 
+     * get all entities that are instances of the given class (including subclasses)
+     * @param <T>
+     * @param cls
+     * @return List<T>
+     */
+    public <T extends Entity> List<T> getEntitiesOfClass(Class<T> cls) {
+        List<T> entitiesOfClass = new ArrayList<T>();
+        Set<Entity> bucket = entitiesByClass.get(cls);
+        if (bucket != null) {
+            for (Entity entity : bucket) {
+                entitiesOfClass.add(cls.cast(entity));
+            }
+        }
+        return entitiesOfClass;
+    }
+
+    /** 
+     * count the entities with the given type string
+     * @param type
+     * @return int
+     */
+    public int countEntitiesOfType(String type) {
+        Set<Entity> entitiesOfType = entitiesByType.get(type);
+        return entitiesOfType == null ? 0 : entitiesOfType.size();
+    }
+
+    /** 
+     * count the entities that are instances of the given class (including subclasses)
+     * @param cls
+     * @return int
+     */
+    public int countEntitiesOfClass(Class<? extends Entity> cls) {
+        Set<Entity> entitiesOfClass = entitiesByClass.get(cls);
+        return entitiesOfClass == null ? 0 : entitiesOfClass.size();
+    }
+
+    /** 
+     * move an entity to the bucket of its new type after Entity.updateType
+     * @param entity
+     * @param oldType
+     */
+    public void updateEntityType(Entity entity, String oldType) {
+        Set<Entity> entitiesOfType = entitiesByType.get(oldType);
+        if (entitiesOfType != null && entitiesOfType.remove(entity)) {
+            entitiesByType.computeIfAbsent(entity.getType(), t -> new LinkedHashSet<Entity>()).add(entity);
+            if (entity instanceof StaticEntity) {
+                updateCellCost(entity.getPosition());
+            }
+            changeLog.changed(entity);
+            snapshotLog.changed(entity);
+        }
+    }
+
+    /** 
+     * record a change to an entity that is visible to the client, other than its position or type
+     * @param entity
+     */
+    public void updateEntity(Entity entity) {
+        Set<Entity> entitiesOfClass = entitiesByClass.get(entity.getClass());
+        if (entitiesOfClass != null && entitiesOfClass.contains(entity)) {
+            changeLog.changed(entity);
+            snapshotLog.changed(entity);
+        }
+    }
+
+    /** 
+     * record a change to state a save keeps for an entity that the client does not see, such as its health,
+     * so the next snapshot records it again. For an item in the inventory the inventory is marked changed instead
+     * @param entity
+     */
+    public void updateSavedState(Entity entity) {
+        Set<Entity> entitiesOfClass = entitiesByClass.get(entity.getClass());
+        if (entitiesOfClass != null && entitiesOfClass.contains(entity)) {
+            snapshotLog.changed(entity);
+        } else if (entity instanceof Item) {
+            inventory.itemChanged((Item) entity);
+        }
+    }
+
+    /** 
+     * hand over the entity changes made since the last call and start a new version
+     * @return EntityChangeLog
+     */
+    public EntityChangeLog takeChanges() {
+        EntityChangeLog changes = changeLog;
+        changeLog = new EntityChangeLog();
+        version++;
+        return changes;
+    }
+
+    /** 
+     * @return int number of times changes have been taken, a client that has seen this version can apply the next delta
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /** 
+     * carry on from another dungeon's versions, so a client of that dungeon gets a full snapshot next
+     * @param version
+     */
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    /** 
+     * hand over the entity changes made since the last snapshot
+     * @return EntityChangeLog
+     */
+    public EntityChangeLog takeSnapshotChanges() {
+        EntityChangeLog changes = snapshotLog;
+        snapshotLog = new EntityChangeLog(true);
+        return changes;
+    }
+
+    /** 
+     * add an entity to its type and class buckets
+     * @param entity
+     */
+    private void registerEntity(Entity entity) {
+        entitiesByType.computeIfAbsent(entity.getType(), t -> new LinkedHashSet<Entity>()).add(entity);
+        for (Class<?> cls = entity.getClass(); cls != Entity.class; cls = cls.getSuperclass()) {
+            entitiesByClass.computeIfAbsent(cls, c -> new LinkedHashSet<Entity>()).add(entity);
+        }
+        inventory.getCrafting().entityChanged(entity);
+    }
+
+    /** 
+     * remove an entity from its type and class buckets
+     * @param entity
+     */
+    private void unregisterEntity(Entity entity) {
+        Set<Entity> entitiesOfType = entitiesByType.get(entity.getType());
+        if (entitiesOfType != null) {
+            entitiesOfType.remove(entity);
+        }
+        for (Class<?> cls = entity.getClass(); cls != Entity.class; cls = cls.getSuperclass()) {
+            Set<Entity> entitiesOfClass = entitiesByClass.get(cls);
+            if (entitiesOfClass != null) {
+                entitiesOfClass.remove(entity);
+            }
+        }
+        inventory.getCrafting().entityChanged(entity);
     }
     /**
      * tick the global spawn counter and spawn a spider or hydra if needed
@@ -136,15 +395,28 @@ public class Dungeon {
     }
 
     
+    /** 
+     * @return SeededRandom the generator all entities in this dungeon draw from
+     */
+    public SeededRandom getRandom() {
+        return random;
+    }
+
+    /** 
+     * @param random
+     */
+    public void setRandom(SeededRandom random) {
+        this.random = random;
+    }
+
     /** 
      * return a random spawn position
      * @return Position
      */
     public Position randomSpawnPosition() {
-        Random number = new Random();
         int bound = 20;
-        int xRandom = number.nextInt(bound);
-        int yRandom = number.nextInt(bound);
+        int xRandom = random.nextInt(bound);
+        int yRandom = random.nextInt(bound);
         Position randPos = new Position(xRandom, yRandom);
         return randPos;
     }
@@ -155,7 +427,7 @@ public class Dungeon {
      * @return long
      */
     public long countSpiders() {
-        return entities.stream().filter(x -> x instanceof Spider).count();
+        return countEntitiesOfClass(Spider.class);
     }
 
     
@@ -192,7 +464,47 @@ public class Dungeon {
      */
     public void addEntity(Entity entity) {
         entities.add(entity);
+        indexId(entity);
+        indexEntity(entity, entity.getPosition());
+        registerEntity(entity);
+        coverPosition(entity.getPosition());
+        if (entity instanceof StaticEntity) {
+            updateCellCost(entity.getPosition());
+        }
+        changeLog.created(entity);
+        snapshotLog.created(entity);
         conditionalAttach(entity);
+        if (entity instanceof Switch || entity instanceof Exit) {
+            // it may have been put under a boulder or the player
+            entity.notifyObservers();
+        } else {
+            notifyGoalCell(entity, entity.getPosition());
+        }
+    }
+
+    /** 
+     * tell the switches and exits in a cell that a boulder or the player came or went,
+     * which is all that can change the goals on them
+     * @param entity the entity that came or went
+     * @param position
+     */
+    private void notifyGoalCell(Entity entity, Position position) {
+        if (position == null || !(entity instanceof Boulder || entity instanceof Player)) {
+            return;
+        }
+        List<Entity> entitiesAtPos = entitiesByPosition.get(cellOf(position));
+        if (entitiesAtPos == null) {
+            return;
+        }
+        for (Entity goalEntity : entitiesAtPos) {
+            if (goalEntity instanceof Switch || goalEntity instanceof Exit) {
+                goalEntity.notifyObservers();
+            }
+            if (goalEntity instanceof Switch && entity instanceof Boulder) {
+                // a save keeps whether the switch is pressed
+                snapshotLog.changed(goalEntity);
+            }
+        }
     }
 
     
@@ -215,6 +527,7 @@ public class Dungeon {
      */
     public void addSimpleGoals(GoalComponent simpleGoal) {
         simpleGoals.add(simpleGoal);
+        goalVersion++;
     }
     
     
@@ -224,13 +537,71 @@ public class Dungeon {
      * @return List<Entity>
      */
     public List<Entity> getEntities(Position position) {
-        List<Entity> entitiesAtPos = new ArrayList<Entity>();
-        for (Entity entity : entities) {
-            if (entity.getPosition().equals(position)) {
-                entitiesAtPos.add(entity);
+        List<Entity> entitiesAtPos = entitiesByPosition.get(cellOf(position));
+        if (entitiesAtPos == null) {
+            return new ArrayList<Entity>();
+        }
+        return new ArrayList<Entity>(entitiesAtPos);
+    }
+
+    /** 
+     * move an entity to its new cell after its position has changed
+     * entities that are not in the dungeon (e.g. items in the inventory) are ignored
+     * @param entity
+     * @param oldPosition
+     */
+    public void updateEntityPosition(Entity entity, Position oldPosition) {
+        if (unindexEntity(entity, oldPosition)) {
+            indexEntity(entity, entity.getPosition());
+            coverPosition(entity.getPosition());
+            if (entity instanceof StaticEntity) {
+                updateCellCost(oldPosition);
+                updateCellCost(entity.getPosition());
             }
+            changeLog.moved(entity);
+            snapshotLog.moved(entity);
+            notifyGoalCell(entity, oldPosition);
+            notifyGoalCell(entity, entity.getPosition());
+        }
+    }
+
+    /** 
+     * add an entity to the bucket of the cell at the given position
+     * @param entity
+     * @param position
+     */
+    private void indexEntity(Entity entity, Position position) {
+        entitiesByPosition.computeIfAbsent(cellOf(position), p -> new ArrayList<Entity>(2)).add(entity);
+    }
+
+    /** 
+     * remove an entity from the bucket of the cell at the given position
+     * @param entity
+     * @param position
+     * @return boolean true if the entity was in the bucket
+     */
+    private boolean unindexEntity(Entity entity, Position position) {
+        if (position == null) {
+            return false;
+        }
+        Position cell = cellOf(position);
+        List<Entity> entitiesAtPos = entitiesByPosition.get(cell);
+        if (entitiesAtPos == null || !entitiesAtPos.remove(entity)) {
+            return false;
         }
-        return entitiesAtPos;
+        if (entitiesAtPos.isEmpty()) {
+            entitiesByPosition.remove(cell);
+        }
+        return true;
+    }
+
+    /** 
+     * Position equality ignores the layer but its hash does not, so cells are keyed on layer 0
+     * @param position
+     * @return Position
+     */
+    private static Position cellOf(Position position) {
+        return position.getLayer() == 0 ? position : position.asLayer(0);
     }
 
 
@@ -240,7 +611,17 @@ public class Dungeon {
      * @param entity
      */
     public void removeEntity(Entity entity) {
-        entities.remove(entity);
+        if (entities.remove(entity)) {
+            unindexId(entity);
+            unindexEntity(entity, entity.getPosition());
+            unregisterEntity(entity);
+            if (entity instanceof StaticEntity) {
+                updateCellCost(entity.getPosition());
+            }
+            changeLog.removed(entity);
+            snapshotLog.removed(entity);
+            notifyGoalCell(entity, entity.getPosition());
+        }
     }
 
     
@@ -249,9 +630,8 @@ public class Dungeon {
      * @param position
      */
     public void explodePosition(Position position) {
-        List<Entity> entitiesCopy = new ArrayList<Entity>(entities);
-        for (Entity entity : entitiesCopy) {
-            if (entity.getPosition().equals(position) && !entity.getType().equals("player")) {
+        for (Entity entity : getEntities(position)) {
+            if (!entity.getType().equals("player")) {
                 removeEntity(entity);
             }
         }
@@ -272,7 +652,7 @@ public class Dungeon {
             Arrays.fill(row, false);
         }
 
-        PrimDungeon primDungeon = new PrimDungeon(start, end, mazeMap);
+        PrimDungeon primDungeon = new PrimDungeon(start, end, mazeMap, random.split());
         primDungeon.primGenerate();
 
         GoalComponent exit = new ExitGoal();
@@ -311,12 +691,11 @@ public class Dungeon {
      * @return Player
      */
     public Player getPlayer() {
-        for (Entity entity : entities) {
-            if (entity instanceof Player) {
-                return (Player) entity;
-            }
+        Set<Entity> players = entitiesByClass.get(Player.class);
+        if (players == null || players.isEmpty()) {
+            return null;
         }
-        return null;
+        return (Player) players.iterator().next();
     }
 
     
@@ -325,8 +704,9 @@ public class Dungeon {
      * @param item
      */
     public void moveToInventory(Item item) {
+        // out of the dungeon first, so the inventory is what the id index is left pointing at
+        removeEntity(item);
         inventory.add(item);
-        entities.remove(item);
     }
 
     /**
@@ -393,7 +773,36 @@ public class Dungeon {
      * @param entities the entities to set
      */
     public void setEntities(List<Entity> entities) {
+        for (Entity entity : this.entities) {
+            snapshotLog.removed(entity);
+        }
         this.entities = entities;
+        entitiesByPosition.clear();
+        entitiesByType.clear();
+        entitiesByClass.clear();
+        entitiesById.clear();
+        for (Item item : inventory.getInventoryList()) {
+            indexId(item);
+        }
+        for (Entity entity : entities) {
+            indexId(entity);
+            indexEntity(entity, entity.getPosition());
+            registerEntity(entity);
+        }
+        inventory.getCrafting().refresh();
+        costGrid = null;
+        costGridVersion++;
+        // every client needs a full snapshot after this
+        changeLog = new EntityChangeLog();
+        version++;
+        for (Entity entity : entities) {
+            // nothing recorded before can be trusted for these, nor their order
+            snapshotLog.created(entity);
+            coverPosition(entity.getPosition());
+            if (entity instanceof StaticEntity) {
+                updateCellCost(entity.getPosition());
+            }
+        }
     }
 
     /**
@@ -408,6 +817,7 @@ public class Dungeon {
      */
     public void setSimpleGoals(List<GoalComponent> simpleGoals) {
         this.simpleGoals = simpleGoals;
+        goalVersion++;
     }
 
     /**
@@ -421,56 +831,168 @@ public class Dungeon {
      * @param overallGoal the overallGoal to set
      */
     public void setOverallGoal(GoalComponent overallGoal) {
+        if (this.overallGoal != null) {
+            this.overallGoal.setParent(null);
+        }
         this.overallGoal = overallGoal;
+        if (overallGoal != null) {
+            overallGoal.setParent(complete -> goalVersion++);
+        }
+        goalVersion++;
+    }
+
+    /**
+     * @return int a number that changes whenever the goal string might
+     */
+    public int getGoalVersion() {
+        return goalVersion;
+    }
+
+    /**
+     * the goals left to complete as the frontend shows them, built again only once the goals have changed
+     * @return String empty once the overall goal is complete
+     */
+    public String getGoalString() {
+        if (goalStringVersion != goalVersion) {
+            goalString = buildGoalString();
+            goalStringVersion = goalVersion;
+        }
+        return goalString;
+    }
+
+    /**
+     * @return String each kind of simple goal once, in the order they were added
+     */
+    private String buildGoalString() {
+        if (overallGoal != null && overallGoal.isComplete()) {
+            return "";
+        }
+        StringBuilder goals = new StringBuilder();
+        Set<String> seen = new HashSet<String>();
+        for (GoalComponent simpleGoal : simpleGoals) {
+            String simpleGoalString = simpleGoal.simpleGoalToString();
+            if (seen.add(simpleGoalString)) {
+                goals.append(simpleGoalString);
+            }
+        }
+        return goals.toString();
     }
 
 
     /** 
      * Return the movement factor of a given position
-     * @return double
+     * @return double -1 if the position cannot be walked through
      */
     public double getMovementFactor(Position position) {
-        double movementFactor = 0;
-        for (Entity entity : entities) {
-            // Account for more than one static entity (i.e. boulder on switch)
-            if (entity instanceof StaticEntity && 
-                entity.getPosition().equals(position) && 
-                movementFactor != -1) {
-                movementFactor = ((StaticEntity)entity).getMovementFactor();
-            }
+        int cost = getPathGrid().getCost(position);
+        return cost < 0 ? -1 : cost;
+    }
+
+    /** 
+     * Return the cached cost of a cell, see PathGrid
+     * @param position
+     * @return int PathGrid.BLOCKED, PathGrid.PUSHABLE or the number of ticks it takes to cross
+     */
+    public int getCellCost(Position position) {
+        return getPathGrid().getCost(position);
+    }
+
+    /** 
+     * Get the grid of movement costs, covering every entity plus a border.
+     * It is updated in place, so callers that keep it should compare getCostGridVersion.
+     * @return PathGrid
+     */
+    public PathGrid getPathGrid() {
+        if (costGrid == null) {
+            costGrid = new PathGrid(-1, -1, 3, 3);
         }
+        return costGrid;
+    }
 
-        // if movementFactor remains 0, return 1 else return movementFactor
-        movementFactor = movementFactor == 0 ? 1 : movementFactor;
-        
-        return movementFactor;
+    /** 
+     * @return int changes every time a cell cost changes or the grid grows
+     */
+    public int getCostGridVersion() {
+        return costGridVersion;
     }
 
-    public List<Position> getGrid() {
-        // Initialise co-ordinates
-        int lowestX = Integer.MAX_VALUE;
-        int lowestY = Integer.MAX_VALUE;
-        int highestX = Integer.MIN_VALUE;
-        int highestY = Integer.MIN_VALUE;
+    /** 
+     * Recompute the cost of the cell at a position from the static entities on it.
+     * Walls, doors and spawners block it, a boulder makes it pushable, otherwise the highest movement factor wins.
+     * @param position
+     */
+    public void updateCellCost(Position position) {
+        if (position == null) {
+            return;
+        }
+        coverPosition(position);
+        boolean blocked = false;
+        boolean pushable = false;
+        int cost = 1;
+        for (Entity entity : getEntities(position)) {
+            if (!(entity instanceof StaticEntity)) {
+                continue;
+            }
+            double movementFactor = ((StaticEntity) entity).getMovementFactor();
+            if (movementFactor == -1) {
+                if (entity instanceof Boulder) {
+                    pushable = true;
+                } else {
+                    blocked = true;
+                }
+            } else {
+                cost = Math.max(cost, (int) Math.ceil(movementFactor));
+            }
+        }
+        if (blocked) {
+            cost = PathGrid.BLOCKED;
+        } else if (pushable) {
+            cost = PathGrid.PUSHABLE;
+        }
 
-        // Find values of coordinates
-        for (Entity entity : entities) {
-            lowestX = (entity.getXPosition() < lowestX) ? (entity.getXPosition() - 1) : (lowestX - 1);
-            lowestY = (entity.getYPosition() < lowestY) ? (entity.getYPosition() - 1) : (lowestY - 1);
-            highestX = (entity.getXPosition() > highestX) ? (entity.getXPosition() + 1) : (highestX + 1);
-            highestY = (entity.getYPosition() > highestY) ? (entity.getYPosition() + 1) : (highestY + 1);
+        int index = costGrid.indexOf(position);
+        if (costGrid.getCost(index) != cost) {
+            costGrid.setCost(index, cost);
+            costGridVersion++;
         }
+    }
 
-        // Create a list of all possible positions
-        List<Position> grid = new ArrayList<Position>();
-        for (int i = lowestX; i <= highestX; i++) {
-            for (int j = lowestY; j <= highestY; j++) {
-                grid.add(new Position(i, j));
-            }
+    /** 
+     * grow the cost grid if needed so it covers a position and the cells around it
+     * @param position
+     */
+    private void coverPosition(Position position) {
+        if (position == null) {
+            return;
+        }
+        int x = position.getX();
+        int y = position.getY();
+        if (costGrid == null) {
+            costGrid = new PathGrid(x - 1 - GRID_MARGIN, y - 1 - GRID_MARGIN, 3 + 2 * GRID_MARGIN, 3 + 2 * GRID_MARGIN);
+            costGridVersion++;
+        } else if (!costGrid.contains(new Position(x - 1, y - 1)) || !costGrid.contains(new Position(x + 1, y + 1))) {
+            costGrid = costGrid.grownToCover(x - 1 - GRID_MARGIN, y - 1 - GRID_MARGIN, x + 1 + GRID_MARGIN, y + 1 + GRID_MARGIN);
+            costGridVersion++;
         }
+    }
 
-        return grid;
+    /** 
+     * Get the field of path costs towards the player, shared by every enemy that chases or flees.
+     * It is only rebuilt once the player moves or the cost grid changes.
+     * @return FlowField null if there is no player
+     */
+    public FlowField getFlowField() {
+        Player player = getPlayer();
+        if (player == null) {
+            return null;
+        }
+        if (flowField == null || flowFieldVersion != costGridVersion || !flowField.getTarget().equals(player.getPosition())) {
+            flowField = FlowField.towards(getPathGrid(), player.getPosition());
+            flowFieldVersion = costGridVersion;
+        }
+        return flowField;
     }
+
     /**
      * @return int return the counter
      */
@@ -1,6 +1,8 @@
 package dungeonmania;
 
 import dungeonmania.exceptions.InvalidActionException;
+import dungeonmania.crafting.Recipe;
+import dungeonmania.crafting.Recipes;
 import dungeonmania.goals.AndGoal;
 import dungeonmania.goals.BoulderOnSwitchGoal;
 import dungeonmania.goals.CollectTreasureGoal;
@@ -11,22 +13,25 @@ import dungeonmania.goals.GoalComponent;
 import dungeonmania.goals.OrGoal;
 import dungeonmania.items.Anduril;
 import dungeonmania.items.Armour;
-import dungeonmania.items.Arrow;
-import dungeonmania.items.Bomb;
 import dungeonmania.items.Bow;
-import dungeonmania.items.HealthPotion;
-import dungeonmania.items.InvincibilityPotion;
-import dungeonmania.items.InvisibilityPotion;
 import dungeonmania.items.Item;
 import dungeonmania.items.Key;
 import dungeonmania.items.MidnightArmour;
-import dungeonmania.items.OneRing;
-import dungeonmania.items.Sceptre;
 import dungeonmania.items.Shield;
-import dungeonmania.items.SunStone;
 import dungeonmania.items.Sword;
-import dungeonmania.items.Treasure;
-import dungeonmania.items.Wood;
+import dungeonmania.loader.BinarySaveReader;
+import dungeonmania.loader.DungeonLoader;
+import dungeonmania.loader.DungeonSnapshot;
+import dungeonmania.loader.DungeonTemplate;
+import dungeonmania.loader.DungeonTemplates;
+import dungeonmania.loader.JsonFields;
+import dungeonmania.loader.SaveCatalogue;
+import dungeonmania.loader.SaveFormat;
+import dungeonmania.loader.SaveQueue;
+import dungeonmania.loader.SaveSnapshot;
+import dungeonmania.metrics.TickMetrics;
+import dungeonmania.metrics.TickMetrics.Phase;
+import dungeonmania.replay.ReplayJournal;
 import dungeonmania.moving_entities.Assassin;
 import dungeonmania.moving_entities.Enemy;
 import dungeonmania.moving_entities.Hydra;
@@ -35,33 +40,37 @@ import dungeonmania.moving_entities.Mercenary;
 import dungeonmania.moving_entities.MercenaryState;
 import dungeonmania.moving_entities.Spider;
 import dungeonmania.moving_entities.ZombieToast;
-import dungeonmania.player.Inventory;
 import dungeonmania.player.InvincibleState;
 import dungeonmania.player.InvisibleState;
+import dungeonmania.player.Inventory;
 import dungeonmania.player.Player;
 import dungeonmania.player.PlayerState;
+import dungeonmania.response.models.DungeonDeltaResponse;
 import dungeonmania.response.models.DungeonResponse;
+import dungeonmania.response.models.SaveStatusResponse;
 import dungeonmania.util.Direction;
 import dungeonmania.util.FileLoader;
 
 import dungeonmania.response.models.EntityResponse;
 import dungeonmania.response.models.ItemResponse;
-import dungeonmania.static_entities.Boulder;
 import dungeonmania.static_entities.Door;
-import dungeonmania.static_entities.Exit;
 import dungeonmania.static_entities.Portal;
 import dungeonmania.static_entities.StaticEntity;
 import dungeonmania.static_entities.SwampTile;
 import dungeonmania.static_entities.Switch;
-import dungeonmania.static_entities.Wall;
 import dungeonmania.static_entities.ZombieToastSpawner;
 
 
-import java.io.FileWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
 
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -69,27 +78,60 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.json.JSONObject;
 import org.json.JSONArray;
 
 
 import dungeonmania.util.Position;
+import dungeonmania.util.SeededRandom;
 
 
 public class DungeonManiaController {
-    private static int dungeonIdCounter = 0; 
+    // shared by every controller, atomic so parallel games never wait on each other for an id
+    private static final AtomicInteger dungeonIdCounter = new AtomicInteger(); 
+    // what is in saveFiles, so listing and loading saves does not walk the directory
+    private static final SaveCatalogue CATALOGUE = SaveCatalogue.open(Paths.get("saveFiles"));
+    // shared by every game, so saves of one name reach the disk in the order they were made
+    private static final SaveQueue SAVES = new SaveQueue(Paths.get("saveFiles"), CATALOGUE);
+    // where journaled games' replay journals are written, the dungeonmania.journals system property moves it
+    private static final Path JOURNALS = Paths.get(System.getProperty("dungeonmania.journals", "journals"));
+    // tells this run's journals from those of earlier runs, which were numbered from 0 as well
+    private static final String RUN = Long.toString(System.currentTimeMillis(), 36);
+    private static final AtomicInteger journalCounter = new AtomicInteger();
+    // journals are kept for the newest games only, older ones are deleted every so many new journals
+    private static final int JOURNALS_KEPT = 256;
+    private static final int JOURNALS_BETWEEN_PRUNES = 32;
     
     /** 
      * makes a unique id
      * @return String
      */
-    public static synchronized String newDungeonId() {
-        return String.valueOf(dungeonIdCounter++);
+    public static String newDungeonId() {
+        return String.valueOf(dungeonIdCounter.getAndIncrement());
     }
 
+    // how many earlier states undo can go back through
+    private static final int UNDO_LIMIT = 100;
+    // empty snapshot slots allowed beyond the number of entities before a snapshot is taken afresh
+    private static final int SNAPSHOT_SLACK = 1024;
+
     private Dungeon activeGame = null;
+    // every state of the active game since it started, the last one being the current state
+    private List<DungeonSnapshot> undoHistory = new ArrayList<DungeonSnapshot>();
+    // states undone, the last one undone first
+    private List<DungeonSnapshot> redoHistory = new ArrayList<DungeonSnapshot>();
+    private Map<String, DungeonSnapshot> namedSnapshots = new HashMap<String, DungeonSnapshot>();
+    private boolean keepingHistory = true;
+    // keepingHistory as it was when the active game started, which it keeps to its end
+    private boolean gameKeepsHistory;
+    // the active game's inventory version when the latest snapshot was taken or restored
+    private int snapshotInventoryVersion;
+    private boolean journaling = false;
+    private boolean measuring = true;
+    // null if the journal could not be written, the game still plays but cannot be replayed
+    private ReplayJournal journal = null;
 
     public DungeonManiaController() {
     }
@@ -125,11 +167,8 @@ public class DungeonManiaController {
      * Done for you.
      */
     public static List<String> dungeons() {
-        try {
-            return FileLoader.listFileNamesInResourceDirectory("/dungeons");
-        } catch (IOException e) {
-            return new ArrayList<>();
-        }
+        // listed once, the resources do not change while the game runs
+        return new ArrayList<String>(DungeonTemplates.names());
     }
 
 
@@ -142,8 +181,19 @@ public class DungeonManiaController {
      * @throws IllegalArgumentException
      */
     public DungeonResponse newGame(String dungeonName, String gameMode) throws IllegalArgumentException {
-    
-        if (!dungeons().contains(dungeonName)) {
+        return newGame(dungeonName, gameMode, System.nanoTime());
+    }
+
+    /** 
+     * makes a new game with dungeonName and gameMode, whose random events all follow from seed
+     * @param dungeonName
+     * @param gameMode
+     * @param seed
+     * @return DungeonResponse
+     * @throws IllegalArgumentException
+     */
+    public DungeonResponse newGame(String dungeonName, String gameMode, long seed) throws IllegalArgumentException {
+        if (!DungeonTemplates.names().contains(dungeonName)) {
             throw new IllegalArgumentException("Invalid dungeonName");
         }
 
@@ -151,132 +201,47 @@ public class DungeonManiaController {
         if (!getGameModes().contains(standardisedGamemodeString)) {
             throw new IllegalArgumentException();
         }
-        String fileContents = null;
-        
-        try {
-            fileContents = FileLoader.loadResourceFile("/dungeons/" + dungeonName + ".json");
-        } catch(IOException e) {
-            System.out.println("File couldn't be loaded");
+        startNewGame(dungeonName, standardisedGamemodeString, newDungeonId(), seed);
+        startHistory();
+        if (openJournal()) {
+            journal.newGame(dungeonName, standardisedGamemodeString, activeGame.getDungeonId(), seed);
+        }
+
+        return createDungeonResponse();
+    }
+
+    /** 
+     * makes a new game from the contents of a dungeon file rather than a named resource
+     * @param dungeonName
+     * @param fileContents the dungeon json
+     * @param gameMode
+     * @param seed
+     * @return DungeonResponse
+     * @throws IllegalArgumentException
+     */
+    public DungeonResponse newGameFromJson(String dungeonName, String fileContents, String gameMode, long seed) throws IllegalArgumentException {
+        String standardisedGamemodeString = gameMode.toLowerCase();
+        if (!getGameModes().contains(standardisedGamemodeString)) {
+            throw new IllegalArgumentException();
         }
 
-        
         String dungeonId = newDungeonId();
 
         // Make the Dungeon Class
-        activeGame = new Dungeon(dungeonName, standardisedGamemodeString, dungeonId);
+        activeGame = new Dungeon(dungeonName, standardisedGamemodeString, dungeonId, seed);
 
         
         
-        JSONObject dungeonObj = new JSONObject(fileContents);
-        // Extract data from Json Object
-
-        JSONObject goalCondition = dungeonObj.getJSONObject("goal-condition");
-
-        GoalComponent overallGoal = extractAllGoals(goalCondition, activeGame);
-        activeGame.setOverallGoal(overallGoal); 
-
-        JSONArray entityList = dungeonObj.getJSONArray("entities");
-        
-        for (int i = 0; i < entityList.length(); i++) {
-            String entityType = entityList.getJSONObject(i).getString("type");
-
-            Position currPosition = new Position(entityList.getJSONObject(i).getInt("x"), entityList.getJSONObject(i).getInt("y"));
-
-
-            // Create entities based on type in JSON File using a bunch of if statements
-            int key;
-            String colour;
-
-            switch (entityType) {
-                case "wall":
-                    new Wall(currPosition, activeGame);  
-                    break;
-                case "exit":
-                    new Exit(currPosition, activeGame);
-                    break;
-                case "boulder":
-                    new Boulder(currPosition, activeGame);
-                    break;
-                case "switch":
-                    new Switch(currPosition, activeGame);
-                    break;
-                case "door":
-                    key = entityList.getJSONObject(i).getInt("key");
-                    new Door(currPosition, activeGame, key);
-                    break;
-                case "portal":
-                    colour = entityList.getJSONObject(i).getString("colour");
-                    new Portal(currPosition, activeGame, colour);
-                    break;
-                case "zombie_toast_spawner":
-                    new ZombieToastSpawner(currPosition, activeGame);
-                    break;
-                case "swamp_tile":
-                    new SwampTile(currPosition, activeGame, entityList.getJSONObject(i).getInt("movement_factor"));
-                    break;
-                case "one_ring":
-                    new OneRing(currPosition, activeGame);
-                    break;
-                case "spider":
-                    new Spider(currPosition, activeGame);
-                    break;
-                case "zombie_toast":
-                    new ZombieToast(currPosition, activeGame);
-                    break;
-                case "mercenary":
-                    // 10% chance that assassin is spawned in.
-                    int randomOneDigitNum = new Random().nextInt(10);
-                    if (randomOneDigitNum == 1) {
-                        new Assassin(currPosition, activeGame);
-                    } else {
-                        new Mercenary(currPosition, activeGame);
-                    }
-                    break;
-                case "treasure":
-                    new Treasure(currPosition, activeGame);
-                    break;
-                case "key":
-                    key = entityList.getJSONObject(i).getInt("key");
-                    new Key(currPosition, activeGame, key);
-                    break;
-                case "health_potion":
-                    new HealthPotion(currPosition, activeGame);
-                    break;
-                case "invincibility_potion":
-                    new InvincibilityPotion(currPosition, activeGame);
-                    break;
-                case "invisibility_potion":
-                    new InvisibilityPotion(currPosition, activeGame);
-                    break;
-                case "wood":
-                    new Wood(currPosition, activeGame);
-                    break;
-                case "arrow":
-                    new Arrow(currPosition, activeGame); 
-                    break;
-                case "bomb":
-                    new Bomb(currPosition, activeGame);
-                    break;
-                case "sword":
-                    new Sword(currPosition, activeGame);
-                    break;
-                case "player":
-                    new Player(currPosition, activeGame);
-                    break;
-                case "assassin": 
-                    new Assassin(currPosition, activeGame);
-                    break;
-                case "hydra":
-                    new Hydra(currPosition, activeGame);
-                    break;
-                case "sun_stone":
-                    new SunStone(currPosition, activeGame);
-                    break;
-                case "anduril":
-                    new Anduril(currPosition, activeGame);
-                    break;
-            }
-
+        try {
+            DungeonLoader.Header header = DungeonLoader.readHeader(new StringReader(fileContents));
+            activeGame.setOverallGoal(extractAllGoals(header.getGoalCondition(), activeGame));
+            DungeonLoader.readEntities(new StringReader(fileContents), activeGame);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid dungeon json", e);
+        }
+        startHistory();
+        if (openJournal()) {
+            journal.checkpoint(createBinarySave());
         }
 
         return createDungeonResponse();
@@ -285,16 +250,65 @@ public class DungeonManiaController {
     
 
     public DungeonResponse generateDungeon(int xStart, int yStart, int xEnd, int yEnd, String gameMode) throws IllegalArgumentException {
+        return generateDungeon(xStart, yStart, xEnd, yEnd, gameMode, System.nanoTime());
+    }
+
+    /** 
+     * generates a maze dungeon with Prim's algorithm, the maze and all later random events follow from seed
+     * @param xStart
+     * @param yStart
+     * @param xEnd
+     * @param yEnd
+     * @param gameMode
+     * @param seed
+     * @return DungeonResponse
+     * @throws IllegalArgumentException
+     */
+    public DungeonResponse generateDungeon(int xStart, int yStart, int xEnd, int yEnd, String gameMode, long seed) throws IllegalArgumentException {
         if (!getGameModes().contains(gameMode)) {
             throw new IllegalArgumentException();
         }
 
-        String dungeonId = newDungeonId();
-        activeGame = new Dungeon("PrimsMaze", gameMode, dungeonId);
-        activeGame.randomizedPrims(50, 50, new Position(xStart, yStart), new Position(xEnd, yEnd));
+        startGeneratedGame(xStart, yStart, xEnd, yEnd, gameMode, newDungeonId(), seed);
+        startHistory();
+        if (openJournal()) {
+            journal.generate(xStart, yStart, xEnd, yEnd, gameMode, activeGame.getDungeonId(), seed);
+        }
 
         return createDungeonResponse();
     }
+
+    /** 
+     * make the active game from a dungeon in the resources
+     * @param dungeonName
+     * @param gameMode
+     * @param dungeonId
+     * @param seed
+     * @throws IllegalArgumentException
+     */
+    private void startNewGame(String dungeonName, String gameMode, String dungeonId, long seed) throws IllegalArgumentException {
+        // read and parsed the first time anyone plays this dungeon, not every time
+        DungeonTemplate template = DungeonTemplates.get(dungeonName);
+
+        activeGame = new Dungeon(dungeonName, gameMode, dungeonId, seed);
+        activeGame.setOverallGoal(extractAllGoals(template.getGoalCondition(), activeGame));
+        template.build(activeGame);
+    }
+
+    /** 
+     * make the active game a maze generated with Prim's algorithm
+     * @param xStart
+     * @param yStart
+     * @param xEnd
+     * @param yEnd
+     * @param gameMode
+     * @param dungeonId
+     * @param seed
+     */
+    private void startGeneratedGame(int xStart, int yStart, int xEnd, int yEnd, String gameMode, String dungeonId, long seed) {
+        activeGame = new Dungeon("PrimsMaze", gameMode, dungeonId, seed);
+        activeGame.randomizedPrims(50, 50, new Position(xStart, yStart), new Position(xEnd, yEnd));
+    }
     
     /** 
      * saves a game to a filename
@@ -302,174 +316,216 @@ public class DungeonManiaController {
      * @return DungeonResponse
      */
     public DungeonResponse saveGame(String name) {
+        return saveGame(name, SaveFormat.JSON);
+    }
 
-        
-        List<Entity> entities = activeGame.getEntities();
-
-        JSONArray entitiesJSON = new JSONArray();
-        
-        for (int i = 0; i < entities.size(); i++) {
-            Entity currEntity = entities.get(i);
-            
-            String currType = currEntity.getType();
-            Map<String, Object> entityData = new HashMap<String, Object>();
-            entityData.put("x", currEntity.getXPosition());
-            entityData.put("y", currEntity.getYPosition());
-            entityData.put("type", currEntity.getType());
-            entityData.put("entityId", currEntity.getId());
-
-
-            switch (currType) {
-                case "portal":
-                    entityData.put("colour", ((Portal)currEntity).getPortalColour());
-                    break;
-                case "door": 
-                    entityData.put("key", ((Door)currEntity).getKey());
-                    break;
-                case "door_unlocked":
-                    entityData.put("key", ((Door)currEntity).getKey());
-                    break;
-                case "key":
-                    entityData.put("key", ((Key)currEntity).getKey());
-                    break;
-                case "switch":
-                    entityData.put("hasBoulder", ((Switch)currEntity).hasBoulder());
-                    break;
-                case "zombie_toast": 
-                    entityData.put("totalArmour", ((ZombieToast)currEntity).getArmour());
-                    entityData.put("slowed", ((ZombieToast)currEntity).getSlowed());
-                    break;       
-                case "mercenary":
-                    entityData.put("totalArmour", ((Mercenary)currEntity).getArmour());
-                    entityData.put("ally", ((Mercenary)currEntity).isAlly());
-                    entityData.put("slowed", ((Mercenary)currEntity).getSlowed());
-                    MercenaryState state = ((Mercenary)currEntity).getMercenaryState();
-                    String mercState = state.getType();
-                    entityData.put("mercState", mercState);
-                    if (mercState.equals("MercControlled")) {
-                        entityData.put("timeLeft", ((MercControlledState)state).getTimeLeft());
-                        entityData.put("wasAlly", ((MercControlledState)state).isWasAlly());
-                    }
-                    break; 
-                case "assassin":
-                    entityData.put("totalArmour", ((Assassin)currEntity).getArmour());
-                    entityData.put("ally", ((Assassin)currEntity).isAlly());
-                    entityData.put("slowed", ((Assassin)currEntity).getSlowed());
-
-                    MercenaryState assassinState = ((Assassin)currEntity).getMercenaryState();
-                    String assState = assassinState.getType();
-                    entityData.put("mercState", assState);
-                    if (assState.equals("MercControlled")) {
-                        entityData.put("timeLeft", ((MercControlledState)assassinState).getTimeLeft());
-                        entityData.put("wasAlly", ((MercControlledState)assassinState).isWasAlly());
-                    }
-                    break;  
-                case "player":
-                    PlayerState characterState = ((Player)currEntity).getPlayerState();
-                    String stateType = characterState.getType();
-                    entityData.put("health", ((Player)currEntity).getHealth());
-                    entityData.put("characterState", stateType);
-                    entityData.put("teleported", ((Player)currEntity).getTeleported());
-                    if (stateType.equals("Invincible")) {
-                        entityData.put("timeLeft", ((InvincibleState)characterState).getTimeLeft());
-                    } else if (stateType.equals("Invisible")) {
-                        entityData.put("timeLeft", ((InvisibleState)characterState).getTimeLeft());
-                    }
-                    break;
-                case "spider":
-                    entityData.put("startingPositionx", ((Spider)currEntity).getStartingPosition().getX());
-                    entityData.put("startingPositiony", ((Spider)currEntity).getStartingPosition().getY());
-                    entityData.put("positionNumber", ((Spider)currEntity).getPositionNumber());
-                    entityData.put("slowed", ((Spider)currEntity).getSlowed());
-                    break;
-                case "hydra": {
-                    entityData.put("slowed", ((Hydra)currEntity).getSlowed());
-                    break;
-                }
-                case "swamp_tile":
-                    entityData.put("movement_factor", ((SwampTile)currEntity).getMovementFactor());
-                    break;
-            }
-
-            JSONObject entityJSON = new JSONObject(entityData);
-
-            entitiesJSON.put(entityJSON);
+    /** 
+     * saves a game to a filename in the given format, replacing a save of that name in the other format
+     * @param name
+     * @param format
+     * @return DungeonResponse
+     */
+    public DungeonResponse saveGame(String name, SaveFormat format) {
+        // through the queue, so a save still waiting there cannot land on top of this one later
+        SAVES.submit(takeSnapshot(name, format));
+        SAVES.await(name);
+        SaveStatusResponse status = SAVES.status(name);
+        if (status.getStatus().equals(SaveQueue.FAILED)) {
+            System.out.println("Working Directory = " + System.getProperty("user.dir"));
+            System.out.println(status.getError());
+            return null;
         }
 
-        List<Item> items = activeGame.getInventory().getInventoryList();
-        JSONArray itemsJSON = new JSONArray();
-
-        for (int i = 0; i < items.size(); i++) {
-            Entity currItem = items.get(i);
-
-            String currType = currItem.getType();
-            Map<String, Object> itemData = new HashMap<String, Object>();
-            itemData.put("type", currItem.getType());
-            itemData.put("entityId", currItem.getId());
-
+        return createDungeonResponse();
+    }
 
-            switch (currType) {
-                case "key":
-                    itemData.put("key", ((Key)currItem).getKey());
-                    break;
-                case "sword":  
-                    itemData.put("usesLeft", ((Sword)currItem).getUsesLeft());
-                    break;
-                case "armour":   
-                    itemData.put("usesLeft", ((Armour)currItem).getUsesLeft());
-                    break;
-                case "bow":
-                    itemData.put("usesLeft", ((Bow)currItem).getUsesLeft());
-                    break;
-                case "shield":
-                    itemData.put("usesLeft", ((Shield)currItem).getUsesLeft());
-                    break;
-                case "midnight_armour":
-                    itemData.put("usesLeft", ((MidnightArmour)currItem).getUsesLeft());
-                    break;
-                case "anduril":
-                    itemData.put("usesLeft", ((Anduril)currItem).getUsesLeft());
-                    break;
-            }
-            JSONObject itemJSON = new JSONObject(itemData);
-            itemsJSON.put(itemJSON);
+    /** 
+     * saves a game without waiting for the disk, see saveStatus for when it is written
+     * @param name
+     * @param format
+     * @return DungeonResponse
+     */
+    public DungeonResponse saveGameAsync(String name, SaveFormat format) {
+        SAVES.submit(takeSnapshot(name, format));
+        return createDungeonResponse();
+    }
 
+    /** 
+     * @param name
+     * @return SaveStatusResponse how far the last save of that name has got
+     * @throws IllegalArgumentException if there is no save of that name
+     */
+    public SaveStatusResponse saveStatus(String name) throws IllegalArgumentException {
+        SaveStatusResponse status = SAVES.status(name);
+        if (status != null) {
+            return status;
         }
+        SaveCatalogue.Entry save = CATALOGUE.find(name);
+        if (save == null) {
+            throw new IllegalArgumentException("Invalid saveName");
+        }
+        // saved before this process started
+        return new SaveStatusResponse(name, SaveQueue.SAVED, save.getSize(), null);
+    }
 
+    /** 
+     * copy what a save needs out of the active game, so the game can change while the save is written
+     * @param name
+     * @param format
+     * @return SaveSnapshot
+     */
+    private SaveSnapshot takeSnapshot(String name, SaveFormat format) {
+        List<Map<String, Object>> entities = new ArrayList<Map<String, Object>>();
+        for (Entity entity : activeGame.getEntities()) {
+            entities.add(createEntitySaveData(entity));
+        }
+        List<Map<String, Object>> items = new ArrayList<Map<String, Object>>();
+        for (Item item : activeGame.getInventory().getInventoryList()) {
+            items.add(createItemSaveData(item));
+        }
+        return new SaveSnapshot(name, format, createDungeonSaveData(), activeGame.getOverallGoal().toJSON(), entities, items);
+    }
 
-        GoalComponent overallGoal = activeGame.getOverallGoal();
-        JSONObject goalsJSON = overallGoal.toJSON();
-
+    /** 
+     * the values a save keeps for the dungeon itself
+     * @return Map<String, Object>
+     */
+    private Map<String, Object> createDungeonSaveData() {
         Map<String, Object> dungeonMap = new HashMap<String, Object>();
-        dungeonMap.put("entities", entitiesJSON);
-        dungeonMap.put("items", itemsJSON);
-        dungeonMap.put("goal-condition", goalsJSON);
         dungeonMap.put("gamemode", activeGame.getGamemode().toString());
-        String dungeonId = activeGame.getDungeonId();
-        String dungeonName = activeGame.getDungeonName();
-        dungeonMap.put("dungeonId", dungeonId);
-        dungeonMap.put("dungeonName", dungeonName);
+        dungeonMap.put("dungeonId", activeGame.getDungeonId());
+        dungeonMap.put("dungeonName", activeGame.getDungeonName());
         dungeonMap.put("counter", activeGame.getCounter());
+        // the generator's state, so a loaded game carries on with the same random events
+        dungeonMap.put("seed", activeGame.getRandom().getState());
+        dungeonMap.put("nextEntityId", activeGame.getNextEntityId());
+        return dungeonMap;
+    }
 
-        JSONObject dungeonJSON = new JSONObject(dungeonMap);
-
-        String dungeonSave = dungeonJSON.toString();
+    /** 
+     * the values a save keeps for an entity on the map
+     * @param currEntity
+     * @return Map<String, Object>
+     */
+    private Map<String, Object> createEntitySaveData(Entity currEntity) {
+        String currType = currEntity.getType();
+        Map<String, Object> entityData = new HashMap<String, Object>();
+        entityData.put("x", currEntity.getXPosition());
+        entityData.put("y", currEntity.getYPosition());
+        entityData.put("type", currEntity.getType());
+        entityData.put("entityId", currEntity.getId());
+
+
+        switch (currType) {
+            case "portal":
+                entityData.put("colour", ((Portal)currEntity).getPortalColour());
+                break;
+            case "door": 
+                entityData.put("key", ((Door)currEntity).getKey());
+                break;
+            case "door_unlocked":
+                entityData.put("key", ((Door)currEntity).getKey());
+                break;
+            case "key":
+                entityData.put("key", ((Key)currEntity).getKey());
+                break;
+            case "switch":
+                entityData.put("hasBoulder", ((Switch)currEntity).hasBoulder());
+                break;
+            case "zombie_toast": 
+                entityData.put("totalArmour", ((ZombieToast)currEntity).getArmour());
+                entityData.put("slowed", ((ZombieToast)currEntity).getSlowed());
+                break;       
+            case "mercenary":
+                entityData.put("totalArmour", ((Mercenary)currEntity).getArmour());
+                entityData.put("ally", ((Mercenary)currEntity).isAlly());
+                entityData.put("slowed", ((Mercenary)currEntity).getSlowed());
+                MercenaryState state = ((Mercenary)currEntity).getMercenaryState();
+                String mercState = state.getType();
+                entityData.put("mercState", mercState);
+                if (mercState.equals("MercControlled")) {
+                    entityData.put("timeLeft", ((MercControlledState)state).getTimeLeft());
+                    entityData.put("wasAlly", ((MercControlledState)state).isWasAlly());
+                }
+                break; 
+            case "assassin":
+                entityData.put("totalArmour", ((Assassin)currEntity).getArmour());
+                entityData.put("ally", ((Assassin)currEntity).isAlly());
+                entityData.put("slowed", ((Assassin)currEntity).getSlowed());
+
+                MercenaryState assassinState = ((Assassin)currEntity).getMercenaryState();
+                String assState = assassinState.getType();
+                entityData.put("mercState", assState);
+                if (assState.equals("MercControlled")) {
+                    entityData.put("timeLeft", ((MercControlledState)assassinState).getTimeLeft());
+                    entityData.put("wasAlly", ((MercControlledState)assassinState).isWasAlly());
+                }
+                break;  
+            case "player":
+                PlayerState characterState = ((Player)currEntity).getPlayerState();
+                String stateType = characterState.getType();
+                entityData.put("health", ((Player)currEntity).getHealth());
+                entityData.put("characterState", stateType);
+                entityData.put("teleported", ((Player)currEntity).getTeleported());
+                if (stateType.equals("Invincible")) {
+                    entityData.put("timeLeft", ((InvincibleState)characterState).getTimeLeft());
+                } else if (stateType.equals("Invisible")) {
+                    entityData.put("timeLeft", ((InvisibleState)characterState).getTimeLeft());
+                }
+                break;
+            case "spider":
+                entityData.put("startingPositionx", ((Spider)currEntity).getStartingPosition().getX());
+                entityData.put("startingPositiony", ((Spider)currEntity).getStartingPosition().getY());
+                entityData.put("positionNumber", ((Spider)currEntity).getPositionNumber());
+                entityData.put("slowed", ((Spider)currEntity).getSlowed());
+                break;
+            case "hydra": {
+                entityData.put("slowed", ((Hydra)currEntity).getSlowed());
+                break;
+            }
+            case "swamp_tile":
+                entityData.put("movement_factor", ((SwampTile)currEntity).getMovementFactor());
+                break;
+        }
+        return entityData;
+    }
 
-        
-        try {
-            Path savePath = Files.createDirectories(Paths.get("saveFiles"));
+    /** 
+     * the values a save keeps for an inventory item
+     * @param currItem
+     * @return Map<String, Object>
+     */
+    private Map<String, Object> createItemSaveData(Entity currItem) {
+        String currType = currItem.getType();
+        Map<String, Object> itemData = new HashMap<String, Object>();
+        itemData.put("type", currItem.getType());
+        itemData.put("entityId", currItem.getId());
 
-            PrintWriter fileLocation = new PrintWriter(new FileWriter(savePath.resolve(name + ".json").toFile()));
-            fileLocation.print(dungeonSave);
-            fileLocation.close();
 
-        } catch (IOException e) {
-            System.out.println("Working Directory = " + System.getProperty("user.dir"));
-            System.out.println(e.toString());
-            return null;
+        switch (currType) {
+            case "key":
+                itemData.put("key", ((Key)currItem).getKey());
+                break;
+            case "sword":  
+                itemData.put("usesLeft", ((Sword)currItem).getUsesLeft());
+                break;
+            case "armour":   
+                itemData.put("usesLeft", ((Armour)currItem).getUsesLeft());
+                break;
+            case "bow":
+                itemData.put("usesLeft", ((Bow)currItem).getUsesLeft());
+                break;
+            case "shield":
+                itemData.put("usesLeft", ((Shield)currItem).getUsesLeft());
+                break;
+            case "midnight_armour":
+                itemData.put("usesLeft", ((MidnightArmour)currItem).getUsesLeft());
+                break;
+            case "anduril":
+                itemData.put("usesLeft", ((Anduril)currItem).getUsesLeft());
+                break;
         }
-
-        return createDungeonResponse();
+        return itemData;
     }
 
     
@@ -480,237 +536,509 @@ public class DungeonManiaController {
      * @throws IllegalArgumentException
      */
     public DungeonResponse loadGame(String name) throws IllegalArgumentException {
-        if (!allGames().contains(name)) {
+        // a save of this name may still be on its way to disk
+        SAVES.await(name);
+        SaveCatalogue.Entry save = CATALOGUE.find(name);
+        if (save == null) {
             throw new IllegalArgumentException("Invalid saveName");
         }
         
-        String fileContents;
+        Path savePath = save.getPath();
         try {
-            fileContents = new String(Files.readAllBytes(Paths.get("saveFiles/" + name + ".json")));
-        } catch (Exception e) {
+            if (SaveFormat.detect(savePath) == SaveFormat.BINARY) {
+                try (InputStream in = Files.newInputStream(savePath)) {
+                    loadBinarySave(in);
+                }
+            } else {
+                DungeonLoader.Header header;
+                try (Reader reader = Files.newBufferedReader(savePath)) {
+                    header = DungeonLoader.readHeader(reader);
+                }
+                JsonFields dungeonFields = startLoadedGame(header);
+                try (Reader reader = Files.newBufferedReader(savePath)) {
+                    DungeonLoader.readEntities(reader, activeGame);
+                }
+                finishLoadedGame(dungeonFields);
+            }
+        } catch (NoSuchFileException e) {
+            // deleted since the catalogue last heard of it
+            CATALOGUE.refresh(savePath);
+            throw new IllegalArgumentException("Invalid saveName");
+        } catch (IOException e) {
             System.out.println("Working Directory = " + System.getProperty("user.dir"));
             System.out.println(e.toString());
             return null;
         }
-        JSONObject dungeonObj = new JSONObject(fileContents);
-        
-        String dungeonName = dungeonObj.getString("dungeonName");
-        String dungeonId = dungeonObj.getString("dungeonId");
-        String dungeonMode = dungeonObj.getString("gamemode");
-        int counter = dungeonObj.getInt("counter");
+        startHistory();
+        if (openJournal()) {
+            journal.checkpoint(createBinarySave());
+        }
 
-        activeGame = new Dungeon(dungeonName, dungeonMode, dungeonId);
-        activeGame.setCounter(counter);
-        
-        JSONObject goalCondition = dungeonObj.getJSONObject("goal-condition");
-        GoalComponent overallGoal = extractAllGoals(goalCondition, activeGame);
-        activeGame.setOverallGoal(overallGoal); 
+        return createDungeonResponse();
+    }
 
-        JSONArray entityList = dungeonObj.getJSONArray("entities");
+    /** 
+     * make the active game from a binary save
+     * @param in
+     * @throws IOException
+     */
+    private void loadBinarySave(InputStream in) throws IOException {
+        // one pass, the header comes first
+        BinarySaveReader reader = new BinarySaveReader(in);
+        JsonFields dungeonFields = startLoadedGame(reader.readHeader());
+        reader.readEntities(activeGame);
+        finishLoadedGame(dungeonFields);
+    }
 
-        for (int i = 0; i < entityList.length(); i++) {
-            String entityType = entityList.getJSONObject(i).getString("type");
-            Entity currEntity = null;
-            int key;
-            String colour;
-            int durability;
+    /**
+     * write the active game straight to a binary save outside saveFiles, to put the game aside until reloadGame.
+     * The undo history and named snapshots are not kept.
+     * @param directory
+     * @param name
+     * @return boolean false if there is no active game to write
+     * @throws IOException
+     */
+    public boolean spillGame(Path directory, String name) throws IOException {
+        if (activeGame == null) {
+            return false;
+        }
+        takeSnapshot(name, SaveFormat.BINARY).writeTo(directory);
+        closeJournal();
+        return true;
+    }
 
-            Position currPosition = new Position(entityList.getJSONObject(i).getInt("x"), entityList.getJSONObject(i).getInt("y"));
+    /**
+     * make the active game from a save written by spillGame
+     * @param savePath
+     * @throws IOException
+     */
+    public void reloadGame(Path savePath) throws IOException {
+        byte[] save = Files.readAllBytes(savePath);
+        loadBinarySave(new ByteArrayInputStream(save));
+        startHistory();
+        if (openJournal()) {
+            // the save is already the game as it is now
+            journal.checkpoint(save);
+        }
+    }
 
-            switch (entityType) {
-                case "wall":
-                    currEntity = new Wall(currPosition, activeGame);  
-                    break;
-                case "exit":
-                    currEntity = new Exit(currPosition, activeGame);
-                    break;
-                case "boulder":
-                    currEntity = new Boulder(currPosition, activeGame);
-                    break;
-                case "switch":
-                    currEntity = new Switch(currPosition, activeGame);
-                    break;
-                case "door":
-                    key = entityList.getJSONObject(i).getInt("key");
-                    currEntity = new Door(currPosition, activeGame, key);
-                    break;
-                case "door_unlocked":
-                    key = entityList.getJSONObject(i).getInt("key");
-                    currEntity = new Door(currPosition, activeGame, key);
-                    ((Door)currEntity).setLocked(false);
-                    ((Door)currEntity).updateType("door_unlocked");
-                    break;
-                case "portal":
-                    colour = entityList.getJSONObject(i).getString("colour");
-                    currEntity = new Portal(currPosition, activeGame, colour);
-                    break;
-                case "zombie_toast_spawner":
-                    currEntity = new ZombieToastSpawner(currPosition, activeGame);
-                    break;
-                case "one_ring":
-                    currEntity = new OneRing(currPosition, activeGame);
-                    break;
-                case "spider":
-                    currEntity = new Spider(currPosition, activeGame, new Position(entityList.getJSONObject(i).getInt("startingPositionx"), entityList.getJSONObject(i).getInt("startingPositiony")),
-                        entityList.getJSONObject(i).getInt("positionNumber"));
-                    ((Spider)currEntity).setSlowed(entityList.getJSONObject(i).getInt("slowed"));
-                    break;
-                case "zombie_toast":
-                    currEntity = new ZombieToast(currPosition, activeGame, entityList.getJSONObject(i).getInt("totalArmour"));
-                    ((ZombieToast)currEntity).setSlowed(entityList.getJSONObject(i).getInt("slowed"));
-                    break;
-                case "mercenary":
-                    durability = entityList.getJSONObject(i).getInt("totalArmour");
-                    boolean isAlly = entityList.getJSONObject(i).getBoolean("ally");
-                    currEntity = new Mercenary(currPosition, activeGame, durability, isAlly);
-                    ((Mercenary)currEntity).setSlowed(entityList.getJSONObject(i).getInt("slowed"));
-
-                    Mercenary mercenary = (Mercenary)currEntity;
-                    String mercState = entityList.getJSONObject(i).getString("mercState");
-
-                    if (mercState.equals("MercControlled")) {
-                        mercenary.setMercenaryState(new MercControlledState(mercenary, entityList.getJSONObject(i).getInt("timeLeft")));
-                    }
-                    break;
-                case "assassin":
-                    durability = entityList.getJSONObject(i).getInt("totalArmour");
-                    isAlly = entityList.getJSONObject(i).getBoolean("ally");
-                    currEntity = new Assassin(currPosition, activeGame, durability, isAlly);
-                    ((Assassin)currEntity).setSlowed(entityList.getJSONObject(i).getInt("slowed"));
-
-                    Assassin assassin = (Assassin)currEntity;
-                    String assState = entityList.getJSONObject(i).getString("mercState");
-
-                    if (assState.equals("MercControlled")) {
-                        assassin.setMercenaryState(new MercControlledState(assassin, entityList.getJSONObject(i).getInt("timeLeft")));
-                    }
-                    break;
-                case "treasure":
-                    currEntity = new Treasure(currPosition, activeGame);
-                    break;
-                case "key":
-                    key = entityList.getJSONObject(i).getInt("key");
-                    currEntity = new Key(currPosition, activeGame, key);
-                    break;
-                case "health_potion":
-                    currEntity = new HealthPotion(currPosition, activeGame);
-                    break;
-                case "invincibility_potion":
-                    currEntity = new InvincibilityPotion(currPosition, activeGame);
-                    break;
-                case "invisibility_potion":
-                    currEntity = new InvisibilityPotion(currPosition, activeGame);
-                    break;
-                case "wood":
-                    currEntity = new Wood(currPosition, activeGame);
-                    break;
-                case "arrow":
-                    currEntity = new Arrow(currPosition, activeGame); 
-                    break;
-                case "bomb":
-                    currEntity = new Bomb(currPosition, activeGame);
-                    break;
-                case "sword":
-                    currEntity = new Sword(currPosition, activeGame);
-                    break;
-                case "player":
-                    currEntity = new Player(currPosition, activeGame, entityList.getJSONObject(i).getInt("health"),entityList.getJSONObject(i).getBoolean("teleported"));
-                    Player player = (Player)currEntity;
-                    String characterState = entityList.getJSONObject(i).getString("characterState");
-                    if (characterState.equals("Invincible")) {
-                        player.setCharacterState(new InvincibleState(player, entityList.getJSONObject(i).getInt("timeLeft")));
-                    } else if (characterState.equals("Invisible")) {
-                        player.setCharacterState(new InvisibleState(player, entityList.getJSONObject(i).getInt("timeLeft")));
-                    }
-                    break;
-                case "hydra":
-                    currEntity = new Hydra(currPosition, activeGame);
-                    ((Hydra)currEntity).setSlowed(entityList.getJSONObject(i).getInt("slowed"));
-                    break;
-                case "sun_stone":
-                    currEntity = new SunStone(currPosition, activeGame);
-                    break;
-                case "anduril":
-                    currEntity = new Anduril(currPosition, activeGame);
-                    break;
-                case "swamp_tile":
-                    currEntity = new SwampTile(currPosition, activeGame, entityList.getJSONObject(i).getInt("movement_factor") );
-                    break;
+    /** 
+     * make the loaded game's dungeon and goals, ready for its entities
+     * @param header
+     * @return JsonFields the dungeon's own saved values
+     */
+    private JsonFields startLoadedGame(DungeonLoader.Header header) {
+        JsonFields dungeonFields = header.getFields();
+        activeGame = new Dungeon(dungeonFields.getString("dungeonName"), dungeonFields.getString("gamemode"), dungeonFields.getString("dungeonId"));
+        activeGame.setCounter(dungeonFields.getInt("counter"));
+        activeGame.setOverallGoal(extractAllGoals(header.getGoalCondition(), activeGame));
+        return dungeonFields;
+    }
+
+    /** 
+     * restore what making the loaded game's entities disturbed
+     * @param dungeonFields the dungeon's own saved values
+     */
+    private void finishLoadedGame(JsonFields dungeonFields) {
+        // remaking the entities rolled new armour, so pick up the saved sequence only now
+        if (dungeonFields.has("seed")) {
+            activeGame.setRandom(new SeededRandom(dungeonFields.getLong("seed")));
+        }
+        // likewise remaking them handed out ids of their own
+        if (dungeonFields.has("nextEntityId")) {
+            activeGame.setNextEntityId(dungeonFields.getInt("nextEntityId"));
+        }
+    }
+
+    /** 
+     * go back to the state before the last tick, interaction, build or restore
+     * @return DungeonResponse
+     * @throws InvalidActionException if there is nothing to undo
+     */
+    public DungeonResponse undo() throws InvalidActionException {
+        if (undoHistory.size() < 2) {
+            throw new InvalidActionException("Nothing to undo");
+        }
+        redoHistory.add(undoHistory.remove(undoHistory.size() - 1));
+        rebuildFrom(undoHistory.get(undoHistory.size() - 1));
+        journalCheckpoint();
+        return createDungeonResponse();
+    }
+
+    /** 
+     * go forward to the state the last undo left
+     * @return DungeonResponse
+     * @throws InvalidActionException if nothing has been undone since the last change
+     */
+    public DungeonResponse redo() throws InvalidActionException {
+        if (redoHistory.isEmpty()) {
+            throw new InvalidActionException("Nothing to redo");
+        }
+        DungeonSnapshot snapshot = redoHistory.remove(redoHistory.size() - 1);
+        undoHistory.add(snapshot);
+        rebuildFrom(snapshot);
+        journalCheckpoint();
+        return createDungeonResponse();
+    }
+
+    /** 
+     * keep the current state under a name, in memory, to go back to with restoreSnapshot
+     * @param name
+     * @return DungeonResponse
+     */
+    public DungeonResponse snapshot(String name) {
+        // without a history the state is taken in full now
+        DungeonSnapshot current = undoHistory.isEmpty() ? captureSnapshot(null) : undoHistory.get(undoHistory.size() - 1);
+        namedSnapshots.put(name, current);
+        return createDungeonResponse();
+    }
+
+    /** 
+     * go back to a state kept with snapshot, which can itself be undone
+     * @param name
+     * @return DungeonResponse
+     * @throws IllegalArgumentException if there is no snapshot of that name
+     */
+    public DungeonResponse restoreSnapshot(String name) throws IllegalArgumentException {
+        DungeonSnapshot snapshot = namedSnapshots.get(name);
+        if (snapshot == null) {
+            throw new IllegalArgumentException("Invalid snapshot name");
+        }
+        rebuildFrom(snapshot);
+        if (gameKeepsHistory) {
+            addToHistory(snapshot);
+        }
+        journalCheckpoint();
+        return createDungeonResponse();
+    }
+
+    /** 
+     * forget the history of the previous game and start one for the active game
+     */
+    private void startHistory() {
+        undoHistory.clear();
+        redoHistory.clear();
+        gameKeepsHistory = keepingHistory;
+        if (gameKeepsHistory) {
+            undoHistory.add(captureSnapshot(null));
+        } else {
+            activeGame.takeSnapshotChanges();
+        }
+    }
+
+    /** 
+     * add the active game's state after a change to the history
+     */
+    private void recordHistory() {
+        if (!gameKeepsHistory) {
+            // nothing will ever be compared against them, so they are not left to pile up
+            activeGame.takeSnapshotChanges();
+            return;
+        }
+        addToHistory(captureSnapshot(undoHistory.get(undoHistory.size() - 1)));
+    }
+
+    /** 
+     * whether games started from now on keep a history for undo and redo, they do unless turned off.
+     * Named snapshots work either way.
+     * @param keepingHistory
+     */
+    public void setHistory(boolean keepingHistory) {
+        this.keepingHistory = keepingHistory;
+    }
+
+    /** 
+     * @param snapshot the new current state
+     */
+    private void addToHistory(DungeonSnapshot snapshot) {
+        undoHistory.add(snapshot);
+        // what was undone is lost once the game goes another way
+        redoHistory.clear();
+        if (undoHistory.size() > UNDO_LIMIT + 1) {
+            undoHistory.remove(0);
+        }
+    }
+
+    /** 
+     * take the active game's state, recording afresh only the entities that may have changed since previous
+     * @param previous the last state taken, null to record everything
+     * @return DungeonSnapshot
+     */
+    private DungeonSnapshot captureSnapshot(DungeonSnapshot previous) {
+        EntityChangeLog changes = activeGame.takeSnapshotChanges();
+        Inventory inventory = activeGame.getInventory();
+        // once removed entities leave more empty slots than full ones, start again with every entity in order
+        if (previous != null && previous.getSlotCount() > 2 * previous.getEntityCount() + SNAPSHOT_SLACK) {
+            previous = null;
+        }
+
+        DungeonSnapshot.Builder builder = new DungeonSnapshot.Builder(previous);
+        if (previous == null) {
+            for (Entity entity : activeGame.getEntities()) {
+                entity.setSnapshotSlot(builder.add(createEntitySaveData(entity)));
+            }
+        } else {
+            // every change to what a save keeps for an entity is logged, so the others keep their records
+            for (Entity entity : changes.getEntities(EntityChangeLog.Change.REMOVED)) {
+                if (entity.getSnapshotSlot() >= 0) {
+                    builder.remove(entity.getSnapshotSlot());
+                    entity.setSnapshotSlot(-1);
+                }
+            }
+            for (Entity entity : changes.getEntities(EntityChangeLog.Change.MOVED)) {
+                updateSnapshotSlot(builder, entity);
+            }
+            for (Entity entity : changes.getEntities(EntityChangeLog.Change.CHANGED)) {
+                updateSnapshotSlot(builder, entity);
+            }
+            // in the order they were added, which is their order in the dungeon
+            for (Entity entity : changes.getEntities(EntityChangeLog.Change.CREATED)) {
+                if (entity.getSnapshotSlot() >= 0) {
+                    // removed and put back, so it is now at the end
+                    builder.remove(entity.getSnapshotSlot());
+                }
+                entity.setSnapshotSlot(builder.add(createEntitySaveData(entity)));
             }
-            currEntity.setId(entityList.getJSONObject(i).getString("entityId"));
         }
 
-        JSONArray itemList = dungeonObj.getJSONArray("items");
-        
-        for (int i = 0; i < itemList.length(); i++) {
-            String itemType = itemList.getJSONObject(i).getString("type");
-            Item currItem = null;
-            int key;
-            Position posPlaceholder = new Position(-1, -1);
-            switch (itemType) {
-                case "one_ring":
-                    currItem = new OneRing(posPlaceholder, activeGame);
-                    break;
-                case "treasure":
-                    currItem = new Treasure(posPlaceholder, activeGame);
-                    break;
-                case "key":
-                    key = itemList.getJSONObject(i).getInt("key");
-                    currItem = new Key(posPlaceholder, activeGame, key);
-                    break;
-                case "health_potion":
-                    currItem = new HealthPotion(posPlaceholder, activeGame);
-                    break;
-                case "invincibility_potion":
-                    currItem = new InvincibilityPotion(posPlaceholder, activeGame);
-                    break;
-                case "invisibility_potion":
-                    currItem = new InvisibilityPotion(posPlaceholder, activeGame);
-                    break;
-                case "wood":
-                    currItem = new Wood(posPlaceholder, activeGame);
-                    break;
-                case "arrow":
-                    currItem = new Arrow(posPlaceholder, activeGame); 
-                    break;
-                case "bomb":
-                    currItem = new Bomb(posPlaceholder, activeGame);
-                    break;
-                case "sword":
-                    currItem = new Sword(posPlaceholder, activeGame);
-                    ((Item) currItem).setUsesLeft(itemList.getJSONObject(i).getInt("usesLeft"));
-                    break;
-                case "armour":
-                    currItem = new Armour(activeGame, itemList.getJSONObject(i).getInt("usesLeft"));
-                    break;
-                case "bow":
-                    currItem = new Bow(activeGame);
-                    currItem.setUsesLeft(itemList.getJSONObject(i).getInt("usesLeft"));
-                    break;
-                case "shield":
-                    currItem = new Shield(activeGame);
-                    currItem.setUsesLeft(itemList.getJSONObject(i).getInt("usesLeft"));
-                    break;
-                case "sun_stone":
-                    currItem = new SunStone(posPlaceholder, activeGame);
-                    break;
-                case "anduril":
-                    currItem = new Anduril(posPlaceholder, activeGame);
-                    currItem.setUsesLeft(itemList.getJSONObject(i).getInt("usesLeft"));
-                    break;
-                case "sceptre":
-                    currItem = new Sceptre(activeGame);
+        if (previous != null && inventory.getVersion() == snapshotInventoryVersion) {
+            builder.reuseItems();
+        } else {
+            for (Item item : inventory.getInventoryList()) {
+                builder.addItem(createItemSaveData(item));
+            }
+        }
+        snapshotInventoryVersion = inventory.getVersion();
+        return builder.build(createDungeonSaveData(), activeGame.getOverallGoal().toJSON());
+    }
+
+    /** 
+     * give an entity that may have changed its current values, in a new slot if it has none yet
+     * @param builder
+     * @param entity
+     */
+    private void updateSnapshotSlot(DungeonSnapshot.Builder builder, Entity entity) {
+        if (entity.getSnapshotSlot() < 0) {
+            entity.setSnapshotSlot(builder.add(createEntitySaveData(entity)));
+        } else {
+            builder.set(entity.getSnapshotSlot(), createEntitySaveData(entity));
+        }
+    }
+
+    /** 
+     * make the active game again from a snapshot
+     * @param snapshot
+     */
+    private void rebuildFrom(DungeonSnapshot snapshot) {
+        int version = activeGame.getVersion();
+        JsonFields dungeonFields = startLoadedGame(snapshot.getHeader());
+        snapshot.build(activeGame, (entity, slot) -> entity.setSnapshotSlot(slot));
+        finishLoadedGame(dungeonFields);
+        // a client of the replaced game must not take the next delta as following on from what it has
+        activeGame.setVersion(version + 1);
+        // the entities and items are exactly the snapshot's, so the next snapshot can share all of them
+        activeGame.takeSnapshotChanges();
+        snapshotInventoryVersion = activeGame.getInventory().getVersion();
+    }
+
+    /** 
+     * make a journaled game again as it was after the first steps entries following its start,
+     * playing them without making a response for each. Replaying a whole journal left by a crash
+     * recovers the game, which then carries on writing the same journal.
+     * @param journalName
+     * @param steps number of entries to play after the start, negative to play them all
+     * @return DungeonResponse
+     * @throws IllegalArgumentException if there is no such journal or it cannot be read
+     */
+    public DungeonResponse replayGame(String journalName, int steps) throws IllegalArgumentException {
+        Path path = JOURNALS.resolve(journalName + ".journal");
+        if (!JOURNALS.equals(path.getParent())) {
+            throw new IllegalArgumentException("Invalid journalName");
+        }
+        List<ReplayJournal.Entry> entries;
+        try {
+            entries = ReplayJournal.read(path);
+        } catch (NoSuchFileException e) {
+            throw new IllegalArgumentException("Invalid journalName");
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid journal", e);
+        }
+        if (entries.isEmpty() || !entries.get(0).getKind().isStart()) {
+            throw new IllegalArgumentException("Invalid journal");
+        }
+
+        int last = steps < 0 ? entries.size() - 1 : Math.min(steps, entries.size() - 1);
+        // fast-forward from the nearest checkpoint rather than from the very start
+        int first = last;
+        while (!entries.get(first).getKind().isStart()) {
+            first--;
+        }
+        closeJournal();
+        startFromEntry(entries.get(first));
+        for (int i = first + 1; i <= last; i++) {
+            replayEntry(entries.get(i));
+        }
+        startHistory();
+
+        if (last == entries.size() - 1 && !ReplayJournal.isOpen(path)) {
+            try {
+                journal = ReplayJournal.reopen(path);
+            } catch (IOException e) {
+                System.out.println(e.toString());
+            }
+        } else if (openJournal()) {
+            // playing on from part way must not write over what came after
+            journal.checkpoint(createBinarySave());
+        }
+        return createDungeonResponse();
+    }
+
+    /** 
+     * whether this controller's ticks are recorded in TickMetrics, they are unless turned off
+     * @param measuring
+     */
+    public void setMetrics(boolean measuring) {
+        this.measuring = measuring;
+    }
+
+    /** 
+     * whether games started from now on are journaled, they are not unless turned on,
+     * as the web server does when scintilla:JOURNAL is set. Only the journals of the newest few hundred games are kept
+     * @param journaling
+     */
+    public void setJournaling(boolean journaling) {
+        this.journaling = journaling;
+    }
+
+    /** 
+     * @return String the name of the active game's journal for replayGame, null if it has none
+     */
+    public String getJournalName() {
+        if (journal == null) {
+            return null;
+        }
+        String fileName = journal.getPath().getFileName().toString();
+        return fileName.substring(0, fileName.length() - ".journal".length());
+    }
+
+    /** 
+     * make the active game from a journal entry a game can start from
+     * @param entry
+     * @throws IllegalArgumentException
+     */
+    private void startFromEntry(ReplayJournal.Entry entry) throws IllegalArgumentException {
+        switch (entry.getKind()) {
+            case NEW_GAME:
+                startNewGame(entry.getArgument(0), entry.getArgument(1), entry.getArgument(2), Long.parseLong(entry.getArgument(3)));
+                break;
+            case GENERATE:
+                startGeneratedGame(Integer.parseInt(entry.getArgument(0)), Integer.parseInt(entry.getArgument(1)),
+                    Integer.parseInt(entry.getArgument(2)), Integer.parseInt(entry.getArgument(3)),
+                    entry.getArgument(4), entry.getArgument(5), Long.parseLong(entry.getArgument(6)));
+                break;
+            default:
+                try {
+                    loadBinarySave(new ByteArrayInputStream(entry.getSave()));
+                } catch (IOException e) {
+                    throw new IllegalArgumentException("Invalid journal", e);
+                }
+        }
+    }
+
+    /** 
+     * play one journal entry against the active game, as it was played when it was journaled
+     * @param entry
+     */
+    private void replayEntry(ReplayJournal.Entry entry) throws IllegalArgumentException {
+        if (entry.getKind().isStart()) {
+            startFromEntry(entry);
+            return;
+        }
+        Direction movementDirection = null;
+        if (entry.getKind() == ReplayJournal.Kind.TICK && entry.getArgument(1) != null) {
+            try {
+                movementDirection = Direction.valueOf(entry.getArgument(1));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid journal", e);
+            }
+        }
+        try {
+            switch (entry.getKind()) {
+                case TICK:
+                    updateGame(entry.getArgument(0), movementDirection);
                     break;
-                case "midnight_armour":
-                    currItem = new MidnightArmour(activeGame);
-                    currItem.setUsesLeft(itemList.getJSONObject(i).getInt("usesLeft"));
+                case BUILD:
+                    performBuild(entry.getArgument(0));
                     break;
+                default:
+                    performInteract(entry.getArgument(0));
             }
-            currItem.setId(itemList.getJSONObject(i).getString("entityId"));
-            activeGame.moveToInventory(currItem);
+        } catch (InvalidActionException | IllegalArgumentException e) {
+            // the call failed the same way when it was played, and had changed the game just as far.
+            // Anything else is a fault in replaying and is not hidden
         }
+    }
 
-        return createDungeonResponse();
+    /** 
+     * start a journal for the active game, closing the one of the game before
+     * @return boolean false if the journal could not be made
+     */
+    private boolean openJournal() {
+        closeJournal();
+        if (!journaling) {
+            return false;
+        }
+        int number = journalCounter.getAndIncrement();
+        Path path = JOURNALS.resolve(RUN + "-" + number + ".journal");
+        try {
+            if (number % JOURNALS_BETWEEN_PRUNES == 0) {
+                ReplayJournal.prune(JOURNALS, JOURNALS_KEPT);
+            }
+            journal = ReplayJournal.create(path);
+        } catch (IOException e) {
+            System.out.println(e.toString());
+        }
+        return journal != null;
+    }
+
+    private void closeJournal() {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+    }
+
+    /** 
+     * @param itemUsed
+     * @param movementDirection
+     */
+    private void journalTick(String itemUsed, Direction movementDirection) {
+        if (journal != null) {
+            journal.tick(itemUsed, movementDirection == null ? null : movementDirection.name());
+        }
+    }
+
+    /** 
+     * journal the whole active game, for when it did not get there by playing on
+     */
+    private void journalCheckpoint() {
+        if (journal != null) {
+            journal.checkpoint(createBinarySave());
+        }
+    }
+
+    /** 
+     * @return byte[] a binary save of the active game
+     */
+    private byte[] createBinarySave() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            takeSnapshot(null, SaveFormat.BINARY).writeTo(out);
+        } catch (IOException e) {
+            // only written to memory
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
     }
 
     
@@ -719,11 +1047,14 @@ public class DungeonManiaController {
      * @return List<String>
      */
     public List<String> allGames() {
-        try {
-            return FileLoader.listFileNamesInDirectoryOutsideOfResources("saveFiles");
-        } catch (IOException e) {
-            return new ArrayList<>();
+        List<String> games = CATALOGUE.names();
+        // queued saves count as saved already
+        for (String game : SAVES.pendingNames()) {
+            if (!games.contains(game)) {
+                games.add(game);
+            }
         }
+        return games;
     }
 
     
@@ -736,8 +1067,68 @@ public class DungeonManiaController {
      * @throws InvalidActionException
      */
     public DungeonResponse tick(String itemUsed, Direction movementDirection) throws IllegalArgumentException, InvalidActionException {
+        long start = System.nanoTime();
+        long allocated = measuring ? TickMetrics.startAllocationSample() : -1;
+        journalTick(itemUsed, movementDirection);
+        long lap = updateGame(itemUsed, movementDirection);
+        recordHistory();
+        lap = measure(Phase.HISTORY, lap);
+        DungeonResponse response = createDungeonResponse();
+        measure(Phase.RESPONSE, lap);
+        if (measuring) {
+            TickMetrics.recordTick(start, allocated);
+        }
+        return response;
+    }
+
+    /** 
+     * tick the game and return only the entities that changed since the client's version
+     * falls back to a full snapshot if the client is on a different dungeon or missed a version
+     * @param itemUsed
+     * @param movementDirection
+     * @param dungeonId the dungeon the client last saw, null for a full snapshot
+     * @param version the version the client last saw
+     * @return DungeonDeltaResponse
+     * @throws IllegalArgumentException
+     * @throws InvalidActionException
+     */
+    public DungeonDeltaResponse tickDelta(String itemUsed, Direction movementDirection, String dungeonId, int version) throws IllegalArgumentException, InvalidActionException {
+        long start = System.nanoTime();
+        long allocated = measuring ? TickMetrics.startAllocationSample() : -1;
+        boolean upToDate = activeGame.getDungeonId().equals(dungeonId) && activeGame.getVersion() == version;
+        journalTick(itemUsed, movementDirection);
+        long lap = updateGame(itemUsed, movementDirection);
+        recordHistory();
+        lap = measure(Phase.HISTORY, lap);
+        DungeonDeltaResponse response = createDungeonDeltaResponse(!upToDate);
+        measure(Phase.RESPONSE, lap);
+        if (measuring) {
+            TickMetrics.recordTick(start, allocated);
+        }
+        return response;
+    }
+
+    /** 
+     * @param phase
+     * @param lap System.nanoTime() when the phase started
+     * @return long System.nanoTime() now if the phase was recorded, otherwise lap
+     */
+    private long measure(Phase phase, long lap) {
+        return measuring ? TickMetrics.record(phase, lap) : lap;
+    }
+
+    /** 
+     * move the player and all other entities by one tick, timing each phase
+     * @param itemUsed
+     * @param movementDirection
+     * @return long System.nanoTime() at the end of the update
+     * @throws IllegalArgumentException
+     * @throws InvalidActionException
+     */
+    private long updateGame(String itemUsed, Direction movementDirection) throws IllegalArgumentException, InvalidActionException {
         //  Move character and all moving entities.
         
+        long lap = System.nanoTime();
         Player player = activeGame.getPlayer();
 
         // Use item if appropriate. This does nothing if itemUsed is null or empty.
@@ -745,45 +1136,36 @@ public class DungeonManiaController {
         if (itemUsed != null) {
             player.useItem(activeGame.getEntityTypeFromId(itemUsed));
         }
+        lap = measure(Phase.ITEM_USE, lap);
         
-        // List<EntityResponse> entityResponses = new ArrayList<EntityResponse>();
-        List<Entity> entities = activeGame.getEntities();
-        List<Entity> entitiesCopy = new ArrayList<>(entities);
-        
-
-
         if (movementDirection != Direction.NONE && movementDirection != null) {
+            // entities spawned during this tick only act from the next tick
+            List<Enemy> enemies = activeGame.getEntitiesOfClass(Enemy.class);
+            List<StaticEntity> staticEntities = activeGame.getEntitiesOfClass(StaticEntity.class);
             
             activeGame.tickCounter();
+            // gathering who acts this tick is counted with spawning
+            lap = measure(Phase.SPAWNING, lap);
             
-            for (Entity entity: entitiesCopy) {
-                if (entity instanceof Enemy) {
-                    ((Enemy) entity).updatePosition();
-                }
+            for (Enemy enemy : enemies) {
+                enemy.updatePosition();
             }
-            for (Entity entity: entitiesCopy) {
-                if (entity instanceof Player) {
-                    ((Player) entity).move(movementDirection);
-                } 
-                
+            lap = measure(Phase.ENEMY_MOVEMENT, lap);
+            if (player != null) {
+                player.move(movementDirection);
             }
-            for (Entity entity: entitiesCopy) {
-                if (entity instanceof StaticEntity) {
-                    ((StaticEntity) entity).update(movementDirection);
-                }
+            lap = measure(Phase.PLAYER_MOVE, lap);
+            for (StaticEntity staticEntity : staticEntities) {
+                staticEntity.update(movementDirection);
             }
+            lap = measure(Phase.STATIC_UPDATE, lap);
 
             activeGame.triggerBombExplosion();
+            lap = measure(Phase.BOMB_EXPLOSION, lap);
 
         }
-        
-        for (Entity entity : entities) {
-            if (entity instanceof Exit || entity instanceof Switch) {
-                entity.notifyObservers();
-            }
-        }
-
-        return createDungeonResponse();
+        // goals were kept up to date by the moves themselves
+        return lap;
     }
 
     
@@ -795,34 +1177,31 @@ public class DungeonManiaController {
      * @throws InvalidActionException
      */
     public DungeonResponse interact(String entityId) throws IllegalArgumentException, InvalidActionException {
-
-        List<Entity> entities = activeGame.getEntities();
-        Player player = activeGame.getPlayer();
-
-
-        boolean found = false;
-        List<Entity> entitiesCopy = new ArrayList<>(entities);
-        for (Entity entity : entitiesCopy) {
-            String Id = entity.getId();
-            // Find the relevant entity.
-            if (Id.equals(entityId)) {
-                if (entity instanceof Mercenary) {
-                    player.bribe((Mercenary)entity);
-                    found = true;
-                } else if (entity instanceof ZombieToastSpawner) {
-                    player.destroySpawner((ZombieToastSpawner)entity);
-                    found = true;
-                }
-            }
+        if (journal != null) {
+            journal.interact(entityId);
         }
+        performInteract(entityId);
+        recordHistory();
 
+        return createDungeonResponse();
+    }
 
-        if (found == false) {
+    /** 
+     * interact without recording or responding, as tick does with updateGame
+     * @param entityId
+     * @throws IllegalArgumentException
+     * @throws InvalidActionException
+     */
+    private void performInteract(String entityId) throws IllegalArgumentException, InvalidActionException {
+        Player player = activeGame.getPlayer();
+        Entity entity = activeGame.getEntityById(entityId);
+        if (entity instanceof Mercenary) {
+            player.bribe((Mercenary)entity);
+        } else if (entity instanceof ZombieToastSpawner) {
+            player.destroySpawner((ZombieToastSpawner)entity);
+        } else {
             throw new IllegalArgumentException("Entity Id is not valid.");
         }
-
-        return createDungeonResponse();
-
     }
 
     
@@ -834,25 +1213,30 @@ public class DungeonManiaController {
      * @throws InvalidActionException
      */
     public DungeonResponse build(String buildable) throws IllegalArgumentException, InvalidActionException {
-        if (!buildable.equals("bow") && !buildable.equals("shield") && !buildable.equals("sceptre") && !buildable.equals("midnight_armour")) {
-            throw new IllegalArgumentException("Can only build bow, shield, sceptre or midnight_armour!");
-        }
-
-        Inventory inventory = activeGame.getInventory();
-        Player player = activeGame.getPlayer();
-        
-        if (buildable.equals("bow")) {
-            inventory.craftBow(player);
-        } else if (buildable.equals("shield")) {
-            inventory.craftShield(player);
-        } else if (buildable.equals("sceptre")) {
-            inventory.craftSceptre(player);
-        } else if (buildable.equals("midnight_armour")) {
-            inventory.craftMidnightArmour(player);
+        if (journal != null) {
+            journal.build(buildable);
         }
+        performBuild(buildable);
+        recordHistory();
 
         return createDungeonResponse();
+    }
 
+    /** 
+     * build without recording or responding
+     * @param buildable
+     * @throws IllegalArgumentException
+     * @throws InvalidActionException
+     */
+    private void performBuild(String buildable) throws IllegalArgumentException, InvalidActionException {
+        if (Recipes.get(buildable) == null) {
+            List<String> names = new ArrayList<String>();
+            for (Recipe recipe : Recipes.all()) {
+                names.add(recipe.getName());
+            }
+            throw new IllegalArgumentException("Can only build " + String.join(", ", names) + "!");
+        }
+        activeGame.getInventory().craft(buildable, activeGame.getPlayer());
     }
 
 
@@ -920,10 +1304,38 @@ public class DungeonManiaController {
         List<ItemResponse> itemResponses = createItemResponseList();
         List<String> buildables = createBuildableList();
         String goalString = createGoalString();
+        // the client now has everything, later deltas start from here
+        activeGame.takeChanges();
 
         return new DungeonResponse(dungeonId, dungeonName, entityResponses, itemResponses, buildables, goalString);
     }
 
+    /** 
+     * creates a response holding the entities changed since the last response
+     * @param snapshot true to send every entity instead
+     * @return DungeonDeltaResponse
+     */
+    public DungeonDeltaResponse createDungeonDeltaResponse(boolean snapshot) {
+        EntityChangeLog changes = activeGame.takeChanges();
+        List<EntityResponse> created;
+        List<EntityResponse> moved = new ArrayList<EntityResponse>();
+        List<EntityResponse> changed = new ArrayList<EntityResponse>();
+        List<String> removed = new ArrayList<String>();
+        if (snapshot) {
+            created = createEntityResponseList();
+        } else {
+            created = createEntityResponses(changes.getEntities(EntityChangeLog.Change.CREATED));
+            moved = createEntityResponses(changes.getEntities(EntityChangeLog.Change.MOVED));
+            changed = createEntityResponses(changes.getEntities(EntityChangeLog.Change.CHANGED));
+            for (Entity entity : changes.getEntities(EntityChangeLog.Change.REMOVED)) {
+                removed.add(entity.getId());
+            }
+        }
+
+        return new DungeonDeltaResponse(activeGame.getDungeonId(), activeGame.getDungeonName(), activeGame.getVersion(), snapshot,
+            created, moved, changed, removed, createItemResponseList(), createBuildableList(), createGoalString());
+    }
+
 
     
     /** 
@@ -931,7 +1343,15 @@ public class DungeonManiaController {
      * @return List<EntityResponse>
      */
     public List<EntityResponse> createEntityResponseList() {
-        List<Entity> entities = activeGame.getEntities();
+        return createEntityResponses(activeGame.getEntities());
+    }
+
+    /** 
+     * creates entity responses for the given entities
+     * @param entities
+     * @return List<EntityResponse>
+     */
+    private List<EntityResponse> createEntityResponses(List<Entity> entities) {
         List<EntityResponse> entityResponses = new ArrayList<EntityResponse>();
         for (Entity entity : entities) {
             entityResponses.add(new EntityResponse(entity.getId(), entity.getType(), entity.getPosition(), entity.isInteractable()));
@@ -959,18 +1379,7 @@ public class DungeonManiaController {
      * @return String
      */
     public String createGoalString() {
-        String goalString = "";
-        for (GoalComponent simpleGoal : activeGame.getSimpleGoals()) {
-            String simpleGoalString = simpleGoal.simpleGoalToString();
-            if (!goalString.contains(simpleGoalString)) {
-                goalString += simpleGoal.simpleGoalToString();
-            }
-        }
-        if (activeGame.getOverallGoal().isComplete()) {
-            goalString = "";
-        }
-        return goalString;
-
+        return activeGame.getGoalString();
     }
 
     
@@ -979,7 +1388,7 @@ public class DungeonManiaController {
      * @return List<String>
      */
     public List<String> createBuildableList() {
-        return activeGame.getInventory().getBuildables(activeGame.getPlayer());
+        return activeGame.getInventory().getBuildables();
     }
 
 
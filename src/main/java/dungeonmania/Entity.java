@@ -10,29 +10,23 @@ import java.util.List;
 
 public abstract class Entity implements Subject {
     private Position position;
-    private String id = newEntityId();
+    private int id;
     private boolean interactable = false;
     private Gamemode gamemode;
     private List<Observer> goalObservers = new ArrayList<Observer>();
     private String type;
     private Dungeon dungeon;
-    private static int entityIdCounter = 0; 
+    // where the latest undo snapshot holds this entity's values, -1 if it holds none
+    private int snapshotSlot = -1;
     
     public Entity(Position position, Dungeon dungeon) {
         this.position = position;
         this.dungeon = dungeon;
+        // ids only need to be unique within a dungeon, so each dungeon hands out its own
+        this.id = dungeon.newEntityId();
         this.type = setType();
     }
 
-    
-    /** 
-     * generate unique id string
-     * @return String
-     */
-    public static synchronized String newEntityId() {
-        return String.valueOf(entityIdCounter++);
-    }
-
     /** 
      * removes itself from the dungeon
      */
@@ -101,21 +95,39 @@ public abstract class Entity implements Subject {
      * @param position the position to set
      */
     public void setPosition(Position position) {
+        Position oldPosition = this.position;
         this.position = position;
+        if (dungeon != null) {
+            dungeon.updateEntityPosition(this, oldPosition);
+        }
     }
 
     /**
-     * @return String return the id
+     * @return String return the id, as it is sent to the frontend and written to saves
      */
     public String getId() {
+        return String.valueOf(id);
+    }
+
+    /**
+     * @return int return the id the dungeon indexes this entity by
+     */
+    public int getNumericId() {
         return id;
     }
 
     /**
+     * ids that are not numbers cannot have come from a dungeon, so the entity keeps the one it was given
      * @param id the id to set
      */
     public void setId(String id) {
-        this.id = id;
+        int oldId = this.id;
+        try {
+            this.id = Integer.parseInt(id);
+        } catch (NumberFormatException e) {
+            return;
+        }
+        dungeon.changeEntityId(this, oldId);
     }
 
     /**
@@ -130,6 +142,32 @@ public abstract class Entity implements Subject {
      */
     public void setInteractable(boolean interactable) {
         this.interactable = interactable;
+        if (dungeon != null) {
+            dungeon.updateEntity(this);
+        }
+    }
+
+    /**
+     * tell the dungeon that state a save keeps for this entity changed, other than its position, type or interactability
+     */
+    public void savedStateChanged() {
+        if (dungeon != null) {
+            dungeon.updateSavedState(this);
+        }
+    }
+
+    /**
+     * @return int where the latest undo snapshot holds this entity's values, -1 if it holds none
+     */
+    int getSnapshotSlot() {
+        return snapshotSlot;
+    }
+
+    /**
+     * @param snapshotSlot
+     */
+    void setSnapshotSlot(int snapshotSlot) {
+        this.snapshotSlot = snapshotSlot;
     }
 
     /**
@@ -190,7 +228,11 @@ public abstract class Entity implements Subject {
      * @param Updates the type of the entity
      */
     public void updateType(String type) {
+        String oldType = this.type;
         this.type = type;
+        if (dungeon != null) {
+            dungeon.updateEntityType(this, oldType);
+        }
     }
 }
 
@@ -0,0 +1,114 @@
+package dungeonmania;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records which entities were created, moved, changed or removed since the
+ * dungeon last produced a response, so a tick can send only what is different.
+ * Each entity is kept under a single kind of change, in the order first seen.
+ */
+public class EntityChangeLog {
+    public enum Change {
+        CREATED,
+        MOVED,
+        // type or interactability changed, possibly moved too
+        CHANGED,
+        REMOVED
+    }
+
+    private Map<Entity, Change> changes = new LinkedHashMap<Entity, Change>();
+    // whether the log follows the order of the dungeon's entities rather than what a client has seen
+    private final boolean keepsOrder;
+
+    public EntityChangeLog() {
+        this(false);
+    }
+
+    /**
+     * @param keepsOrder log an entity that is removed and put back as removed and created again, after the entities
+     * created before it, since it goes back at the end of the dungeon's entities
+     */
+    public EntityChangeLog(boolean keepsOrder) {
+        this.keepsOrder = keepsOrder;
+    }
+
+    /**
+     * @param entity
+     */
+    public void created(Entity entity) {
+        if (keepsOrder) {
+            changes.remove(entity);
+            changes.put(entity, Change.CREATED);
+            return;
+        }
+        // removed and put back in the same tick, the client still knows about it
+        if (changes.get(entity) == Change.REMOVED) {
+            changes.put(entity, Change.CHANGED);
+        } else {
+            changes.put(entity, Change.CREATED);
+        }
+    }
+
+    /**
+     * @param entity
+     */
+    public void moved(Entity entity) {
+        if (!changes.containsKey(entity)) {
+            changes.put(entity, Change.MOVED);
+        }
+    }
+
+    /**
+     * @param entity
+     */
+    public void changed(Entity entity) {
+        Change change = changes.get(entity);
+        if (change == null || change == Change.MOVED) {
+            changes.put(entity, Change.CHANGED);
+        }
+    }
+
+    /**
+     * @param entity
+     */
+    public void removed(Entity entity) {
+        // the client never saw it, so there is nothing to remove
+        if (!keepsOrder && changes.get(entity) == Change.CREATED) {
+            changes.remove(entity);
+        } else {
+            changes.put(entity, Change.REMOVED);
+        }
+    }
+
+    /**
+     * @param entity
+     * @return Change the entity's latest change, null if it has not changed
+     */
+    public Change getChange(Entity entity) {
+        return changes.get(entity);
+    }
+
+    /**
+     * @param change
+     * @return List<Entity> entities whose latest change is of the given kind
+     */
+    public List<Entity> getEntities(Change change) {
+        List<Entity> entities = new ArrayList<Entity>();
+        for (Map.Entry<Entity, Change> entry : changes.entrySet()) {
+            if (entry.getValue() == change) {
+                entities.add(entry.getKey());
+            }
+        }
+        return entities;
+    }
+
+    /**
+     * @return boolean
+     */
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+}
@@ -1,10 +1,10 @@
 package dungeonmania;
 
 import dungeonmania.util.Position;
+import dungeonmania.util.SeededRandom;
 
 import java.util.List;
 import java.util.ArrayList;
-import java.lang.Math;
 
 
 
@@ -12,11 +12,13 @@ public class PrimDungeon {
     private Position start;
     private Position end;
     private boolean[][] mazeMap;
+    private SeededRandom random;
 
-    public PrimDungeon(Position start, Position end, boolean[][] mazeMap) {
+    public PrimDungeon(Position start, Position end, boolean[][] mazeMap, SeededRandom random) {
         this.start = start;
         this.end = end;
         this.mazeMap = mazeMap;
+        this.random = random;
     }
 
 
@@ -32,12 +34,12 @@ public class PrimDungeon {
         options = primAdjacentPositions(start, false, 2);
 
         while (!options.isEmpty()) {
-            int randomInt = (int)(Math.random()*(options.size()));
+            int randomInt = random.nextInt(options.size());
             Position next = options.get(randomInt);
             options.remove(randomInt);
             List<Position> neighbours = primAdjacentPositions(next, true, 2);
             if (!neighbours.isEmpty()) {
-                randomInt = (int)(Math.random()*(neighbours.size()));
+                randomInt = random.nextInt(neighbours.size());
                 Position neighbour = neighbours.get(randomInt);
                 mazeMap[next.getY()][next.getX()] = true;
                 Position inBetween = getInBetween(next, neighbour);
@@ -58,7 +60,7 @@ public class PrimDungeon {
             List<Position> endNeighboursEmpty = primAdjacentPositions(end, true, 1);
             List<Position> endNeighboursWalls = primAdjacentPositions(end, false, 1);
             if (endNeighboursEmpty.isEmpty()) {
-                int randomInt = (int)(Math.random()*(endNeighboursWalls.size()));
+                int randomInt = random.nextInt(endNeighboursWalls.size());
                 Position neighbour = endNeighboursWalls.get(randomInt);
                 mazeMap[neighbour.getY()][neighbour.getX()] = true;
             }
@@ -0,0 +1,136 @@
+package dungeonmania.crafting;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+import dungeonmania.Dungeon;
+import dungeonmania.Entity;
+
+/**
+ * What an inventory can build right now, kept up to date as it changes rather than worked out for each response.
+ * The recipes are indexed by the item types they use and the entities that block them, so a change of count
+ * only checks again the recipes it can affect.
+ */
+public final class Crafting {
+    private final List<Recipe> recipes;
+    private final ToIntFunction<String> counts;
+    private final Dungeon dungeon;
+    // the recipes, by position in recipes, that use each item type
+    private final Map<String, List<Integer>> recipesByType = new HashMap<String, List<Integer>>();
+    // the recipes something in the dungeon can block
+    private final List<Integer> blockableRecipes = new ArrayList<Integer>();
+    private final boolean[] buildable;
+    private List<String> buildables = Collections.emptyList();
+
+    /**
+     * @param recipes
+     * @param counts how many of each item type the inventory holds
+     * @param dungeon where blocking entities are counted, null if nothing is ever blocked
+     */
+    public Crafting(List<Recipe> recipes, ToIntFunction<String> counts, Dungeon dungeon) {
+        this.recipes = recipes;
+        this.counts = counts;
+        this.dungeon = dungeon;
+        this.buildable = new boolean[recipes.size()];
+        for (int i = 0; i < recipes.size(); i++) {
+            Recipe recipe = recipes.get(i);
+            for (String type : recipe.getIngredientTypes()) {
+                recipesByType.computeIfAbsent(type, t -> new ArrayList<Integer>()).add(i);
+            }
+            if (recipe.getBlockedBy() != null) {
+                blockableRecipes.add(i);
+            }
+        }
+    }
+
+    /**
+     * @return List<String> the names of what can be built, in recipe order, unchanged until that changes
+     */
+    public List<String> getBuildables() {
+        return buildables;
+    }
+
+    /**
+     * check again the recipes that use the item type whose count changed
+     * @param type
+     */
+    public void countChanged(String type) {
+        List<Integer> affected = recipesByType.get(type);
+        if (affected != null) {
+            update(affected);
+        }
+    }
+
+    /**
+     * check again the recipes the entity could block, after it was added to or removed from the dungeon
+     * @param entity
+     */
+    public void entityChanged(Entity entity) {
+        for (int i : blockableRecipes) {
+            if (recipes.get(i).getBlockedBy().isInstance(entity)) {
+                update(Collections.singletonList(i));
+            }
+        }
+    }
+
+    /**
+     * check every recipe again, after the dungeon's entities were replaced wholesale
+     */
+    public void refresh() {
+        for (int i = 0; i < recipes.size(); i++) {
+            buildable[i] = canBuild(recipes.get(i));
+        }
+        rebuildList();
+    }
+
+    /**
+     * @param recipe
+     * @return boolean true if nothing blocks the recipe and the inventory holds enough for it
+     */
+    public boolean canBuild(Recipe recipe) {
+        return !isBlocked(recipe, dungeon) && recipe.match(counts) != null;
+    }
+
+    /**
+     * @param recipe
+     * @param dungeon
+     * @return boolean true if the dungeon has an entity that stops the recipe being built
+     */
+    public static boolean isBlocked(Recipe recipe, Dungeon dungeon) {
+        return recipe.getBlockedBy() != null && dungeon != null && dungeon.countEntitiesOfClass(recipe.getBlockedBy()) > 0;
+    }
+
+    /**
+     * @param affected positions in recipes
+     */
+    private void update(List<Integer> affected) {
+        boolean changed = false;
+        for (int i : affected) {
+            boolean now = canBuild(recipes.get(i));
+            if (now != buildable[i]) {
+                buildable[i] = now;
+                changed = true;
+            }
+        }
+        if (changed) {
+            rebuildList();
+        }
+    }
+
+    /**
+     * a new list rather than changing the old one, which responses already made may still hold
+     */
+    private void rebuildList() {
+        List<String> names = new ArrayList<String>();
+        for (int i = 0; i < recipes.size(); i++) {
+            if (buildable[i]) {
+                names.add(recipes.get(i).getName());
+            }
+        }
+        buildables = Collections.unmodifiableList(names);
+    }
+}
@@ -0,0 +1,192 @@
+package dungeonmania.crafting;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+import dungeonmania.Dungeon;
+import dungeonmania.Entity;
+import dungeonmania.items.Item;
+
+/**
+ * How to build one buildable: the ingredients it uses up, some of which have alternatives,
+ * and optionally a kind of entity that stops it being built while any is in the dungeon.
+ * Nothing in a recipe changes after it is built.
+ */
+public final class Recipe {
+    private final String name;
+    // each requirement is met by the first of its alternatives the inventory holds enough of
+    private final List<List<Ingredient>> requirements;
+    private final Class<? extends Entity> blockedBy;
+    private final Function<Dungeon, Item> product;
+
+    private Recipe(String name, List<List<Ingredient>> requirements, Class<? extends Entity> blockedBy, Function<Dungeon, Item> product) {
+        this.name = name;
+        this.requirements = requirements;
+        this.blockedBy = blockedBy;
+        this.product = product;
+    }
+
+    /**
+     * @param name the buildable, as the frontend names it
+     * @param product makes the item that is built
+     * @return Builder
+     */
+    public static Builder of(String name, Function<Dungeon, Item> product) {
+        return new Builder(name, product);
+    }
+
+    /**
+     * An amount of one item type.
+     */
+    public static final class Ingredient {
+        private final String type;
+        private final int amount;
+
+        public Ingredient(String type, int amount) {
+            this.type = type;
+            this.amount = amount;
+        }
+
+        /**
+         * @return String
+         */
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * @return int
+         */
+        public int getAmount() {
+            return amount;
+        }
+    }
+
+    /**
+     * pick the ingredients the recipe would use up, taking the first alternative of each requirement
+     * that there is enough of once the requirements before it have taken theirs
+     * @param counts how many of each item type the inventory holds
+     * @return List<Ingredient> one ingredient per requirement, null if some requirement cannot be met
+     */
+    public List<Ingredient> match(ToIntFunction<String> counts) {
+        Ingredient[] chosen = new Ingredient[requirements.size()];
+        for (int i = 0; i < chosen.length; i++) {
+            for (Ingredient alternative : requirements.get(i)) {
+                if (counts.applyAsInt(alternative.type) - taken(chosen, i, alternative.type) >= alternative.amount) {
+                    chosen[i] = alternative;
+                    break;
+                }
+            }
+            if (chosen[i] == null) {
+                return null;
+            }
+        }
+        return Arrays.asList(chosen);
+    }
+
+    /**
+     * @param chosen
+     * @param upTo number of requirements already met
+     * @param type
+     * @return int how many of type the requirements already met use up
+     */
+    private static int taken(Ingredient[] chosen, int upTo, String type) {
+        int taken = 0;
+        for (int i = 0; i < upTo; i++) {
+            if (chosen[i].type.equals(type)) {
+                taken += chosen[i].amount;
+            }
+        }
+        return taken;
+    }
+
+    /**
+     * @param dungeon
+     * @return Item a new item of what this recipe builds
+     */
+    public Item make(Dungeon dungeon) {
+        return product.apply(dungeon);
+    }
+
+    /**
+     * @return String
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return Set<String> every item type any alternative of the recipe uses
+     */
+    public Set<String> getIngredientTypes() {
+        Set<String> types = new LinkedHashSet<String>();
+        for (List<Ingredient> requirement : requirements) {
+            for (Ingredient alternative : requirement) {
+                types.add(alternative.type);
+            }
+        }
+        return types;
+    }
+
+    /**
+     * @return Class<? extends Entity> the kind of entity that stops this being built while the dungeon has one, null if none does
+     */
+    public Class<? extends Entity> getBlockedBy() {
+        return blockedBy;
+    }
+
+    /**
+     * Collects a recipe's requirements in the order they are met.
+     */
+    public static final class Builder {
+        private final String name;
+        private final Function<Dungeon, Item> product;
+        private final List<List<Ingredient>> requirements = new ArrayList<List<Ingredient>>();
+        private Class<? extends Entity> blockedBy;
+
+        private Builder(String name, Function<Dungeon, Item> product) {
+            this.name = name;
+            this.product = product;
+        }
+
+        /**
+         * @param type
+         * @param amount
+         * @return Builder
+         */
+        public Builder needs(String type, int amount) {
+            return needsOneOf(new Ingredient(type, amount));
+        }
+
+        /**
+         * @param alternatives in the order they are preferred
+         * @return Builder
+         */
+        public Builder needsOneOf(Ingredient... alternatives) {
+            requirements.add(Collections.unmodifiableList(Arrays.asList(alternatives)));
+            return this;
+        }
+
+        /**
+         * @param entityClass
+         * @return Builder
+         */
+        public Builder unlessDungeonHas(Class<? extends Entity> entityClass) {
+            this.blockedBy = entityClass;
+            return this;
+        }
+
+        /**
+         * @return Recipe
+         */
+        public Recipe build() {
+            return new Recipe(name, Collections.unmodifiableList(new ArrayList<List<Ingredient>>(requirements)), blockedBy, product);
+        }
+    }
+}
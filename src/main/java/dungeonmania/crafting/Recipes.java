@@ -0,0 +1,63 @@
+package dungeonmania.crafting;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import dungeonmania.crafting.Recipe.Ingredient;
+import dungeonmania.items.Bow;
+import dungeonmania.items.MidnightArmour;
+import dungeonmania.items.Sceptre;
+import dungeonmania.items.Shield;
+import dungeonmania.moving_entities.ZombieToast;
+
+/**
+ * Every buildable in the game, in the order the frontend lists them.
+ * A new buildable only needs a recipe here.
+ */
+public final class Recipes {
+    private static final List<Recipe> ALL = Collections.unmodifiableList(Arrays.asList(
+        Recipe.of("bow", Bow::new)
+            .needs("wood", 1)
+            .needs("arrow", 3)
+            .build(),
+        // treasure is used before a key, and either before the sun stone
+        Recipe.of("shield", Shield::new)
+            .needs("wood", 2)
+            .needsOneOf(new Ingredient("treasure", 1), new Ingredient("key", 1), new Ingredient("sun_stone", 1))
+            .build(),
+        Recipe.of("sceptre", Sceptre::new)
+            .needs("sun_stone", 1)
+            .needsOneOf(new Ingredient("wood", 1), new Ingredient("arrow", 2))
+            .needsOneOf(new Ingredient("treasure", 1), new Ingredient("key", 1), new Ingredient("sun_stone", 1))
+            .build(),
+        Recipe.of("midnight_armour", MidnightArmour::new)
+            .needs("armour", 1)
+            .needs("sun_stone", 1)
+            .unlessDungeonHas(ZombieToast.class)
+            .build()
+    ));
+
+    private Recipes() {
+    }
+
+    /**
+     * @return List<Recipe>
+     */
+    public static List<Recipe> all() {
+        return ALL;
+    }
+
+    /**
+     * @param name
+     * @return Recipe null if nothing of that name can be built
+     */
+    public static Recipe get(String name) {
+        for (Recipe recipe : ALL) {
+            if (recipe.getName().equals(name)) {
+                return recipe;
+            }
+        }
+        return null;
+    }
+}
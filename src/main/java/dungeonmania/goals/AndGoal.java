@@ -10,13 +10,14 @@ public class AndGoal extends CompositeGoal {
 
     
     /** 
-     * check if goal is complete by looking at AND condition for subgoals
+     * complete when every subgoal is complete
+     * @param completeSubgoals
+     * @param subgoals
      * @return boolean
      */
     @Override
-    public boolean isComplete() {
-    
-        return getSubgoals().stream().allMatch(goal -> (goal.isComplete()));
+    protected boolean completesWith(int completeSubgoals, int subgoals) {
+        return completeSubgoals == subgoals;
     }
 
     
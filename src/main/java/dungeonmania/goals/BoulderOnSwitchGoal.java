@@ -7,25 +7,14 @@ import org.json.JSONObject;
 
 import dungeonmania.static_entities.Switch;
 
-public class BoulderOnSwitchGoal implements GoalComponent, Observer  {
-    private HashMap<String,Boolean> arePressed;
+public class BoulderOnSwitchGoal extends SimpleGoal {
+    // switches by whether a boulder is on them, keyed by the switch itself as its id can change while loading
+    private HashMap<Switch,Boolean> arePressed;
+    private int numUnpressed;
     public BoulderOnSwitchGoal() {
-        arePressed = new HashMap<String, Boolean>();
-    }
-
-    
-    /** 
-     * check if goal is complete if all switches are triggered
-     * @return boolean
-     */
-    @Override
-    public boolean isComplete() {
-        for (Boolean isPressed: arePressed.values()) {
-            if (!isPressed) {
-                return false;
-            }
-        }
-        return true;
+        super(true);
+        arePressed = new HashMap<Switch, Boolean>();
+        numUnpressed = 0;
     }
 
     
@@ -36,11 +25,11 @@ public class BoulderOnSwitchGoal implements GoalComponent, Observer  {
     @Override
     public void update(Subject entity) {
         Switch currSwitch = (Switch) entity;
-        String switchId = currSwitch.getId();
-        if (currSwitch.hasBoulder()) {
-            arePressed.put(switchId, true);
-        } else {
-            arePressed.put(switchId, false);
+        boolean isPressed = currSwitch.hasBoulder();
+        Boolean wasPressed = arePressed.put(currSwitch, isPressed);
+        if (wasPressed != null && wasPressed != isPressed) {
+            numUnpressed += isPressed ? -1 : 1;
+            setComplete(numUnpressed == 0);
         }
     }
 
@@ -51,9 +40,11 @@ public class BoulderOnSwitchGoal implements GoalComponent, Observer  {
      */
     @Override
     public void tryToAttach(Subject entity) {
-        if (entity instanceof Switch) {
+        if (entity instanceof Switch && !arePressed.containsKey(entity)) {
             Switch currSwitch = (Switch) entity;
-            arePressed.put(currSwitch.getId(), false);
+            arePressed.put(currSwitch, false);
+            numUnpressed++;
+            setComplete(false);
             entity.attach(this);
         }
 
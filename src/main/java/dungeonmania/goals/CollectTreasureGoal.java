@@ -7,24 +7,15 @@ import org.json.JSONObject;
 
 import dungeonmania.items.Treasure;
 
-public class CollectTreasureGoal implements GoalComponent, Observer {
+public class CollectTreasureGoal extends SimpleGoal {
     private int numUncollected;
 
     public CollectTreasureGoal() {
+        super(true);
         numUncollected = 0;
     }
 
     
-    /** 
-     * check if goal is complete by checking uncollected treasure
-     * @return boolean
-     */
-    @Override
-    public boolean isComplete() {
-        return (numUncollected == 0);
-    }
-
-    
     /** 
      * try to attach entity to this goal
      * @param entity
@@ -34,6 +25,7 @@ public class CollectTreasureGoal implements GoalComponent, Observer {
         if (entity instanceof Treasure) {
             entity.attach(this);
             numUncollected++;
+            setComplete(false);
         }
     }
 
@@ -45,6 +37,7 @@ public class CollectTreasureGoal implements GoalComponent, Observer {
     @Override
     public void update(Subject entity) {
         numUncollected--;
+        setComplete(numUncollected == 0);
     }
 
     
@@ -3,20 +3,49 @@ package dungeonmania.goals;
 import java.util.ArrayList;
 import java.util.List;
 
-public abstract class CompositeGoal implements GoalComponent {
+/**
+ * A goal made of subgoals. Its completion is kept from how many of its subgoals are complete,
+ * which each subgoal updates when its own completion changes, so checking it never walks the tree.
+ */
+public abstract class CompositeGoal implements GoalComponent, GoalParent {
     private List<GoalComponent> subgoals;
+    private GoalParent parent;
+    private int completeSubgoals;
+    private boolean complete;
 
     public CompositeGoal() {
         this.subgoals = new ArrayList<GoalComponent>();
+        this.complete = completesWith(0, 0);
+    }
+
+    /** 
+     * whether a composite with this many complete subgoals is complete
+     * @param completeSubgoals
+     * @param subgoals number of subgoals
+     * @return boolean
+     */
+    protected abstract boolean completesWith(int completeSubgoals, int subgoals);
+
+    /** 
+     * check if goal is complete
+     * @return boolean
+     */
+    @Override
+    public boolean isComplete() {
+        return complete;
     }
 
-    
     /** 
      * add a subgoal to the composite
      * @param subgoal
      */
     public void addSubgoal(GoalComponent subgoal) {
         subgoals.add(subgoal);
+        subgoal.setParent(this);
+        if (subgoal.isComplete()) {
+            completeSubgoals++;
+        }
+        refresh();
     }
 
     
@@ -25,7 +54,44 @@ public abstract class CompositeGoal implements GoalComponent {
      * @param subgoal
      */
     public void removeSubGoal(GoalComponent subgoal) {
-        subgoals.remove(subgoal);
+        if (subgoals.remove(subgoal)) {
+            subgoal.setParent(null);
+            if (subgoal.isComplete()) {
+                completeSubgoals--;
+            }
+            refresh();
+        }
+    }
+
+    /** 
+     * a subgoal was completed, or is no longer complete
+     * @param subgoalComplete whether it is complete now
+     */
+    @Override
+    public void subgoalChanged(boolean subgoalComplete) {
+        completeSubgoals += subgoalComplete ? 1 : -1;
+        refresh();
+    }
+
+    /** 
+     * @param parent what to tell when this goal is completed or no longer complete
+     */
+    @Override
+    public void setParent(GoalParent parent) {
+        this.parent = parent;
+    }
+
+    /** 
+     * work out completion again, passing it up only if it changed
+     */
+    private void refresh() {
+        boolean nowComplete = completesWith(completeSubgoals, subgoals.size());
+        if (nowComplete != complete) {
+            complete = nowComplete;
+            if (parent != null) {
+                parent.subgoalChanged(nowComplete);
+            }
+        }
     }
 
     
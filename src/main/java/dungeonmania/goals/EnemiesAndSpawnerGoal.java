@@ -8,22 +8,13 @@ import org.json.JSONObject;
 import dungeonmania.moving_entities.Enemy;
 import dungeonmania.static_entities.ZombieToastSpawner;
 
-public class EnemiesAndSpawnerGoal implements GoalComponent, Observer  {
+public class EnemiesAndSpawnerGoal extends SimpleGoal {
     private int numLiving;
 
     public EnemiesAndSpawnerGoal() {
+        super(true);
         numLiving = 0;
     }
-    
-    /** 
-     * check if goal is complete but counting number of enemies alive
-     * @return boolean
-     */
-    @Override
-    public boolean isComplete() {
-        return (numLiving == 0);
-    }
-
 
     
     /** 
@@ -35,6 +26,7 @@ public class EnemiesAndSpawnerGoal implements GoalComponent, Observer  {
         if ((entity instanceof Enemy && !((Enemy) entity).isAlly()) || entity instanceof ZombieToastSpawner) {
             entity.attach(this);
             numLiving++;
+            setComplete(false);
         }
     }
 
@@ -46,6 +38,7 @@ public class EnemiesAndSpawnerGoal implements GoalComponent, Observer  {
     @Override
     public void update(Subject entity) {
         numLiving--;
+        setComplete(numLiving == 0);
     } 
 
     
@@ -7,20 +7,14 @@ import org.json.JSONObject;
 
 import dungeonmania.static_entities.Exit;
 
-public class ExitGoal implements GoalComponent, Observer  {
-
-    private HashMap<String,Boolean> onExits; 
+public class ExitGoal extends SimpleGoal {
+    // exits by whether the player is on them, keyed by the exit itself as its id can change while loading
+    private HashMap<Exit,Boolean> onExits; 
+    private int numOccupied;
     public ExitGoal() {
-        onExits = new HashMap<String, Boolean>();
-    }
-    
-    /** 
-     * check if goal is complete
-     * @return boolean
-     */
-    @Override
-    public boolean isComplete() {
-        return onExits.containsValue(true);
+        super(false);
+        onExits = new HashMap<Exit, Boolean>();
+        numOccupied = 0;
     }
 
     
@@ -30,11 +24,9 @@ public class ExitGoal implements GoalComponent, Observer  {
      */
     @Override
     public void tryToAttach(Subject entity) {
-
-
-        if (entity instanceof Exit) {
+        if (entity instanceof Exit && !onExits.containsKey(entity)) {
             Exit exit = (Exit) entity;
-            onExits.put(exit.getId(), false);
+            onExits.put(exit, false);
             entity.attach(this);
         }
     }
@@ -47,11 +39,11 @@ public class ExitGoal implements GoalComponent, Observer  {
     @Override
     public void update(Subject entity) {
         Exit currExit = (Exit) entity;
-        String exitId = currExit.getId();
-        if (currExit.hasPlayer()) {
-            onExits.put(exitId, true);
-        } else {
-            onExits.put(exitId, false);
+        boolean hasPlayer = currExit.hasPlayer();
+        Boolean hadPlayer = onExits.put(currExit, hasPlayer);
+        if (hadPlayer != null && hadPlayer != hasPlayer) {
+            numOccupied += hasPlayer ? 1 : -1;
+            setComplete(numOccupied > 0);
         }
     }
 
@@ -7,5 +7,5 @@ public interface GoalComponent {
     public abstract void tryToAttach(Subject entity);
     public abstract JSONObject toJSON();
     public abstract String simpleGoalToString();
+    public abstract void setParent(GoalParent parent);
 }
-
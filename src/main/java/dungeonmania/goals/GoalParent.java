@@ -0,0 +1,13 @@
+package dungeonmania.goals;
+
+/**
+ * Whatever holds a goal and needs to know when it is completed or no longer complete:
+ * a composite goal, or the dungeon for its overall goal.
+ */
+public interface GoalParent {
+    /** 
+     * a subgoal was completed, or is no longer complete
+     * @param subgoalComplete whether it is complete now
+     */
+    public void subgoalChanged(boolean subgoalComplete);
+}
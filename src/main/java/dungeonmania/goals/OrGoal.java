@@ -10,12 +10,14 @@ public class OrGoal extends CompositeGoal{
 
     
     /** 
-     * check if goal is complete by looking at OR condition for subgoals
+     * complete when any subgoal is complete
+     * @param completeSubgoals
+     * @param subgoals
      * @return boolean
      */
     @Override
-    public boolean isComplete() {
-        return getSubgoals().stream().anyMatch(goal -> (goal.isComplete()));
+    protected boolean completesWith(int completeSubgoals, int subgoals) {
+        return completeSubgoals > 0;
     }
 
     
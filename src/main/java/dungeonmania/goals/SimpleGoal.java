@@ -0,0 +1,47 @@
+package dungeonmania.goals;
+
+/**
+ * A goal on entities of the dungeon, kept up to date by the events they raise rather than checked each tick.
+ * Its completion is worked out when an event changes it, and passed up to whatever holds it.
+ */
+public abstract class SimpleGoal implements GoalComponent, Observer {
+    private GoalParent parent;
+    private boolean complete;
+
+    /**
+     * @param complete whether the goal is complete before any entity is attached
+     */
+    public SimpleGoal(boolean complete) {
+        this.complete = complete;
+    }
+
+    /** 
+     * check if goal is complete
+     * @return boolean
+     */
+    @Override
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /** 
+     * @param parent what to tell when this goal is completed or no longer complete
+     */
+    @Override
+    public void setParent(GoalParent parent) {
+        this.parent = parent;
+    }
+
+    /** 
+     * record whether the goal is now complete, telling the parent if that changed
+     * @param complete
+     */
+    protected void setComplete(boolean complete) {
+        if (this.complete != complete) {
+            this.complete = complete;
+            if (parent != null) {
+                parent.subgoalChanged(complete);
+            }
+        }
+    }
+}
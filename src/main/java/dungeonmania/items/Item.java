@@ -19,6 +19,7 @@ public abstract class Item extends Entity {
      */
     public void activate(Player player) {
         this.usesLeft = usesLeft - 1;
+        savedStateChanged();
     }
 
     // basic getters and setters
@@ -35,6 +36,7 @@ public abstract class Item extends Entity {
      */
     public void setUsesLeft(int usesLeft) {
         this.usesLeft = usesLeft;
+        savedStateChanged();
     }
 
 }
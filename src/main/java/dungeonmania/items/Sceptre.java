@@ -1,7 +1,6 @@
 package dungeonmania.items;
 
 import dungeonmania.Dungeon;
-import dungeonmania.Entity;
 import dungeonmania.moving_entities.MercControlledState;
 import dungeonmania.moving_entities.Mercenary;
 import dungeonmania.player.Player;
@@ -15,11 +14,8 @@ public class Sceptre extends Item {
     @Override
     public void activate(Player player) {
         super.activate(player);
-        for (Entity e : player.getDungeon().getEntities()) {
-            if (e instanceof Mercenary) {
-                Mercenary m = (Mercenary) e;
-                m.setMercenaryState(new MercControlledState(m));
-            }
+        for (Mercenary m : player.getDungeon().getEntitiesOfClass(Mercenary.class)) {
+            m.setMercenaryState(new MercControlledState(m));
         }
     }
 
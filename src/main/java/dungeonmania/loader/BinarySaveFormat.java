@@ -0,0 +1,29 @@
+package dungeonmania.loader;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Layout of the binary save format, shared by its writer and reader.
+ *
+ * A file is the magic bytes and a version, then the dungeon's own values and its goal condition as json,
+ * then the entities and the inventory items. Integers are varints, zigzag coded where they can be negative.
+ * Strings that repeat, such as types and field names, are kept in a table and written out only the first time.
+ * Entities with the same type and the same fields share a shape, also written once, so a wall costs a shape number,
+ * its position and its id, while a mercenary's or player's extra state follows as a block of values in shape order.
+ */
+final class BinarySaveFormat {
+    static final byte[] MAGIC = "DMSV".getBytes(StandardCharsets.US_ASCII);
+    static final int VERSION = 1;
+
+    // value tags
+    static final int INT = 0;
+    static final int DOUBLE = 1;
+    static final int TRUE = 2;
+    static final int FALSE = 3;
+    static final int STRING = 4;
+    // a string that is not worth putting in the table, such as an entity id that is not a number
+    static final int RAW_STRING = 5;
+
+    private BinarySaveFormat() {
+    }
+}
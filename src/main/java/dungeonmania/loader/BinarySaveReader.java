@@ -0,0 +1,191 @@
+package dungeonmania.loader;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.json.JSONObject;
+
+import dungeonmania.Dungeon;
+
+/**
+ * Reads a game in the binary save format, see BinarySaveFormat.
+ * Values are handed to the same factories as a json save, so both formats restore a game the same way.
+ */
+public class BinarySaveReader implements Closeable {
+    private DataInputStream in;
+    private List<String> strings = new ArrayList<String>();
+    private List<String> shapeTypes = new ArrayList<String>();
+    private List<String[]> shapeFields = new ArrayList<String[]>();
+
+    /**
+     * @param in
+     * @throws IOException if this is not a binary save of a version this reader knows
+     */
+    public BinarySaveReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(in));
+        byte[] magic = new byte[BinarySaveFormat.MAGIC.length];
+        this.in.readFully(magic);
+        if (!Arrays.equals(magic, BinarySaveFormat.MAGIC)) {
+            throw new IOException("Not a binary save");
+        }
+        int version = (int) readVarint();
+        if (version != BinarySaveFormat.VERSION) {
+            throw new IOException("Unsupported binary save version " + version);
+        }
+    }
+
+    /**
+     * read the dungeon's own values and goal condition, must come first
+     * @return DungeonLoader.Header
+     * @throws IOException
+     */
+    public DungeonLoader.Header readHeader() throws IOException {
+        JsonFields fields = new JsonFields();
+        int count = (int) readVarint();
+        for (int i = 0; i < count; i++) {
+            String name = readString();
+            fields.put(name, readValue());
+        }
+        return new DungeonLoader.Header(fields, new JSONObject(readRawString()));
+    }
+
+    /**
+     * make every entity and inventory item, must come after readHeader
+     * @param dungeon the dungeon to add them to, with its goals already set
+     * @throws IOException
+     */
+    public void readEntities(Dungeon dungeon) throws IOException {
+        JsonFields fields = new JsonFields();
+        int entities = (int) readVarint();
+        for (int i = 0; i < entities; i++) {
+            int shape = readShape(fields);
+            fields.put("x", Long.toString(unzigzag(readVarint())));
+            fields.put("y", Long.toString(unzigzag(readVarint())));
+            readState(shape, fields);
+            DungeonLoader.makeEntity(dungeon, fields);
+        }
+        int items = (int) readVarint();
+        for (int i = 0; i < items; i++) {
+            readState(readShape(fields), fields);
+            DungeonLoader.makeItem(dungeon, fields);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * @param fields cleared and given the shape's type
+     * @return int the shape's number
+     * @throws IOException
+     */
+    private int readShape(JsonFields fields) throws IOException {
+        int shape = (int) readVarint();
+        if (shape == shapeTypes.size()) {
+            shapeTypes.add(readString());
+            String[] names = new String[(int) readVarint()];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = readString();
+            }
+            shapeFields.add(names);
+        } else if (shape > shapeTypes.size()) {
+            throw new IOException("Corrupt binary save, unknown shape " + shape);
+        }
+        fields.clear();
+        fields.put("type", shapeTypes.get(shape));
+        return shape;
+    }
+
+    /**
+     * @param shape
+     * @param fields
+     * @throws IOException
+     */
+    private void readState(int shape, JsonFields fields) throws IOException {
+        fields.put("entityId", readValue());
+        for (String name : shapeFields.get(shape)) {
+            fields.put(name, readValue());
+        }
+    }
+
+    /**
+     * @return String the value as it would appear in json
+     * @throws IOException
+     */
+    private String readValue() throws IOException {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+            case BinarySaveFormat.INT:
+                return Long.toString(unzigzag(readVarint()));
+            case BinarySaveFormat.DOUBLE:
+                return Double.toString(in.readDouble());
+            case BinarySaveFormat.TRUE:
+                return "true";
+            case BinarySaveFormat.FALSE:
+                return "false";
+            case BinarySaveFormat.STRING:
+                return readString();
+            case BinarySaveFormat.RAW_STRING:
+                return readRawString();
+            default:
+                throw new IOException("Corrupt binary save, unknown value tag " + tag);
+        }
+    }
+
+    /**
+     * @return String
+     * @throws IOException
+     */
+    private String readString() throws IOException {
+        int index = (int) readVarint();
+        if (index == strings.size()) {
+            strings.add(readRawString());
+        } else if (index > strings.size()) {
+            throw new IOException("Corrupt binary save, unknown string " + index);
+        }
+        return strings.get(index);
+    }
+
+    /**
+     * @return String
+     * @throws IOException
+     */
+    private String readRawString() throws IOException {
+        byte[] bytes = new byte[(int) readVarint()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return long
+     * @throws IOException
+     */
+    private long readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupt binary save, varint too long");
+    }
+
+    /**
+     * @param value
+     * @return long
+     */
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
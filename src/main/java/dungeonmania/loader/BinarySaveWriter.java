@@ -0,0 +1,229 @@
+package dungeonmania.loader;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.json.JSONObject;
+
+/**
+ * Writes a game in the binary save format, see BinarySaveFormat.
+ * Entities and items are given as the same maps the json save is made from.
+ */
+public class BinarySaveWriter implements Closeable {
+    private DataOutputStream out;
+    private Map<String, Integer> strings = new HashMap<String, Integer>();
+    private Map<String, Integer> shapes = new HashMap<String, Integer>();
+    private Map<String, List<String>> shapeFields = new HashMap<String, List<String>>();
+
+    /**
+     * @param out
+     * @throws IOException
+     */
+    public BinarySaveWriter(OutputStream out) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+        this.out.write(BinarySaveFormat.MAGIC);
+        writeVarint(BinarySaveFormat.VERSION);
+    }
+
+    /**
+     * @param values the dungeon's own values, such as its name, game mode and counter
+     * @param goalCondition
+     * @throws IOException
+     */
+    public void writeHeader(Map<String, Object> values, JSONObject goalCondition) throws IOException {
+        writeVarint(values.size());
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            writeString(entry.getKey());
+            writeValue(entry.getValue());
+        }
+        writeRawString(goalCondition.toString());
+    }
+
+    /**
+     * @param count number of entities that follow
+     * @throws IOException
+     */
+    public void beginEntities(int count) throws IOException {
+        writeVarint(count);
+    }
+
+    /**
+     * @param data "type", "x", "y", "entityId" and the entity's saved state
+     * @throws IOException
+     */
+    public void writeEntity(Map<String, Object> data) throws IOException {
+        List<String> fields = writeShape(data);
+        writeVarint(zigzag(((Number) data.get("x")).longValue()));
+        writeVarint(zigzag(((Number) data.get("y")).longValue()));
+        writeState(data, fields);
+    }
+
+    /**
+     * @param count number of inventory items that follow
+     * @throws IOException
+     */
+    public void beginItems(int count) throws IOException {
+        writeVarint(count);
+    }
+
+    /**
+     * @param data "type", "entityId" and the item's saved state
+     * @throws IOException
+     */
+    public void writeItem(Map<String, Object> data) throws IOException {
+        writeState(data, writeShape(data));
+    }
+
+    /**
+     * push everything written so far to the underlying stream, without closing it
+     * @throws IOException
+     */
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * write the number of the entity's shape, and the shape itself the first time it is seen
+     * @param data
+     * @return List<String> the state fields, in the order they are written
+     * @throws IOException
+     */
+    private List<String> writeShape(Map<String, Object> data) throws IOException {
+        String type = (String) data.get("type");
+        List<String> fields = new ArrayList<String>();
+        for (String name : data.keySet()) {
+            if (!name.equals("type") && !name.equals("x") && !name.equals("y") && !name.equals("entityId")) {
+                fields.add(name);
+            }
+        }
+        Collections.sort(fields);
+        String key = type + '\0' + String.join("\0", fields);
+
+        Integer shape = shapes.get(key);
+        if (shape != null) {
+            writeVarint(shape);
+            return shapeFields.get(key);
+        }
+        shapes.put(key, shapes.size());
+        shapeFields.put(key, fields);
+        writeVarint(shapes.size() - 1);
+        writeString(type);
+        writeVarint(fields.size());
+        for (String name : fields) {
+            writeString(name);
+        }
+        return fields;
+    }
+
+    /**
+     * @param data
+     * @param fields
+     * @throws IOException
+     */
+    private void writeState(Map<String, Object> data, List<String> fields) throws IOException {
+        writeId((String) data.get("entityId"));
+        for (String name : fields) {
+            writeValue(data.get(name));
+        }
+    }
+
+    /**
+     * ids are nearly always numbers, which are written as such
+     * @param id
+     * @throws IOException
+     */
+    private void writeId(String id) throws IOException {
+        try {
+            long number = Long.parseLong(id);
+            if (Long.toString(number).equals(id)) {
+                out.writeByte(BinarySaveFormat.INT);
+                writeVarint(zigzag(number));
+                return;
+            }
+        } catch (NumberFormatException e) {
+            // written as a string below
+        }
+        out.writeByte(BinarySaveFormat.RAW_STRING);
+        writeRawString(id);
+    }
+
+    /**
+     * @param value
+     * @throws IOException
+     */
+    private void writeValue(Object value) throws IOException {
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            out.writeByte(BinarySaveFormat.INT);
+            writeVarint(zigzag(((Number) value).longValue()));
+        } else if (value instanceof Number) {
+            out.writeByte(BinarySaveFormat.DOUBLE);
+            out.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof Boolean) {
+            out.writeByte((Boolean) value ? BinarySaveFormat.TRUE : BinarySaveFormat.FALSE);
+        } else {
+            out.writeByte(BinarySaveFormat.STRING);
+            writeString(String.valueOf(value));
+        }
+    }
+
+    /**
+     * write the string's number in the table, and the string itself the first time it is seen
+     * @param value
+     * @throws IOException
+     */
+    private void writeString(String value) throws IOException {
+        Integer index = strings.get(value);
+        if (index != null) {
+            writeVarint(index);
+            return;
+        }
+        strings.put(value, strings.size());
+        writeVarint(strings.size() - 1);
+        writeRawString(value);
+    }
+
+    /**
+     * @param value
+     * @throws IOException
+     */
+    private void writeRawString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * seven bits at a time, lowest first, the top bit set on all but the last byte
+     * @param value treated as unsigned
+     * @throws IOException
+     */
+    private void writeVarint(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    /**
+     * @param value
+     * @return long small negative numbers become small positive ones
+     */
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+}
@@ -0,0 +1,415 @@
+package dungeonmania.loader;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.json.JSONObject;
+
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import dungeonmania.Dungeon;
+import dungeonmania.Entity;
+import dungeonmania.items.Anduril;
+import dungeonmania.items.Armour;
+import dungeonmania.items.Arrow;
+import dungeonmania.items.Bomb;
+import dungeonmania.items.Bow;
+import dungeonmania.items.HealthPotion;
+import dungeonmania.items.InvincibilityPotion;
+import dungeonmania.items.InvisibilityPotion;
+import dungeonmania.items.Item;
+import dungeonmania.items.Key;
+import dungeonmania.items.MidnightArmour;
+import dungeonmania.items.OneRing;
+import dungeonmania.items.Sceptre;
+import dungeonmania.items.Shield;
+import dungeonmania.items.SunStone;
+import dungeonmania.items.Sword;
+import dungeonmania.items.Treasure;
+import dungeonmania.items.Wood;
+import dungeonmania.moving_entities.Assassin;
+import dungeonmania.moving_entities.Hydra;
+import dungeonmania.moving_entities.MercControlledState;
+import dungeonmania.moving_entities.Mercenary;
+import dungeonmania.moving_entities.MovingEntity;
+import dungeonmania.moving_entities.Spider;
+import dungeonmania.moving_entities.ZombieToast;
+import dungeonmania.player.InvincibleState;
+import dungeonmania.player.InvisibleState;
+import dungeonmania.player.Player;
+import dungeonmania.static_entities.Boulder;
+import dungeonmania.static_entities.Door;
+import dungeonmania.static_entities.Exit;
+import dungeonmania.static_entities.Portal;
+import dungeonmania.static_entities.SwampTile;
+import dungeonmania.static_entities.Switch;
+import dungeonmania.static_entities.Wall;
+import dungeonmania.static_entities.ZombieToastSpawner;
+import dungeonmania.util.Position;
+
+/**
+ * Reads dungeon files and saved games straight off a stream, making each entity from its tokens
+ * instead of building the whole json document first.
+ *
+ * Entities need the dungeon and its goals to exist before they are made, but a file can list them in any order,
+ * so a file is read twice: readHeader skips the entities and items, readEntities skips everything else.
+ *
+ * Entities of a dungeon file and of a saved game share a factory. A saved game has extra fields,
+ * such as "totalArmour" or "health", and a factory restores that state whenever it is there.
+ */
+public class DungeonLoader {
+    private static final Map<String, EntityFactory> ENTITY_FACTORIES = new HashMap<String, EntityFactory>();
+    private static final Map<String, ItemFactory> ITEM_FACTORIES = new HashMap<String, ItemFactory>();
+    // inventory items are not on the map
+    private static final Position HELD = new Position(-1, -1);
+
+    static {
+        registerEntity("wall", (position, dungeon, fields) -> new Wall(position, dungeon));
+        registerEntity("exit", (position, dungeon, fields) -> new Exit(position, dungeon));
+        registerEntity("boulder", (position, dungeon, fields) -> new Boulder(position, dungeon));
+        registerEntity("switch", (position, dungeon, fields) -> new Switch(position, dungeon));
+        registerEntity("door", (position, dungeon, fields) -> new Door(position, dungeon, fields.getInt("key")));
+        registerEntity("door_unlocked", (position, dungeon, fields) -> {
+            Door door = new Door(position, dungeon, fields.getInt("key"));
+            door.setLocked(false);
+            door.updateType("door_unlocked");
+            return door;
+        });
+        registerEntity("portal", (position, dungeon, fields) -> new Portal(position, dungeon, fields.getString("colour")));
+        registerEntity("zombie_toast_spawner", (position, dungeon, fields) -> new ZombieToastSpawner(position, dungeon));
+        registerEntity("swamp_tile", (position, dungeon, fields) -> new SwampTile(position, dungeon, fields.getInt("movement_factor")));
+        registerEntity("one_ring", (position, dungeon, fields) -> new OneRing(position, dungeon));
+        registerEntity("treasure", (position, dungeon, fields) -> new Treasure(position, dungeon));
+        registerEntity("key", (position, dungeon, fields) -> new Key(position, dungeon, fields.getInt("key")));
+        registerEntity("health_potion", (position, dungeon, fields) -> new HealthPotion(position, dungeon));
+        registerEntity("invincibility_potion", (position, dungeon, fields) -> new InvincibilityPotion(position, dungeon));
+        registerEntity("invisibility_potion", (position, dungeon, fields) -> new InvisibilityPotion(position, dungeon));
+        registerEntity("wood", (position, dungeon, fields) -> new Wood(position, dungeon));
+        registerEntity("arrow", (position, dungeon, fields) -> new Arrow(position, dungeon));
+        registerEntity("bomb", (position, dungeon, fields) -> new Bomb(position, dungeon));
+        registerEntity("sword", (position, dungeon, fields) -> new Sword(position, dungeon));
+        registerEntity("sun_stone", (position, dungeon, fields) -> new SunStone(position, dungeon));
+        registerEntity("anduril", (position, dungeon, fields) -> new Anduril(position, dungeon));
+
+        registerEntity("spider", (position, dungeon, fields) -> {
+            if (!fields.has("startingPositionx")) {
+                return new Spider(position, dungeon);
+            }
+            Position start = new Position(fields.getInt("startingPositionx"), fields.getInt("startingPositiony"));
+            return restoreSlowed(new Spider(position, dungeon, start, fields.getInt("positionNumber")), fields);
+        });
+        registerEntity("zombie_toast", (position, dungeon, fields) -> {
+            if (!fields.has("totalArmour")) {
+                return new ZombieToast(position, dungeon);
+            }
+            return restoreSlowed(new ZombieToast(position, dungeon, fields.getInt("totalArmour")), fields);
+        });
+        registerEntity("mercenary", (position, dungeon, fields) -> {
+            if (!fields.has("totalArmour")) {
+                // 10% chance that assassin is spawned in.
+                if (dungeon.getRandom().nextInt(10) == 1) {
+                    return new Assassin(position, dungeon);
+                }
+                return new Mercenary(position, dungeon);
+            }
+            return restoreMercenary(new Mercenary(position, dungeon, fields.getInt("totalArmour"), fields.getBoolean("ally")), fields);
+        });
+        registerEntity("assassin", (position, dungeon, fields) -> {
+            if (!fields.has("totalArmour")) {
+                return new Assassin(position, dungeon);
+            }
+            return restoreMercenary(new Assassin(position, dungeon, fields.getInt("totalArmour"), fields.getBoolean("ally")), fields);
+        });
+        registerEntity("hydra", (position, dungeon, fields) -> restoreSlowed(new Hydra(position, dungeon), fields));
+        registerEntity("player", (position, dungeon, fields) -> {
+            if (!fields.has("health")) {
+                return new Player(position, dungeon);
+            }
+            Player player = new Player(position, dungeon, fields.getInt("health"), fields.getBoolean("teleported"));
+            String characterState = fields.getString("characterState");
+            if (characterState.equals("Invincible")) {
+                player.setCharacterState(new InvincibleState(player, fields.getInt("timeLeft")));
+            } else if (characterState.equals("Invisible")) {
+                player.setCharacterState(new InvisibleState(player, fields.getInt("timeLeft")));
+            }
+            return player;
+        });
+
+        registerItem("one_ring", (dungeon, fields) -> new OneRing(HELD, dungeon));
+        registerItem("treasure", (dungeon, fields) -> new Treasure(HELD, dungeon));
+        registerItem("key", (dungeon, fields) -> new Key(HELD, dungeon, fields.getInt("key")));
+        registerItem("health_potion", (dungeon, fields) -> new HealthPotion(HELD, dungeon));
+        registerItem("invincibility_potion", (dungeon, fields) -> new InvincibilityPotion(HELD, dungeon));
+        registerItem("invisibility_potion", (dungeon, fields) -> new InvisibilityPotion(HELD, dungeon));
+        registerItem("wood", (dungeon, fields) -> new Wood(HELD, dungeon));
+        registerItem("arrow", (dungeon, fields) -> new Arrow(HELD, dungeon));
+        registerItem("bomb", (dungeon, fields) -> new Bomb(HELD, dungeon));
+        registerItem("sun_stone", (dungeon, fields) -> new SunStone(HELD, dungeon));
+        registerItem("sceptre", (dungeon, fields) -> new Sceptre(dungeon));
+        registerItem("armour", (dungeon, fields) -> new Armour(dungeon, fields.getInt("usesLeft")));
+        registerItem("sword", (dungeon, fields) -> restoreUsesLeft(new Sword(HELD, dungeon), fields));
+        registerItem("bow", (dungeon, fields) -> restoreUsesLeft(new Bow(dungeon), fields));
+        registerItem("shield", (dungeon, fields) -> restoreUsesLeft(new Shield(dungeon), fields));
+        registerItem("anduril", (dungeon, fields) -> restoreUsesLeft(new Anduril(HELD, dungeon), fields));
+        registerItem("midnight_armour", (dungeon, fields) -> restoreUsesLeft(new MidnightArmour(dungeon), fields));
+    }
+
+    /**
+     * The top level values of a file and its goal condition.
+     */
+    public static class Header {
+        private final JsonFields fields;
+        private final JSONObject goalCondition;
+
+        Header(JsonFields fields, JSONObject goalCondition) {
+            this.fields = fields;
+            this.goalCondition = goalCondition;
+        }
+
+        /**
+         * @return JsonFields values such as "gamemode", "dungeonId" and "counter" of a saved game
+         */
+        public JsonFields getFields() {
+            return fields;
+        }
+
+        /**
+         * @return JSONObject
+         */
+        public JSONObject getGoalCondition() {
+            return goalCondition;
+        }
+    }
+
+    /**
+     * make entities of this type with the given factory, replacing any factory it had
+     * @param type
+     * @param factory
+     */
+    public static void registerEntity(String type, EntityFactory factory) {
+        ENTITY_FACTORIES.put(type, factory);
+    }
+
+    /**
+     * make inventory items of this type with the given factory, replacing any factory it had
+     * @param type
+     * @param factory
+     */
+    public static void registerItem(String type, ItemFactory factory) {
+        ITEM_FACTORIES.put(type, factory);
+    }
+
+    /**
+     * read everything but the entities and items
+     * @param in
+     * @return Header
+     * @throws IOException if the json is malformed
+     * @throws IllegalArgumentException if there is no goal condition
+     */
+    public static Header readHeader(Reader in) throws IOException, IllegalArgumentException {
+        JsonReader reader = new JsonReader(in);
+        JsonFields fields = new JsonFields();
+        JSONObject goalCondition = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (name.equals("goal-condition")) {
+                // a goal is a handful of nodes, the goal classes read it as a document
+                goalCondition = new JSONObject(JsonParser.parseReader(reader).toString());
+            } else {
+                readValue(reader, name, fields);
+            }
+        }
+        reader.endObject();
+
+        if (goalCondition == null) {
+            throw new IllegalArgumentException("Missing \"goal-condition\"");
+        }
+        return new Header(fields, goalCondition);
+    }
+
+    /**
+     * make every entity and inventory item in the file, in file order
+     * @param in
+     * @param dungeon the dungeon to add them to, with its goals already set
+     * @throws IOException if the json is malformed
+     * @throws IllegalArgumentException if an entity is missing a field it needs
+     */
+    public static void readEntities(Reader in, Dungeon dungeon) throws IOException, IllegalArgumentException {
+        JsonReader reader = new JsonReader(in);
+        // one instance holds each entity in turn
+        JsonFields fields = new JsonFields();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (name.equals("entities")) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    readObject(reader, fields);
+                    makeEntity(dungeon, fields);
+                }
+                reader.endArray();
+            } else if (name.equals("items")) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    readObject(reader, fields);
+                    makeItem(dungeon, fields);
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    /**
+     * read a whole dungeon file once, to be made into any number of games
+     * @param in
+     * @return DungeonTemplate
+     * @throws IOException if the json is malformed
+     * @throws IllegalArgumentException if there is no goal condition
+     */
+    public static DungeonTemplate readTemplate(Reader in) throws IOException, IllegalArgumentException {
+        JsonReader reader = new JsonReader(in);
+        JsonFields fields = new JsonFields();
+        JSONObject goalCondition = null;
+        List<JsonFields> entities = new ArrayList<JsonFields>();
+        List<JsonFields> items = new ArrayList<JsonFields>();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (name.equals("goal-condition")) {
+                goalCondition = new JSONObject(JsonParser.parseReader(reader).toString());
+            } else if (name.equals("entities") || name.equals("items")) {
+                List<JsonFields> list = name.equals("entities") ? entities : items;
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    readObject(reader, fields);
+                    list.add(fields.copy());
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (goalCondition == null) {
+            throw new IllegalArgumentException("Missing \"goal-condition\"");
+        }
+        return new DungeonTemplate(goalCondition, entities, items);
+    }
+
+    /**
+     * @param dungeon
+     * @param fields
+     * @return Entity the entity made, null if its type is not known
+     */
+    static Entity makeEntity(Dungeon dungeon, JsonFields fields) {
+        // types this version does not know are left out
+        EntityFactory factory = ENTITY_FACTORIES.get(fields.getString("type"));
+        if (factory == null) {
+            return null;
+        }
+        Entity entity = factory.create(new Position(fields.getInt("x"), fields.getInt("y")), dungeon, fields);
+        if (fields.has("entityId")) {
+            entity.setId(fields.getString("entityId"));
+        }
+        return entity;
+    }
+
+    /**
+     * @param dungeon
+     * @param fields
+     */
+    static void makeItem(Dungeon dungeon, JsonFields fields) {
+        ItemFactory factory = ITEM_FACTORIES.get(fields.getString("type"));
+        if (factory == null) {
+            return;
+        }
+        Item item = factory.create(dungeon, fields);
+        if (fields.has("entityId")) {
+            item.setId(fields.getString("entityId"));
+        }
+        dungeon.moveToInventory(item);
+    }
+
+    /**
+     * read the plain values of the next object into fields, skipping nested ones
+     * @param reader
+     * @param fields
+     * @throws IOException
+     */
+    private static void readObject(JsonReader reader, JsonFields fields) throws IOException {
+        fields.clear();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            readValue(reader, reader.nextName(), fields);
+        }
+        reader.endObject();
+    }
+
+    /**
+     * @param reader
+     * @param name
+     * @param fields
+     * @throws IOException
+     */
+    private static void readValue(JsonReader reader, String name, JsonFields fields) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.STRING || token == JsonToken.NUMBER) {
+            fields.put(name, reader.nextString());
+        } else if (token == JsonToken.BOOLEAN) {
+            fields.put(name, String.valueOf(reader.nextBoolean()));
+        } else {
+            reader.skipValue();
+        }
+    }
+
+    /**
+     * @param entity
+     * @param fields
+     * @return MovingEntity
+     */
+    private static MovingEntity restoreSlowed(MovingEntity entity, JsonFields fields) {
+        if (fields.has("slowed")) {
+            entity.setSlowed(fields.getInt("slowed"));
+        }
+        return entity;
+    }
+
+    /**
+     * @param mercenary a mercenary or assassin
+     * @param fields
+     * @return Mercenary
+     */
+    private static Mercenary restoreMercenary(Mercenary mercenary, JsonFields fields) {
+        restoreSlowed(mercenary, fields);
+        if (fields.getString("mercState").equals("MercControlled")) {
+            mercenary.setMercenaryState(new MercControlledState(mercenary, fields.getInt("timeLeft")));
+        }
+        return mercenary;
+    }
+
+    /**
+     * @param item
+     * @param fields
+     * @return Item
+     */
+    private static Item restoreUsesLeft(Item item, JsonFields fields) {
+        if (fields.has("usesLeft")) {
+            item.setUsesLeft(fields.getInt("usesLeft"));
+        }
+        return item;
+    }
+}
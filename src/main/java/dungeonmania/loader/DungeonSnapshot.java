@@ -0,0 +1,250 @@
+package dungeonmania.loader;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
+
+import org.json.JSONObject;
+
+import dungeonmania.Dungeon;
+import dungeonmania.Entity;
+
+/**
+ * The state of a game at one moment, held in memory for undo and named save states.
+ * Entities are kept as the same values a save writes for them, each in a numbered slot that stays the entity's
+ * from one snapshot to the next. Slots are held in runs of CHUNK, and a run nothing changed in is the previous
+ * snapshot's own list, so each snapshot only costs memory and time for what changed.
+ * A removed entity leaves its slot empty, and new entities take slots after the last.
+ * Nothing in a snapshot changes after it is built.
+ */
+public final class DungeonSnapshot {
+    // slots per shared run
+    private static final int CHUNK = 32;
+
+    private final Map<String, Object> header;
+    private final String goalCondition;
+    private final List<List<Record>> slotChunks;
+    private final int slotCount;
+    private final int entityCount;
+    private final List<Map<String, Object>> items;
+
+    private DungeonSnapshot(Map<String, Object> header, String goalCondition, List<List<Record>> slotChunks, int slotCount,
+            int entityCount, List<Map<String, Object>> items) {
+        this.header = header;
+        this.goalCondition = goalCondition;
+        this.slotChunks = slotChunks;
+        this.slotCount = slotCount;
+        this.entityCount = entityCount;
+        this.items = items;
+    }
+
+    /**
+     * @return int number of entities on the map
+     */
+    public int getEntityCount() {
+        return entityCount;
+    }
+
+    /**
+     * @return int number of slots, including those left empty by removed entities
+     */
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    /**
+     * @return DungeonLoader.Header the dungeon's own values and goal condition, as loadGame reads them from a save
+     */
+    public DungeonLoader.Header getHeader() {
+        return new DungeonLoader.Header(JsonFields.of(header), new JSONObject(goalCondition));
+    }
+
+    /**
+     * make every entity and inventory item of the snapshot in the dungeon, entities in slot order
+     * @param dungeon the dungeon to add them to, with its goals already set
+     * @param placed told each entity made and the slot it was made from
+     */
+    public void build(Dungeon dungeon, ObjIntConsumer<Entity> placed) {
+        for (int slot = 0; slot < slotCount; slot++) {
+            Record record = record(slot);
+            if (record != null) {
+                Entity entity = DungeonLoader.makeEntity(dungeon, JsonFields.of(record.values));
+                if (entity != null) {
+                    placed.accept(entity, slot);
+                }
+            }
+        }
+        for (Map<String, Object> item : items) {
+            DungeonLoader.makeItem(dungeon, JsonFields.of(item));
+        }
+    }
+
+    /**
+     * @param other
+     * @return int number of entities whose values this snapshot shares with other rather than holding its own
+     */
+    public int sharedEntities(DungeonSnapshot other) {
+        int shared = 0;
+        for (int slot = 0; slot < slotCount && slot < other.slotCount; slot++) {
+            if (record(slot) != null && record(slot) == other.record(slot)) {
+                shared++;
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * @param other
+     * @return boolean true if this snapshot holds other's inventory rather than its own
+     */
+    public boolean sharesItems(DungeonSnapshot other) {
+        return items == other.items;
+    }
+
+    /**
+     * @param slot
+     * @return Record null if the slot is empty
+     */
+    private Record record(int slot) {
+        return slotChunks.get(slot / CHUNK).get(slot % CHUNK);
+    }
+
+    /**
+     * One entity's values.
+     */
+    private static final class Record {
+        private final Map<String, Object> values;
+
+        private Record(Map<String, Object> values) {
+            this.values = Collections.unmodifiableMap(values);
+        }
+    }
+
+    /**
+     * Builds a snapshot as the previous one changed slot by slot. Runs of slots are copied from the previous
+     * snapshot only when something in them changes.
+     */
+    public static final class Builder {
+        private final DungeonSnapshot previous;
+        private final List<List<Record>> chunks;
+        // the runs this snapshot has its own copy of
+        private final Set<Integer> copied = new HashSet<Integer>();
+        private int slotCount;
+        private int entityCount;
+        private List<Map<String, Object>> items;
+
+        /**
+         * @param previous null to start with no entities
+         */
+        public Builder(DungeonSnapshot previous) {
+            this.previous = previous;
+            if (previous == null) {
+                chunks = new ArrayList<List<Record>>();
+            } else {
+                chunks = new ArrayList<List<Record>>(previous.slotChunks);
+                slotCount = previous.slotCount;
+                entityCount = previous.entityCount;
+            }
+        }
+
+        /**
+         * give an entity already in the snapshot its current values
+         * @param slot
+         * @param entity "type", "x", "y", "entityId" and the entity's saved state
+         */
+        public void set(int slot, Map<String, Object> entity) {
+            List<Record> chunk = chunks.get(slot / CHUNK);
+            Record old = chunk.get(slot % CHUNK);
+            // changed entities often end up as they were, such as an enemy that could not move
+            if (old != null && entity.equals(old.values)) {
+                return;
+            }
+            if (old == null) {
+                entityCount++;
+            }
+            ownChunk(slot / CHUNK).set(slot % CHUNK, new Record(entity));
+        }
+
+        /**
+         * empty the slot of an entity that was removed
+         * @param slot
+         */
+        public void remove(int slot) {
+            if (chunks.get(slot / CHUNK).get(slot % CHUNK) != null) {
+                ownChunk(slot / CHUNK).set(slot % CHUNK, null);
+                entityCount--;
+            }
+        }
+
+        /**
+         * put a new entity in the slot after the last
+         * @param entity "type", "x", "y", "entityId" and the entity's saved state
+         * @return int the entity's slot
+         */
+        public int add(Map<String, Object> entity) {
+            int slot = slotCount++;
+            if (slot % CHUNK == 0) {
+                chunks.add(new ArrayList<Record>(CHUNK));
+                copied.add(slot / CHUNK);
+            }
+            ownChunk(slot / CHUNK).add(new Record(entity));
+            entityCount++;
+            return slot;
+        }
+
+        /**
+         * keep the previous snapshot's inventory, for when it has not changed since
+         */
+        public void reuseItems() {
+            items = previous.items;
+        }
+
+        /**
+         * @param item "type", "entityId" and the item's saved state
+         */
+        public void addItem(Map<String, Object> item) {
+            if (items == null) {
+                items = new ArrayList<Map<String, Object>>();
+            }
+            items.add(Collections.unmodifiableMap(item));
+        }
+
+        /**
+         * @param header the dungeon's own values, such as its name, game mode and counter
+         * @param goalCondition
+         * @return DungeonSnapshot
+         */
+        public DungeonSnapshot build(Map<String, Object> header, JSONObject goalCondition) {
+            for (int index : copied) {
+                chunks.set(index, Collections.unmodifiableList(chunks.get(index)));
+            }
+            String goal = goalCondition.toString();
+            if (previous != null && previous.goalCondition.equals(goal)) {
+                goal = previous.goalCondition;
+            }
+            List<Map<String, Object>> builtItems = items;
+            if (builtItems == null) {
+                builtItems = Collections.emptyList();
+            } else if (previous == null || builtItems != previous.items) {
+                builtItems = Collections.unmodifiableList(builtItems);
+            }
+            return new DungeonSnapshot(Collections.unmodifiableMap(header), goal, Collections.unmodifiableList(chunks),
+                slotCount, entityCount, builtItems);
+        }
+
+        /**
+         * @param index
+         * @return List<Record> the run at index, copied first if it is still the previous snapshot's
+         */
+        private List<Record> ownChunk(int index) {
+            if (copied.add(index)) {
+                chunks.set(index, new ArrayList<Record>(chunks.get(index)));
+            }
+            return chunks.get(index);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package dungeonmania.loader;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.json.JSONObject;
+
+import dungeonmania.Dungeon;
+
+/**
+ * A dungeon file read once, from which fresh games are made without reading or parsing the file again.
+ * Nothing in it changes after it is read, so one template can make games on many threads at once.
+ */
+public final class DungeonTemplate {
+    // kept as text, handing out the JSONObject itself would let a caller change every later game's goals
+    private final String goalCondition;
+    private final List<JsonFields> entities;
+    private final List<JsonFields> items;
+
+    /**
+     * @param goalCondition
+     * @param entities the values of each entity, not changed afterwards
+     * @param items the values of each inventory item, not changed afterwards
+     */
+    DungeonTemplate(JSONObject goalCondition, List<JsonFields> entities, List<JsonFields> items) {
+        this.goalCondition = goalCondition.toString();
+        this.entities = Collections.unmodifiableList(new ArrayList<JsonFields>(entities));
+        this.items = Collections.unmodifiableList(new ArrayList<JsonFields>(items));
+    }
+
+    /**
+     * @return JSONObject a fresh copy of the goal condition
+     */
+    public JSONObject getGoalCondition() {
+        return new JSONObject(goalCondition);
+    }
+
+    /**
+     * @return int number of entities, inventory items included
+     */
+    public int size() {
+        return entities.size() + items.size();
+    }
+
+    /**
+     * make every entity and inventory item of the template in the dungeon
+     * @param dungeon the dungeon to add them to, with its goals already set
+     * @throws IllegalArgumentException if an entity is missing a field it needs
+     */
+    public void build(Dungeon dungeon) throws IllegalArgumentException {
+        for (JsonFields fields : entities) {
+            DungeonLoader.makeEntity(dungeon, fields);
+        }
+        for (JsonFields fields : items) {
+            DungeonLoader.makeItem(dungeon, fields);
+        }
+    }
+}
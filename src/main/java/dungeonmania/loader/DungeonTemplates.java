@@ -0,0 +1,89 @@
+package dungeonmania.loader;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import dungeonmania.util.FileLoader;
+
+/**
+ * The dungeons in the resources, each read the first time it is played and kept,
+ * since the resources cannot change while the game runs.
+ */
+public final class DungeonTemplates {
+    private static final Map<String, DungeonTemplate> TEMPLATES = new ConcurrentHashMap<String, DungeonTemplate>();
+    private static volatile List<String> names;
+
+    private DungeonTemplates() {
+    }
+
+    /**
+     * @return List<String> the name of every dungeon in the resources, listed once
+     */
+    public static List<String> names() {
+        List<String> listed = names;
+        if (listed == null) {
+            try {
+                listed = Collections.unmodifiableList(new ArrayList<String>(FileLoader.listFileNamesInResourceDirectory("/dungeons")));
+            } catch (IOException e) {
+                // not kept, the next call tries again
+                return Collections.emptyList();
+            }
+            names = listed;
+        }
+        return listed;
+    }
+
+    /**
+     * @param dungeonName
+     * @return DungeonTemplate
+     * @throws IllegalArgumentException if there is no such dungeon or it cannot be read
+     */
+    public static DungeonTemplate get(String dungeonName) throws IllegalArgumentException {
+        DungeonTemplate template = TEMPLATES.get(dungeonName);
+        if (template != null) {
+            return template;
+        }
+        if (!names().contains(dungeonName)) {
+            throw new IllegalArgumentException("Invalid dungeonName");
+        }
+        // two threads may both read a dungeon the first time, they make the same template
+        template = read(dungeonName);
+        DungeonTemplate raced = TEMPLATES.putIfAbsent(dungeonName, template);
+        return raced == null ? template : raced;
+    }
+
+    /**
+     * read every dungeon in parallel, so no game pays for reading its dungeon
+     * @return int number of templates read
+     */
+    public static int preload() {
+        names().parallelStream().forEach(dungeonName -> {
+            try {
+                get(dungeonName);
+            } catch (IllegalArgumentException e) {
+                // left for newGame to report when someone plays it
+                System.out.println(dungeonName + ": " + e.getMessage());
+            }
+        });
+        return TEMPLATES.size();
+    }
+
+    /**
+     * @param dungeonName
+     * @return DungeonTemplate
+     * @throws IllegalArgumentException
+     */
+    private static DungeonTemplate read(String dungeonName) throws IllegalArgumentException {
+        try {
+            String fileContents = FileLoader.loadResourceFile("/dungeons/" + dungeonName + ".json");
+            return DungeonLoader.readTemplate(new StringReader(fileContents));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid dungeon json", e);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package dungeonmania.loader;
+
+import dungeonmania.Dungeon;
+import dungeonmania.Entity;
+import dungeonmania.util.Position;
+
+/**
+ * Makes an entity of one type from its json fields and adds it to the dungeon.
+ */
+public interface EntityFactory {
+    /**
+     * @param position
+     * @param dungeon
+     * @param fields everything in the entity's json, the extra state of a saved game included
+     * @return Entity
+     */
+    public Entity create(Position position, Dungeon dungeon, JsonFields fields);
+}
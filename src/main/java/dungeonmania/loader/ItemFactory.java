@@ -0,0 +1,16 @@
+package dungeonmania.loader;
+
+import dungeonmania.Dungeon;
+import dungeonmania.items.Item;
+
+/**
+ * Makes an inventory item of one type from its json fields, ready to move into the inventory.
+ */
+public interface ItemFactory {
+    /**
+     * @param dungeon
+     * @param fields
+     * @return Item
+     */
+    public Item create(Dungeon dungeon, JsonFields fields);
+}
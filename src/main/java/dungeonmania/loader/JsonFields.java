@@ -0,0 +1,110 @@
+package dungeonmania.loader;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The plain values of one json object, read off the stream as text and converted on demand.
+ * Nested objects and arrays are not kept.
+ */
+public class JsonFields {
+    private Map<String, String> values = new HashMap<String, String>();
+
+    /**
+     * @param name
+     * @param value
+     */
+    void put(String name, String value) {
+        values.put(name, value);
+    }
+
+    /**
+     * forget every value, so the same instance can hold the next object
+     */
+    void clear() {
+        values.clear();
+    }
+
+    /**
+     * @param values numbers, strings and booleans, as a save writes them
+     * @return JsonFields
+     */
+    static JsonFields of(Map<String, Object> values) {
+        JsonFields fields = new JsonFields();
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            fields.put(entry.getKey(), String.valueOf(entry.getValue()));
+        }
+        return fields;
+    }
+
+    /**
+     * @return JsonFields a copy that keeps these values when this instance moves on to the next object
+     */
+    JsonFields copy() {
+        JsonFields copy = new JsonFields();
+        copy.values.putAll(values);
+        return copy;
+    }
+
+    /**
+     * @param name
+     * @return boolean
+     */
+    public boolean has(String name) {
+        return values.containsKey(name);
+    }
+
+    /**
+     * @param name
+     * @return String
+     * @throws IllegalArgumentException if there is no such value
+     */
+    public String getString(String name) throws IllegalArgumentException {
+        String value = values.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing \"" + name + "\"");
+        }
+        return value;
+    }
+
+    /**
+     * @param name
+     * @return int a fractional number is truncated
+     * @throws IllegalArgumentException if there is no such value or it is not a number
+     */
+    public int getInt(String name) throws IllegalArgumentException {
+        String value = getString(name);
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return (int) getDouble(name);
+        }
+    }
+
+    /**
+     * @param name
+     * @return long
+     * @throws IllegalArgumentException if there is no such value or it is not a whole number
+     */
+    public long getLong(String name) throws IllegalArgumentException {
+        return Long.parseLong(getString(name));
+    }
+
+    /**
+     * @param name
+     * @return double
+     * @throws IllegalArgumentException if there is no such value or it is not a number
+     */
+    public double getDouble(String name) throws IllegalArgumentException {
+        return Double.parseDouble(getString(name));
+    }
+
+    /**
+     * @param name
+     * @return boolean
+     * @throws IllegalArgumentException if there is no such value
+     */
+    public boolean getBoolean(String name) throws IllegalArgumentException {
+        return Boolean.parseBoolean(getString(name));
+    }
+}
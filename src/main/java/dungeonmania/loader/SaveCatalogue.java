@@ -0,0 +1,335 @@
+package dungeonmania.loader;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * What is in saveFiles and its subdirectories, kept in memory so listing and finding saves does not touch the disk.
+ * It is filled by one walk of the directory and then kept current by a WatchService watching every directory
+ * in it, and straight away by whoever writes or deletes a save in this process through refresh.
+ * A save in a subdirectory is known by its file name alone, as allGames always listed it.
+ */
+public final class SaveCatalogue {
+    private final Path saveDirectory;
+    // keyed by path within saveDirectory, so a save in both formats has two entries
+    private final Map<Path, Entry> entries = new ConcurrentHashMap<Path, Entry>();
+    // null if the directory cannot be watched
+    private WatchService watcher;
+    // the directory each registration watches
+    private final Map<WatchKey, Path> watched = new ConcurrentHashMap<WatchKey, Path>();
+
+    /**
+     * One save file.
+     */
+    public static final class Entry {
+        private final String name;
+        private final Path path;
+        private final SaveFormat format;
+        private final long size;
+        private final long modified;
+        // read from the file the first time it is asked for
+        private volatile String dungeonName;
+
+        private Entry(String name, Path path, SaveFormat format, long size, long modified) {
+            this.name = name;
+            this.path = path;
+            this.format = format;
+            this.size = size;
+            this.modified = modified;
+        }
+
+        /**
+         * @return String the save name, without extension
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return Path
+         */
+        public Path getPath() {
+            return path;
+        }
+
+        /**
+         * @return SaveFormat by extension, loading still checks the file itself
+         */
+        public SaveFormat getFormat() {
+            return format;
+        }
+
+        /**
+         * @return long bytes
+         */
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * @return long milliseconds since the epoch
+         */
+        public long getModified() {
+            return modified;
+        }
+
+        /**
+         * @return String the saved dungeon's name, null if the file cannot be read
+         */
+        public String getDungeonName() {
+            if (dungeonName == null) {
+                dungeonName = readDungeonName(path);
+            }
+            return dungeonName;
+        }
+    }
+
+    private SaveCatalogue(Path saveDirectory) {
+        this.saveDirectory = saveDirectory;
+    }
+
+    /**
+     * index the directory and start watching it
+     * @param saveDirectory created if it is missing
+     * @return SaveCatalogue
+     */
+    public static SaveCatalogue open(Path saveDirectory) {
+        SaveCatalogue catalogue = new SaveCatalogue(saveDirectory);
+        try {
+            Files.createDirectories(saveDirectory);
+            WatchService watcher = saveDirectory.getFileSystem().newWatchService();
+            catalogue.watcher = watcher;
+            Thread thread = new Thread(() -> catalogue.watch(watcher), "save-catalogue");
+            thread.setDaemon(true);
+            thread.start();
+        } catch (IOException | UnsupportedOperationException e) {
+            // without a watcher only this process's own saves and lookups keep it current
+            System.out.println(e.toString());
+        }
+        // registers each directory as it comes to it
+        catalogue.rescan();
+        return catalogue;
+    }
+
+    /**
+     * @return List<String> the name of every save, once even if it is saved in both formats
+     */
+    public List<String> names() {
+        Set<String> names = new LinkedHashSet<String>();
+        for (Entry entry : entries.values()) {
+            names.add(entry.getName());
+        }
+        return new ArrayList<String>(names);
+    }
+
+    /**
+     * @param name
+     * @return Entry the save with that name, the newest one if it was saved in more than one format, null if there is none.
+     * A save directly in saveFiles comes before one of the same name in a subdirectory
+     */
+    public Entry find(String name) {
+        Entry newest = newestAtTop(name);
+        if (newest == null) {
+            // a save made outside this process that the watcher has not told us about yet
+            for (SaveFormat format : SaveFormat.values()) {
+                refresh(saveDirectory.resolve(name + format.getExtension()));
+            }
+            newest = newestAtTop(name);
+        }
+        if (newest == null) {
+            for (Entry entry : entries.values()) {
+                if (entry.getName().equals(name) && (newest == null || entry.getModified() > newest.getModified())) {
+                    newest = entry;
+                }
+            }
+        }
+        return newest;
+    }
+
+    /**
+     * bring the entry for one file up to date with the disk, adding or dropping it as needed
+     * @param file in saveDirectory or one of its subdirectories
+     */
+    public void refresh(Path file) {
+        Path key = saveDirectory.relativize(file);
+        Entry entry = readEntry(file);
+        if (entry == null) {
+            entries.remove(key);
+        } else {
+            entries.put(key, entry);
+        }
+    }
+
+    /**
+     * build every entry again from a walk of the directory
+     */
+    public void rescan() {
+        Set<Path> seen = new LinkedHashSet<Path>();
+        if (!scan(saveDirectory, seen)) {
+            return;
+        }
+        entries.keySet().retainAll(seen);
+    }
+
+    /**
+     * add every save in a directory and its subdirectories, watching each directory before listing it
+     * so nothing written in between is missed
+     * @param directory
+     * @param seen given the key of every save found
+     * @return boolean false if the directory could not be walked
+     */
+    private boolean scan(Path directory, Set<Path> seen) {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.forEach(file -> {
+                if (Files.isDirectory(file)) {
+                    register(file);
+                    return;
+                }
+                Entry entry = readEntry(file);
+                if (entry != null) {
+                    Path key = saveDirectory.relativize(file);
+                    entries.put(key, entry);
+                    seen.add(key);
+                }
+            });
+            return true;
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println(e.toString());
+            return false;
+        }
+    }
+
+    /**
+     * @param directory
+     */
+    private void register(Path directory) {
+        if (watcher == null || watched.containsValue(directory)) {
+            return;
+        }
+        try {
+            WatchKey key = directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+            watched.put(key, directory);
+        } catch (IOException | ClosedWatchServiceException e) {
+            // saves in it are still found by the next rescan
+            System.out.println(e.toString());
+        }
+    }
+
+    /**
+     * @param name
+     * @return Entry the newest save of that name directly in saveDirectory
+     */
+    private Entry newestAtTop(String name) {
+        Entry newest = null;
+        for (SaveFormat format : SaveFormat.values()) {
+            Entry entry = entries.get(saveDirectory.getFileSystem().getPath(name + format.getExtension()));
+            if (entry != null && (newest == null || entry.getModified() > newest.getModified())) {
+                newest = entry;
+            }
+        }
+        return newest;
+    }
+
+    /**
+     * @param watcher
+     */
+    private void watch(WatchService watcher) {
+        try {
+            while (true) {
+                WatchKey key = watcher.take();
+                Path directory = watched.get(key);
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW || directory == null) {
+                        // events were dropped, so nothing short of a fresh listing can be trusted
+                        rescan();
+                        continue;
+                    }
+                    Path file = directory.resolve((Path) event.context());
+                    if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(file)) {
+                        // a new subdirectory, which may already hold saves
+                        scan(file, new LinkedHashSet<Path>());
+                    } else {
+                        refresh(file);
+                    }
+                }
+                if (!key.reset() && directory != null) {
+                    watched.remove(key);
+                    if (directory.equals(saveDirectory)) {
+                        // the directory itself went away
+                        entries.clear();
+                        return;
+                    }
+                    // a subdirectory went away with whatever was still in it
+                    Path gone = saveDirectory.relativize(directory);
+                    entries.keySet().removeIf(path -> path.startsWith(gone));
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            return;
+        }
+    }
+
+    /**
+     * @param file
+     * @return Entry null if the file is not a save
+     */
+    private static Entry readEntry(Path file) {
+        String fileName = file.getFileName().toString();
+        // hidden files are saves still being written
+        if (fileName.startsWith(".")) {
+            return null;
+        }
+        for (SaveFormat format : SaveFormat.values()) {
+            if (fileName.endsWith(format.getExtension())) {
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    if (!attributes.isRegularFile()) {
+                        return null;
+                    }
+                    String name = fileName.substring(0, fileName.length() - format.getExtension().length());
+                    return new Entry(name, file, format, attributes.size(), attributes.lastModifiedTime().toMillis());
+                } catch (IOException e) {
+                    // deleted before it could be looked at
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param file
+     * @return String
+     */
+    private static String readDungeonName(Path file) {
+        try {
+            if (SaveFormat.detect(file) == SaveFormat.BINARY) {
+                try (BinarySaveReader reader = new BinarySaveReader(Files.newInputStream(file))) {
+                    return reader.readHeader().getFields().getString("dungeonName");
+                }
+            }
+            try (Reader reader = Files.newBufferedReader(file)) {
+                return DungeonLoader.readHeader(reader).getFields().getString("dungeonName");
+            }
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+}
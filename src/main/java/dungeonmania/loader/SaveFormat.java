@@ -0,0 +1,54 @@
+package dungeonmania.loader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * How a game is written to saveFiles. Loading tells them apart by their first bytes, not by the file name.
+ */
+public enum SaveFormat {
+    JSON(".json"),
+    BINARY(".dmsave");
+
+    private final String extension;
+
+    private SaveFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * @return String file extension, dot included
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * @param name
+     * @return SaveFormat
+     * @throws IllegalArgumentException if there is no such format
+     */
+    public static SaveFormat fromName(String name) throws IllegalArgumentException {
+        return valueOf(name.toUpperCase());
+    }
+
+    /**
+     * @param file
+     * @return SaveFormat the format the file is written in
+     * @throws IOException
+     */
+    public static SaveFormat detect(Path file) throws IOException {
+        byte[] start = new byte[BinarySaveFormat.MAGIC.length];
+        int read;
+        try (InputStream in = Files.newInputStream(file)) {
+            read = in.readNBytes(start, 0, start.length);
+        }
+        if (read == start.length && Arrays.equals(start, BinarySaveFormat.MAGIC)) {
+            return BINARY;
+        }
+        return JSON;
+    }
+}
@@ -0,0 +1,176 @@
+package dungeonmania.loader;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import dungeonmania.response.models.SaveStatusResponse;
+
+/**
+ * Writes saves on background threads, so the game that asked can keep ticking while its save goes to disk.
+ * Each name is always written by the same one of a few writers, so saves of a name are written in the order
+ * they were asked for while a save of one name does not wait behind every other name's.
+ * When a name is saved again before its last save was written, only the newest one is written.
+ * The statuses of the most recent saves are kept, older ones are reported from the files they wrote.
+ */
+public final class SaveQueue {
+    public static final String QUEUED = "queued";
+    public static final String WRITING = "writing";
+    public static final String SAVED = "saved";
+    public static final String FAILED = "failed";
+
+    private static final int WRITERS = 4;
+    // statuses kept for names no longer being written, beyond these the least recently used are forgotten
+    private static final int STATUSES_KEPT = 256;
+
+    private final Path saveDirectory;
+    private final SaveCatalogue catalogue;
+    private final ExecutorService[] writers = new ExecutorService[WRITERS];
+    // guarded by this, the newest snapshot of each name that is still to be written
+    private final Map<String, SaveSnapshot> pending = new HashMap<String, SaveSnapshot>();
+    // the write of each name in pending, removed with it
+    private final Map<String, Future<?>> writes = new HashMap<String, Future<?>>();
+    // least recently used first
+    private final Map<String, SaveStatusResponse> statuses = new LinkedHashMap<String, SaveStatusResponse>(16, 0.75f, true);
+
+    /**
+     * @param saveDirectory
+     * @param catalogue told about every save as soon as it is written
+     */
+    public SaveQueue(Path saveDirectory, SaveCatalogue catalogue) {
+        this.saveDirectory = saveDirectory;
+        this.catalogue = catalogue;
+        for (int i = 0; i < WRITERS; i++) {
+            String threadName = "save-writer-" + i;
+            writers[i] = Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, threadName);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        // finish what was asked for before the process goes away
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            for (ExecutorService writer : writers) {
+                writer.shutdown();
+            }
+            try {
+                for (ExecutorService writer : writers) {
+                    writer.awaitTermination(10, TimeUnit.SECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+    }
+
+    /**
+     * queue a snapshot to be written, returning straight away
+     * @param snapshot
+     */
+    public synchronized void submit(SaveSnapshot snapshot) {
+        String name = snapshot.getName();
+        pending.put(name, snapshot);
+        statuses.put(name, new SaveStatusResponse(name, QUEUED, -1, null));
+        writes.put(name, writers[Math.floorMod(name.hashCode(), WRITERS)].submit(() -> write(snapshot)));
+    }
+
+    /**
+     * wait until the last save queued under this name is on disk or has failed
+     * @param name
+     */
+    public void await(String name) {
+        Future<?> write;
+        synchronized (this) {
+            write = writes.get(name);
+        }
+        if (write == null) {
+            return;
+        }
+        try {
+            write.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // write() records its own failures, this is only a bug in it
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * @param name
+     * @return SaveStatusResponse the state of the last save queued under this name, null if there has not been one
+     */
+    public synchronized SaveStatusResponse status(String name) {
+        return statuses.get(name);
+    }
+
+    /**
+     * @return int number of names whose last save is queued or being written
+     */
+    public synchronized int writesInFlight() {
+        return writes.size();
+    }
+
+    /**
+     * @return List<String> names queued but not written yet
+     */
+    public synchronized List<String> pendingNames() {
+        return new ArrayList<String>(pending.keySet());
+    }
+
+    /**
+     * @param snapshot
+     */
+    private void write(SaveSnapshot snapshot) {
+        String name = snapshot.getName();
+        synchronized (this) {
+            if (pending.get(name) != snapshot) {
+                // a newer save of this name is queued behind this one
+                return;
+            }
+            statuses.put(name, new SaveStatusResponse(name, WRITING, -1, null));
+        }
+
+        SaveStatusResponse result;
+        try {
+            result = new SaveStatusResponse(name, SAVED, snapshot.writeTo(saveDirectory), null);
+        } catch (IOException e) {
+            result = new SaveStatusResponse(name, FAILED, -1, e.toString());
+        }
+        // the new file and the other format's file it replaced, without waiting for the watcher
+        for (SaveFormat format : SaveFormat.values()) {
+            catalogue.refresh(saveDirectory.resolve(name + format.getExtension()));
+        }
+
+        synchronized (this) {
+            // if the name was saved again while this was writing, that newer save's status stands
+            if (pending.remove(name, snapshot)) {
+                writes.remove(name);
+                statuses.put(name, result);
+                forgetOldStatuses();
+            }
+        }
+    }
+
+    /**
+     * drop the least recently used statuses of names that are no longer being written, down to STATUSES_KEPT
+     */
+    private void forgetOldStatuses() {
+        Iterator<String> names = statuses.keySet().iterator();
+        while (statuses.size() > STATUSES_KEPT && names.hasNext()) {
+            if (!pending.containsKey(names.next())) {
+                names.remove();
+            }
+        }
+    }
+}
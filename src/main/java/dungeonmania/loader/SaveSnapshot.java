@@ -0,0 +1,158 @@
+package dungeonmania.loader;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Everything a save needs, copied out of a dungeon so it can be written while the game plays on.
+ * The copies only hold numbers, strings and booleans, so nothing in here changes after it is made.
+ */
+public final class SaveSnapshot {
+    private final String name;
+    private final SaveFormat format;
+    private final Map<String, Object> header;
+    private final String goalCondition;
+    private final List<Map<String, Object>> entities;
+    private final List<Map<String, Object>> items;
+
+    /**
+     * @param name
+     * @param format
+     * @param header the dungeon's own values, such as its name, game mode and counter
+     * @param goalCondition
+     * @param entities the saved values of every entity on the map
+     * @param items the saved values of every inventory item
+     */
+    public SaveSnapshot(String name, SaveFormat format, Map<String, Object> header, JSONObject goalCondition, List<Map<String, Object>> entities, List<Map<String, Object>> items) {
+        this.name = name;
+        this.format = format;
+        this.header = Collections.unmodifiableMap(new HashMap<String, Object>(header));
+        // kept as text, a JSONObject could still be changed by whoever made it
+        this.goalCondition = goalCondition.toString();
+        this.entities = Collections.unmodifiableList(new ArrayList<Map<String, Object>>(entities));
+        this.items = Collections.unmodifiableList(new ArrayList<Map<String, Object>>(items));
+    }
+
+    /**
+     * @return String
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return SaveFormat
+     */
+    public SaveFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * write the save into the directory under a temporary name, flush it to disk and then rename it over the old save,
+     * so a crash part way through leaves either the old save or the new one, never half of one.
+     * A save of the same name in the other format is removed.
+     * @param saveDirectory
+     * @return long size of the save in bytes
+     * @throws IOException
+     */
+    public long writeTo(Path saveDirectory) throws IOException {
+        Files.createDirectories(saveDirectory);
+        Path savePath = saveDirectory.resolve(name + format.getExtension());
+        // hidden, so allGames does not list it while it is being written
+        Path partPath = saveDirectory.resolve("." + name + format.getExtension() + ".part");
+
+        try (FileChannel channel = FileChannel.open(partPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeTo(Channels.newOutputStream(channel));
+            channel.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(partPath);
+            throw e;
+        }
+
+        try {
+            Files.move(partPath, savePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(partPath, savePath, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        for (SaveFormat other : SaveFormat.values()) {
+            if (other != format) {
+                Files.deleteIfExists(saveDirectory.resolve(name + other.getExtension()));
+            }
+        }
+        return Files.size(savePath);
+    }
+
+    /**
+     * write the save in its format, such as into memory rather than a file
+     * @param out left open
+     * @throws IOException
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        if (format == SaveFormat.BINARY) {
+            writeBinary(out);
+        } else {
+            writeJson(out);
+        }
+    }
+
+    /**
+     * @param out left open, the caller still has to force it to disk
+     * @throws IOException
+     */
+    private void writeBinary(OutputStream out) throws IOException {
+        BinarySaveWriter writer = new BinarySaveWriter(out);
+        writer.writeHeader(header, new JSONObject(goalCondition));
+        writer.beginEntities(entities.size());
+        for (Map<String, Object> entity : entities) {
+            writer.writeEntity(entity);
+        }
+        writer.beginItems(items.size());
+        for (Map<String, Object> item : items) {
+            writer.writeItem(item);
+        }
+        writer.flush();
+    }
+
+    /**
+     * @param out left open, the caller still has to force it to disk
+     * @throws IOException
+     */
+    private void writeJson(OutputStream out) throws IOException {
+        JSONArray entitiesJSON = new JSONArray();
+        for (Map<String, Object> entity : entities) {
+            entitiesJSON.put(new JSONObject(entity));
+        }
+        JSONArray itemsJSON = new JSONArray();
+        for (Map<String, Object> item : items) {
+            itemsJSON.put(new JSONObject(item));
+        }
+        Map<String, Object> dungeonMap = new HashMap<String, Object>(header);
+        dungeonMap.put("entities", entitiesJSON);
+        dungeonMap.put("items", itemsJSON);
+        dungeonMap.put("goal-condition", new JSONObject(goalCondition));
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(new JSONObject(dungeonMap).toString());
+        writer.flush();
+    }
+}
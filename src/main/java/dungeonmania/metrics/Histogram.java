@@ -0,0 +1,102 @@
+package dungeonmania.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import dungeonmania.response.models.HistogramResponse;
+
+/**
+ * A fixed size histogram of non-negative longs that many threads can record into without locking.
+ * Every count is a LongAdder, so threads recording at once spread over cells of their own rather than all
+ * retrying on the same word, and reading sums the cells.
+ * Values are kept in buckets of four per power of two, so a percentile is never more than 25% above the true value.
+ */
+public class Histogram {
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = 64 * SUB_BUCKETS;
+
+    private final LongAdder[] counts = new LongAdder[BUCKETS];
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+
+    public Histogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @param value negative values are counted as 0
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts[bucketOf(value)].increment();
+        total.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * @return HistogramResponse count, mean, p50, p99 and max of everything recorded so far
+     */
+    public HistogramResponse summary() {
+        long[] snapshot = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts[i].sum();
+            count += snapshot[i];
+        }
+        if (count == 0) {
+            return new HistogramResponse(0, 0, 0, 0, 0);
+        }
+        long largest = max.get();
+        return new HistogramResponse(count, (double) total.sum() / count,
+            Math.min(percentile(snapshot, count, 0.5), largest), Math.min(percentile(snapshot, count, 0.99), largest), largest);
+    }
+
+    /**
+     * @param snapshot bucket counts
+     * @param count sum of the bucket counts
+     * @param fraction
+     * @return long upper bound of the bucket holding that fraction of the values
+     */
+    private static long percentile(long[] snapshot, long count, double fraction) {
+        long rank = (long) Math.ceil(fraction * count);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return upperBoundOf(i);
+            }
+        }
+        return upperBoundOf(BUCKETS - 1);
+    }
+
+    /**
+     * @param value
+     * @return int values below 4 get a bucket each, after that every power of two is split in four
+     */
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * @param bucket
+     * @return long the largest value that falls in the bucket
+     */
+    static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,108 @@
+package dungeonmania.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import dungeonmania.response.models.HistogramResponse;
+import dungeonmania.response.models.TickMetricsResponse;
+
+/**
+ * Where tick time goes, summed over every game in this process.
+ * Recording a phase costs a System.nanoTime call and a few adds to histograms every game thread shares.
+ * The histograms stripe their counts so threads do not queue on them, but a controller running batches of
+ * games, such as a simulation, can still leave its ticks out with DungeonManiaController.setMetrics.
+ */
+public final class TickMetrics {
+    public enum Phase {
+        ITEM_USE,
+        SPAWNING,
+        ENEMY_MOVEMENT,
+        PLAYER_MOVE,
+        STATIC_UPDATE,
+        BOMB_EXPLOSION,
+        HISTORY,
+        RESPONSE
+    }
+
+    private static final Map<Phase, Histogram> PHASES = new EnumMap<Phase, Histogram>(Phase.class);
+    private static final Histogram TICKS = new Histogram();
+    private static final Histogram ALLOCATIONS = new Histogram();
+    private static final com.sun.management.ThreadMXBean ALLOCATION_COUNTER = allocationCounter();
+    // one in this many ticks has its allocations measured
+    private static final int ALLOCATION_SAMPLE_RATE = 16;
+
+    static {
+        for (Phase phase : Phase.values()) {
+            PHASES.put(phase, new Histogram());
+        }
+    }
+
+    private TickMetrics() {
+    }
+
+    /**
+     * record the time since the end of the previous phase
+     * @param phase
+     * @param since System.nanoTime() when the phase started
+     * @return long System.nanoTime() now, where the next phase starts
+     */
+    public static long record(Phase phase, long since) {
+        long now = System.nanoTime();
+        PHASES.get(phase).record(now - since);
+        return now;
+    }
+
+    /**
+     * record a whole tick
+     * @param since System.nanoTime() when the tick started
+     * @param allocatedSince startAllocationSample() when the tick started
+     */
+    public static void recordTick(long since, long allocatedSince) {
+        TICKS.record(System.nanoTime() - since);
+        if (allocatedSince >= 0) {
+            ALLOCATIONS.record(ALLOCATION_COUNTER.getCurrentThreadAllocatedBytes() - allocatedSince);
+        }
+    }
+
+    /**
+     * reading the allocation counter costs about as much as a small tick, so only some ticks are measured
+     * @return long bytes allocated by this thread so far, -1 if this tick is not measured
+     */
+    public static long startAllocationSample() {
+        if (ALLOCATION_COUNTER == null || ThreadLocalRandom.current().nextInt(ALLOCATION_SAMPLE_RATE) != 0) {
+            return -1;
+        }
+        return ALLOCATION_COUNTER.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * @return TickMetricsResponse
+     */
+    public static TickMetricsResponse summary() {
+        Map<String, HistogramResponse> phases = new LinkedHashMap<String, HistogramResponse>();
+        for (Map.Entry<Phase, Histogram> entry : PHASES.entrySet()) {
+            phases.put(entry.getKey().name().toLowerCase(), entry.getValue().summary());
+        }
+        HistogramResponse allocated = ALLOCATION_COUNTER == null ? null : ALLOCATIONS.summary();
+        return new TickMetricsResponse(phases, TICKS.summary(), allocated);
+    }
+
+    /**
+     * @return the HotSpot thread bean if it can count allocated bytes, otherwise null
+     */
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) threads;
+        if (!counter.isThreadAllocatedMemorySupported() || !counter.isThreadAllocatedMemoryEnabled()) {
+            return null;
+        }
+        return counter;
+    }
+}
@@ -3,10 +3,12 @@ package dungeonmania.moving_entities;
 
 import dungeonmania.Dungeon;
 import dungeonmania.items.Armour;
+import dungeonmania.util.Direction;
 import dungeonmania.util.Position;
-import java.util.Random;
 
 public abstract class Enemy extends MovingEntity {
+    private static final Direction[] CARDINAL_DIRECTIONS = {Direction.UP, Direction.DOWN, Direction.LEFT, Direction.RIGHT};
+
     private boolean ally;
     private int armour; // indicates num uses left
 
@@ -25,6 +27,7 @@ public abstract class Enemy extends MovingEntity {
             int newHealth = getHealth() - ((other.getHealth() * other.getAttackDamage()) / 10 );
             this.setHealth(newHealth);
             this.armour = armour - 1;
+            savedStateChanged();
         } else {
             int newHealth = getHealth() - ((other.getHealth() * other.getAttackDamage()) / 5 );
             this.setHealth(newHealth);
@@ -37,10 +40,26 @@ public abstract class Enemy extends MovingEntity {
      * @return boolean
      */
     public void setArmour(int percentage) {
-        Random rand = new Random();
-        int randN = rand.nextInt(100);
+        int randN = getDungeon().getRandom().nextInt(100);
         if (randN < percentage) {
             this.armour = Armour.DURABILITY;
+            savedStateChanged();
+        }
+    }
+
+    /** 
+     * moves the enemy onto a cardinally adjacent position, does nothing if next is null
+     * @param next
+     */
+    public void stepTo(Position next) {
+        if (next == null) {
+            return;
+        }
+        for (Direction direction : CARDINAL_DIRECTIONS) {
+            if (getPosition().translateBy(direction).equals(next)) {
+                move(direction);
+                return;
+            }
         }
     }
 
@@ -58,6 +77,7 @@ public abstract class Enemy extends MovingEntity {
      */
     public void setAlly(boolean ally) {
         this.ally = ally;
+        savedStateChanged();
     }
 
     /** 
@@ -72,6 +92,7 @@ public abstract class Enemy extends MovingEntity {
      */
     public void giveArmour(int numArmour) {
         this.armour = numArmour;
+        savedStateChanged();
     }
 
     // abstract functions
@@ -2,7 +2,6 @@ package dungeonmania.moving_entities;
 
 import dungeonmania.Dungeon;
 import dungeonmania.util.Position;
-import java.util.Random;
 
 public class Hydra extends Enemy {
     public static final int ORIGINAL_HEALTH = 15;
@@ -40,8 +39,7 @@ public class Hydra extends Enemy {
      * @return boolean
      */
     public boolean attackSuccess() {
-        Random rand = new Random();
-        int randN = rand.nextInt(2);
+        int randN = getDungeon().getRandom().nextInt(2);
         if (randN == 1) {
             return true;
         }
@@ -55,8 +53,7 @@ public class Hydra extends Enemy {
      */
     @Override
     public void updatePosition() {
-        Random rand = new Random();
-        int randN = rand.nextInt();
+        int randN = getDungeon().getRandom().nextInt();
         if (randN % 4 == 0) {
             moveUp();
         } else if (randN % 4 == 1) {
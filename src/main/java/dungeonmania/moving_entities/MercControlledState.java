@@ -22,6 +22,7 @@ public class MercControlledState implements MercenaryState {
 
     public void updateState() {
         timeLeft--;
+        merc.savedStateChanged();
         if (timeLeft <= 0) {
             merc.setMercenaryState(new MercStandardState(merc, wasAlly));
         }
@@ -59,6 +60,7 @@ public class MercControlledState implements MercenaryState {
      */
     public void setTimeLeft(int timeLeft) {
         this.timeLeft = timeLeft;
+        merc.savedStateChanged();
     }
 
     /**
@@ -73,6 +75,7 @@ public class MercControlledState implements MercenaryState {
      */
     public void setWasAlly(boolean wasAlly) {
         this.wasAlly = wasAlly;
+        merc.savedStateChanged();
     }
 
 }
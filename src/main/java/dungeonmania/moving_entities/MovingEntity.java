@@ -3,13 +3,8 @@ package dungeonmania.moving_entities;
 import dungeonmania.util.Position;
 import dungeonmania.Dungeon;
 import dungeonmania.Entity;
-import dungeonmania.static_entities.Boulder;
-import dungeonmania.static_entities.Door;
-import dungeonmania.static_entities.StaticEntity;
-import dungeonmania.static_entities.SwampTile;
-import dungeonmania.static_entities.Wall;
-import dungeonmania.static_entities.ZombieToastSpawner;
 import dungeonmania.util.Direction;
+import dungeonmania.util.PathGrid;
 
 public abstract class MovingEntity extends Entity {
     private int health;
@@ -90,27 +85,19 @@ public abstract class MovingEntity extends Entity {
      */
     public boolean checkValidMove(Position pos, Direction dir) {
         // check for obstructions
-        for (Entity e : getDungeon().getEntities(pos)) {
-            // assume can't walk on top of spawner
-            if (e instanceof Wall || e instanceof ZombieToastSpawner || e instanceof Door) {
-                return false;
-            }
-            if (e instanceof Boulder) {
-                Position newPos = pos.translateBy(dir);
-                for (Entity e1 : getDungeon().getEntities(newPos)) {
-                    if (e1 instanceof Wall || e1 instanceof Boulder || e1 instanceof ZombieToastSpawner || e1 instanceof Door) {
-                        return false;
-                    }
-                }   
-            }
+        // assume can't walk on top of spawner
+        int cost = getDungeon().getCellCost(pos);
+        if (cost == PathGrid.BLOCKED) {
+            return false;
         }
-        for (Entity e : getDungeon().getEntities(getPosition())) {
-            if (e instanceof SwampTile) {
-                if (getSlowed() < ((StaticEntity)e).getMovementFactor()) {
-                    incrementSlowed();
-                    return false;
-                }
-            }
+        // a boulder can only be pushed into a free cell
+        if (cost == PathGrid.PUSHABLE && getDungeon().getCellCost(pos.translateBy(dir)) < 0) {
+            return false;
+        }
+        // swamp tiles hold the entity in place for a few ticks
+        if (getSlowed() < getDungeon().getCellCost(getPosition())) {
+            incrementSlowed();
+            return false;
         }
         setSlowed(1);
         return true;
@@ -129,7 +116,10 @@ public abstract class MovingEntity extends Entity {
      * @param health the health to set
      */
     public void setHealth(int health) {
-        this.health = health;
+        if (this.health != health) {
+            this.health = health;
+            savedStateChanged();
+        }
     }
 
     /**
@@ -151,6 +141,7 @@ public abstract class MovingEntity extends Entity {
      */
     public void incrementSlowed() {
         this.slowed++;
+        savedStateChanged();
     }
 
     public int getSlowed() {
@@ -161,7 +152,10 @@ public abstract class MovingEntity extends Entity {
      * @param slowed: Set whether the entity has been slowed
      */
     public void setSlowed(int slowed) {
-        this.slowed = slowed;
+        if (this.slowed != slowed) {
+            this.slowed = slowed;
+            savedStateChanged();
+        }
     }
 }
 
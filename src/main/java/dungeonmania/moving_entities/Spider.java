@@ -2,14 +2,11 @@ package dungeonmania.moving_entities;
 
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Collections;
 
 import dungeonmania.Dungeon;
 import dungeonmania.Entity;
 import dungeonmania.player.Player;
 import dungeonmania.static_entities.Boulder;
-import dungeonmania.static_entities.StaticEntity;
-import dungeonmania.static_entities.SwampTile;
 import dungeonmania.util.Position;
 
 public class Spider extends Enemy {
@@ -17,9 +14,6 @@ public class Spider extends Enemy {
     public static final int SPIDER_ATTACK_DAMAGE = 2;
     private static final int CLOCKWISE = 1;
 
-    private int x = getXPosition();
-    private int y = getYPosition();
-
     // The position number of a spider (0-7)
     // 0 1 2
     // 7 p 3
@@ -28,10 +22,6 @@ public class Spider extends Enemy {
     // 1 is clockwise, -1 is anticlockwise
     private int direction = CLOCKWISE;
 
-    // All possible positions and their distances from player
-    private List<Position> possiblePositions;
-    private List<Double> distanceOfPositions;
-
     // Positions
     private Position startingPosition;
     private ArrayList<Position> adjacentPositions;
@@ -50,74 +40,30 @@ public class Spider extends Enemy {
         this.setHealth(ORIGINAL_HEALTH);
         this.setAttackDamage(SPIDER_ATTACK_DAMAGE);
         this.startingPosition = startingPosition;
-        this.adjacentPositions = setPositions(position);
+        // the ring it walks is around where it started, not where it was saved
+        this.adjacentPositions = setPositions(startingPosition);
         this.positionNumber = positionNumber;
     }
 
     // spider functions
-    
-    /** 
-     * returns list of positions spider can move into
-     * @return List<Position>
-     */
-    public List<Position> getPossiblePositions() {
-        List<Position> possiblePositions = new ArrayList<Position>();
-        // Up position
-        possiblePositions.add(new Position(x, y-1));
-        // Down position
-        possiblePositions.add(new Position(x, y+1));
-        // Left position
-        possiblePositions.add(new Position(x-1, y));
-        // Right position
-        possiblePositions.add(new Position(x+1, y));
-        return possiblePositions;
-    }
-    
-    /** 
-     * returns list of distance between player and possible spider positions
-     * @return List<Double>
-     */
-    public List<Double> getDistanceOfPositions() {
-        List<Double> distanceOfPositions = new ArrayList<Double>();
-        // Loop through and add the distance of between two positions
-        for (Position possiblePosition : possiblePositions) {
-            distanceOfPositions.add(calculateDistance(possiblePosition, getDungeon().getPlayer().getPosition()));
-        }
-        return distanceOfPositions;
-    }
 
     /** 
      * update position of spider for one tick
      */
     @Override
     public void updatePosition() {
-        Entity player = getDungeon().getEntities().stream().filter(n -> n.getType().equals("player")).findFirst().orElse(null);
+        Player player = getDungeon().getPlayer();
         
         if (!checkValidMove()) {
             return;
         }
 
-        if (((Player)player).getPlayerState().getType().equals("Invincible")) {
-            this.possiblePositions = getPossiblePositions();
-            this.distanceOfPositions = getDistanceOfPositions();
-            int direction = distanceOfPositions.indexOf(Collections.max(distanceOfPositions));
-            switch(direction) {
-                case 0:
-                    moveUp();
-                    break;
-                case 1:
-                    moveDown();
-                    break;
-                case 2:
-                    moveLeft();
-                    break;
-                case 3:
-                    moveRight();
-                    break;
-            }
+        if (player.getPlayerState().getType().equals("Invincible")) {
+            stepTo(getDungeon().getFlowField().getFleeStep(getPosition()));
             this.startingPosition = getPosition();
             this.adjacentPositions = setPositions(getPosition());
             this.positionNumber = 0;
+            savedStateChanged();
             return;
         }
 
@@ -195,6 +141,7 @@ public class Spider extends Enemy {
     // Set the spider's position number
     public void setPositionNumber(int number) {
         this.positionNumber = number;
+        savedStateChanged();
     }
 
     /** 
@@ -220,19 +167,6 @@ public class Spider extends Enemy {
         return "spider";
     }
 
-    /** 
-     * returns distance between two positions, rounded to nearest whole number
-     * @param pos1
-     * @param pos2
-     * @return double
-     */
-    private static double calculateDistance(Position pos1, Position pos2) {
-        Position dirVector = Position.calculatePositionBetween(pos1, pos2);
-        double squaredDist = (dirVector.getX() * dirVector.getX()) + (dirVector.getY() * dirVector.getY());
-        // always rounds up
-        return (double) (Math.sqrt(squaredDist));
-    }
-
     /** 
      * @return startingPosition
      */
@@ -241,13 +175,10 @@ public class Spider extends Enemy {
     }
 
     public boolean checkValidMove() {
-        for (Entity e : getDungeon().getEntities(getPosition())) {
-            if (e instanceof SwampTile) {
-                if (getSlowed() < ((StaticEntity)e).getMovementFactor()) {
-                    incrementSlowed();
-                    return false;
-                }
-            }
+        // swamp tiles hold the spider in place for a few ticks
+        if (getSlowed() < getDungeon().getCellCost(getPosition())) {
+            incrementSlowed();
+            return false;
         }
         setSlowed(1);
         return true;
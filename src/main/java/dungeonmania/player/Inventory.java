@@ -1,31 +1,70 @@
 package dungeonmania.player;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import dungeonmania.Dungeon;
-import dungeonmania.Entity;
+import dungeonmania.crafting.Crafting;
+import dungeonmania.crafting.Recipe;
+import dungeonmania.crafting.Recipe.Ingredient;
+import dungeonmania.crafting.Recipes;
 import dungeonmania.exceptions.InvalidActionException;
-import dungeonmania.items.Bow;
 import dungeonmania.items.Item;
 import dungeonmania.items.Key;
-import dungeonmania.items.MidnightArmour;
-import dungeonmania.items.Sceptre;
-import dungeonmania.items.Shield;
-import dungeonmania.moving_entities.ZombieToast;
 import dungeonmania.static_entities.Door;
 
+/**
+ * The player's items, held as a multiset: every item in the order it was added, and per type a queue of
+ * the items of that type, so counting, finding and using items of a type never scans the whole inventory.
+ */
 public class Inventory {
-    private List<Item> inventory = new ArrayList<Item>();
+    // every item, in the order it was added
+    private Set<Item> inventory = new LinkedHashSet<Item>();
+    // the items of each type, in the order they were added
+    private Map<String, ArrayDeque<Item>> itemsByType = new HashMap<String, ArrayDeque<Item>>();
+    // the keys for each door key number, in the order they were added
+    private Map<Integer, ArrayDeque<Key>> keysByNumber = new HashMap<Integer, ArrayDeque<Key>>();
+    // keeps its id index in step with what is in here, null for an inventory of no dungeon
+    private Dungeon dungeon;
+    private Crafting crafting;
+    // bumped whenever an item is added, removed or changes, so a snapshot can tell whether to record the items again
+    private int version;
 
     public Inventory() {
+        this(null);
+    }
+
+    public Inventory(Dungeon dungeon) {
+        this.dungeon = dungeon;
+        this.crafting = new Crafting(Recipes.all(), this::count, dungeon);
     }
 
     // general inventory functions
 
+    /** 
+     * record that an item's own state, such as its uses left, changed
+     * @param item
+     */
+    public void itemChanged(Item item) {
+        if (inventory.contains(item)) {
+            version++;
+        }
+    }
+
+    /** 
+     * @return int changes whenever the items or their state change
+     */
+    public int getVersion() {
+        return version;
+    }
+
     public boolean containsKey() {
-        return inventory.stream().anyMatch(x -> x.getType().equals("key"));
+        return count("key") > 0;
     }
         
     /** 
@@ -33,17 +72,60 @@ public class Inventory {
      * @param item
      */
     public void add(Item item) {
-        inventory.add(item);
+        if (!inventory.add(item)) {
+            return;
+        }
+        itemsByType.computeIfAbsent(item.getType(), t -> new ArrayDeque<Item>()).addLast(item);
+        if (item instanceof Key) {
+            Key key = (Key) item;
+            keysByNumber.computeIfAbsent(key.getKey(), k -> new ArrayDeque<Key>()).addLast(key);
+        }
+        crafting.countChanged(item.getType());
+        version++;
+        if (dungeon != null) {
+            dungeon.indexId(item);
+        }
     }
 
-    // public String getItemTypeFromId(String id) {
-    //     for (Item i : inventory) {
-    //         if (i.getId().equals(id)) {
-    //             return i.getType();
-    //         }
-    //     }
-    //     throw new IllegalArgumentException("Not a valid id!");
-    // }
+    /** 
+     * takes given item out of the inventory
+     * @param item
+     */
+    private void remove(Item item) {
+        if (!inventory.remove(item)) {
+            return;
+        }
+        removeFrom(itemsByType, item.getType(), item);
+        if (item instanceof Key) {
+            removeFrom(keysByNumber, ((Key) item).getKey(), (Key) item);
+        }
+        crafting.countChanged(item.getType());
+        version++;
+        if (dungeon != null) {
+            dungeon.unindexId(item);
+        }
+    }
+
+    /** 
+     * take an item out of its queue, dropping the queue once it is empty
+     * @param <K>
+     * @param <T>
+     * @param queues
+     * @param queueKey
+     * @param item
+     */
+    private static <K, T> void removeFrom(Map<K, ArrayDeque<T>> queues, K queueKey, T item) {
+        ArrayDeque<T> queue = queues.get(queueKey);
+        // the newest item of a type is the one used, so it is nearly always at the back
+        if (queue.peekLast() == item) {
+            queue.pollLast();
+        } else {
+            queue.removeLastOccurrence(item);
+        }
+        if (queue.isEmpty()) {
+            queues.remove(queueKey);
+        }
+    }
 
     /** 
      * returns how many of the input item type is in the inventory
@@ -51,13 +133,8 @@ public class Inventory {
      * @return int
      */
     public int count(String type) {
-        int count = 0;
-        for (Item i : inventory) {
-            if (i.getType().equals(type)) {
-                count++;
-            }
-        }
-        return count;
+        ArrayDeque<Item> items = itemsByType.get(type);
+        return items == null ? 0 : items.size();
     }
     
     /** 
@@ -71,7 +148,7 @@ public class Inventory {
             item.activate(player);
             if (item.getUsesLeft() == 0) {
                 item.setUsesLeft(1);
-                inventory.remove(item);
+                remove(item);
             }
         } else {
             throw new InvalidActionException(type + " does not exist in inventory");
@@ -87,15 +164,12 @@ public class Inventory {
      */
     public boolean useKey(Door door, Player player) {
         if (door != null) {
-            for (Item i : inventory) {
-                if (i instanceof Key) {
-                    Key k = (Key) i;
-                    if (k.correctKey(door)) {
-                        i.activate(player);
-                        inventory.remove(i);
-                        return true;
-                    } 
-                }
+            ArrayDeque<Key> keys = keysByNumber.get(door.getKey());
+            if (keys != null) {
+                Key k = keys.peekFirst();
+                k.activate(player);
+                remove(k);
+                return true;
             }
         }
         return false;
@@ -103,20 +177,39 @@ public class Inventory {
 
     // crafting functions
 
+    /** 
+     * builds the named buildable from its recipe, using up the ingredients and adding it to the inventory
+     * @param buildable
+     * @param player
+     * @throws IllegalArgumentException if there is no recipe for buildable
+     * @throws InvalidActionException if the ingredients are not there, or something in the dungeon stops it
+     */
+    public void craft(String buildable, Player player) throws IllegalArgumentException, InvalidActionException {
+        Recipe recipe = Recipes.get(buildable);
+        if (recipe == null) {
+            throw new IllegalArgumentException("Cannot build " + buildable);
+        }
+        if (Crafting.isBlocked(recipe, player.getDungeon())) {
+            throw new InvalidActionException("Cannot build " + buildable + " while the dungeon has a " + recipe.getBlockedBy().getSimpleName());
+        }
+        List<Ingredient> ingredients = recipe.match(this::count);
+        if (ingredients == null) {
+            throw new InvalidActionException("Insufficient crafting material for " + buildable);
+        }
+        for (Ingredient ingredient : ingredients) {
+            for (int i = 0; i < ingredient.getAmount(); i++) {
+                remove(getItem(ingredient.getType()));
+            }
+        }
+        this.add(recipe.make(player.getDungeon()));
+    }
+
     /** 
      * creates a bow and adds to inventory, adjusts stock of crafting materials
      * returns InvalidActionException if insufficient crafting material
      */
     public void craftBow(Player player) {
-        if (this.count("wood") >= 1 && this.count("arrow") >= 3) {
-            this.use("wood", player);
-            this.use("arrow", player);
-            this.use("arrow", player);
-            this.use("arrow", player);
-            this.add(new Bow(player.getDungeon()));
-        } else {
-            throw new InvalidActionException("Insufficient crafting material for Bow");
-        }
+        craft("bow", player);
     }
 
     /** 
@@ -124,27 +217,7 @@ public class Inventory {
      * returns InvalidActionException if insufficient crafting material
      */
     public void craftShield(Player player) {
-        if (this.count("wood") >= 2) {
-            // assume we prioritise using treasure over keys for crafting
-            if (this.count("treasure") >= 1) {
-                this.use("wood", player);
-                this.use("wood", player);
-                this.use("treasure", player);
-                this.add(new Shield(player.getDungeon())); 
-            } else if (this.count("key") >= 1) {
-                this.use("wood", player);
-                this.use("wood", player);
-                this.use("key", player);
-                this.add(new Shield(player.getDungeon())); 
-            } else if (this.count("sun_stone") >= 1) {
-                this.use("wood", player);
-                this.use("wood", player);
-                this.use("sun_stone", player);
-                this.add(new Shield(player.getDungeon())); 
-            }
-        } else {
-            throw new InvalidActionException("Insufficient crafting material for Shield");
-        }
+        craft("shield", player);
     }
 
     /** 
@@ -153,109 +226,38 @@ public class Inventory {
      * returns InvalidActionException if zombie is in dungeon
      */
     public void craftMidnightArmour(Player player) {
-        Dungeon d = player.getDungeon();
-        // first check for zombies
-        for (Entity e : d.getEntities()) {
-            if (e instanceof ZombieToast) {
-                throw new InvalidActionException("Insufficient crafting material for Shield");
-            }
-        }
-        // then check sufficient crafting materials
-        if (this.count("armour") >= 1 && this.count("sun_stone") >= 1) {
-            Item armour = getItem("armour");
-            inventory.remove(armour);
-            this.use("sun_stone", player);
-            this.add(new MidnightArmour(player.getDungeon()));
-        } else {
-            throw new InvalidActionException("Insufficient crafting material for Midnight Armour");
-        }
+        craft("midnight_armour", player);
     }
 
     /** 
      * creates sceptre and adds to inventory, adjusts stock of crafting materials
      * returns InvalidActionException if insufficient crafting material
-     * returns InvalidActionException if zombie is in dungeon
      */
     public void craftSceptre(Player player) {
-        //  check sufficient crafting materials
-        if (this.count("sun_stone") >= 1) {
-            Boolean bool1 = this.count("wood") >= 1 || this.count("arrow") >= 2;
-            Boolean bool2 = this.count("treasure") >= 1 || this.count("key") >= 1 || this.count("sun_stone") >= 2;
-            if (bool1 && bool2) {
-                this.use("sun_stone", player);
-                System.out.print("hello");
-                // use bool1 items
-                if (this.count("wood") >= 1) {
-                    this.use("wood", player);
-                } else {
-                    this.use("arrow", player);
-                    this.use("arrow", player);
-                }
-                // use bool2 items
-                if (this.count("treasure") >= 1) {
-                    this.use("treasure", player);
-                } else if (this.count("key") >= 1) {
-                    this.use("key", player);
-                } else {
-                    this.use("sun_stone", player);
-                    System.out.print("hel");
-                }
-                this.add(new Sceptre(player.getDungeon()));
-            } else {
-                throw new InvalidActionException("Insufficient crafting material for Sceptre");
-            }
-        } else {
-            throw new InvalidActionException("Insufficient crafting material for Sceptre");
-        }
+        craft("sceptre", player);
     }
 
     /** 
-     * @return List<String>
+     * @return List<String> what can be built now, kept up to date as the inventory and dungeon change
      */
-    public List<String> getBuildables(Player player) {
-        List<String> buildables = new ArrayList<>();
-        if (count("wood") >= 1 && count("arrow") >= 3) {
-            buildables.add("bow");
-        }
-        if (count("wood") >= 2) {
-            if (count("treasure") >= 1) {
-                buildables.add("shield");
-            } else if (this.count("key") >= 1) {
-                buildables.add("shield");
-            }
-        }
-
-        if (this.count("sun_stone") >= 1) {
-            Boolean bool1 = this.count("wood") >= 1 || this.count("arrow") >= 2;
-            Boolean bool2 = this.count("treasure") >= 1 || this.count("key") >= 1 || this.count("sun_stone") >= 2;
-            if (bool1 && bool2) {
-                buildables.add("sceptre");
-            }
+    public List<String> getBuildables() {
+        return crafting.getBuildables();
+    }
 
-            if (this.count("armour") >= 1 && this.count("sun_stone") >= 1) {
-                Dungeon d = player.getDungeon();
-                boolean zombiesInDungeon = false;
-                // first check for zombies
-                for (Entity e : d.getEntities()) {
-                    if (e instanceof ZombieToast) {
-                        zombiesInDungeon = true;
-                    }
-                }
-                if (!zombiesInDungeon) {
-                    buildables.add("midnight_armour");
-                }
-            }
-        }
-        return buildables;
+    /** 
+     * @return Crafting what the inventory can build, for the dungeon to tell of entities that block recipes
+     */
+    public Crafting getCrafting() {
+        return crafting;
     }
 
     // getters
 
     /**
-     * @return List<Item> return the inventory
+     * @return List<Item> a copy of the inventory, in the order the items were added
      */
     public List<Item> getInventoryList() {
-        return inventory;
+        return new ArrayList<Item>(inventory);
     }
 
     /** 
@@ -265,15 +267,8 @@ public class Inventory {
      * @return Item
      */
     public Item getItem(String type) {
-        Collections.reverse(inventory);
-        for (Item i : inventory) {
-            if (i.getType().equals(type)) {
-                Collections.reverse(inventory);
-                return i;
-            }
-        }
-        Collections.reverse(inventory);
-        return null;
+        ArrayDeque<Item> items = itemsByType.get(type);
+        return items == null ? null : items.peekLast();
     }
 
     // for testing
@@ -33,6 +33,7 @@ public class InvincibleState implements PlayerState {
      */
     public void updateState() {
         timeLeft--;
+        player.savedStateChanged();
         if (timeLeft <= 0) {
             player.setCharacterState(new StandardState(player));
         }
@@ -59,6 +60,7 @@ public class InvincibleState implements PlayerState {
      */
     public void setTimeLeft(int timeLeft) {
         this.timeLeft = timeLeft;
+        player.savedStateChanged();
     }
 
 }
@@ -32,6 +32,7 @@ public class InvisibleState implements PlayerState {
      */
     public void updateState() {
         timeLeft--;
+        player.savedStateChanged();
         if (timeLeft <= 0) {
             player.setCharacterState(new StandardState(player));
         }
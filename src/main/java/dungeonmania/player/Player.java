@@ -52,7 +52,7 @@ public class Player extends MovingEntity {
      */
     @Override
     public void move(Direction direction) {
-        teleported = false;
+        setTeleported(false);
         super.move(direction);
         fightEnemies(getPosition());
         pickItems(getPosition());
@@ -67,6 +67,10 @@ public class Player extends MovingEntity {
      */
     @Override
     public boolean checkValidMove(Position pos, Direction dir) {
+        // nothing in the way, no need to look at the entities
+        if (getDungeon().getCellCost(pos) >= 0) {
+            return true;
+        }
         for (Entity e : getDungeon().getEntities(pos)) {
             if (e instanceof Wall || e instanceof ZombieToastSpawner || !checkUnlockedDoor(pos)) {
                 return false;
@@ -313,6 +317,7 @@ public class Player extends MovingEntity {
      */
     public void setCharacterState(PlayerState playerState) {
         this.playerState = playerState;
+        savedStateChanged();
     }
     
     /** 
@@ -336,6 +341,7 @@ public class Player extends MovingEntity {
      */
     public void setTeleported(boolean teleported) {
         this.teleported = teleported;
+        savedStateChanged();
     }
 
     /** 
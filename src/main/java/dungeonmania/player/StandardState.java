@@ -1,6 +1,5 @@
 package dungeonmania.player;
 
-import dungeonmania.Entity;
 import dungeonmania.items.Sword;
 import dungeonmania.moving_entities.Assassin;
 import dungeonmania.moving_entities.Enemy;
@@ -22,12 +21,9 @@ public class StandardState implements PlayerState {
      */
     public void battleEnemy(Enemy enemy) {
         // update mercenary position if they are within battle radius
-        for (Entity e : player.getDungeon().getEntities()) {
-            if (e instanceof Mercenary) {
-                Mercenary m = (Mercenary) e;
-                if (!m.isAlly() && m.withinPlayerRadius(player)) {
-                    m.updatePosition();
-                }
+        for (Mercenary m : player.getDungeon().getEntitiesOfClass(Mercenary.class)) {
+            if (!m.isAlly() && m.withinPlayerRadius(player)) {
+                m.updatePosition();
             }
         }
 
@@ -75,12 +71,9 @@ public class StandardState implements PlayerState {
             }
 
             // if player has allies, contribute their health deductions
-            for (Entity e : player.getDungeon().getEntities()) {
-                if (e instanceof Mercenary) {
-                    Mercenary m = (Mercenary) e;
-                    if (m.isAlly()) {
-                        enemy.updateHealth(m);
-                    }
+            for (Mercenary m : player.getDungeon().getEntitiesOfClass(Mercenary.class)) {
+                if (m.isAlly()) {
+                    enemy.updateHealth(m);
                 }
             }
            
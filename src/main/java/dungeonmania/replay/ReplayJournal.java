@@ -0,0 +1,454 @@
+package dungeonmania.replay;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Every call that changed one game, appended to a memory-mapped file as the game is played.
+ * The first entry is how the game started, each later entry one tick, build, interaction or checkpoint.
+ * Since the random events of a game all follow from its seed, playing the entries again makes the game exactly again.
+ *
+ * An entry is its length, its kind, then its arguments. The length is written after the rest, so an entry
+ * cut short by a crash reads as the end of the journal. Writes go to the page cache straight away, so they
+ * survive the process dying without paying for a write to the disk on every call, as saveGame does.
+ */
+public final class ReplayJournal implements Closeable {
+    private static final int MAGIC = 0x444D4A31;
+    private static final int INITIAL_CAPACITY = 64 * 1024;
+    // journals being written in this process, which nothing else may append to
+    private static final Set<Path> OPEN = ConcurrentHashMap.newKeySet();
+
+    public enum Kind {
+        NEW_GAME,
+        GENERATE,
+        CHECKPOINT,
+        TICK,
+        BUILD,
+        INTERACT;
+
+        /**
+         * @return boolean true if a game can start from this entry without any before it
+         */
+        public boolean isStart() {
+            return this == NEW_GAME || this == GENERATE || this == CHECKPOINT;
+        }
+    }
+
+    /**
+     * One entry read back from a journal.
+     */
+    public static final class Entry {
+        private final Kind kind;
+        private final List<String> arguments;
+        private final byte[] save;
+
+        private Entry(Kind kind, List<String> arguments, byte[] save) {
+            this.kind = kind;
+            this.arguments = arguments;
+            this.save = save;
+        }
+
+        /**
+         * @return Kind
+         */
+        public Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * @param index
+         * @return String the argument in the order it was appended, may be null
+         */
+        public String getArgument(int index) {
+            return arguments.get(index);
+        }
+
+        /**
+         * @return byte[] the binary save of a checkpoint, null for other kinds
+         */
+        public byte[] getSave() {
+            return save;
+        }
+    }
+
+    private final Path path;
+    private MappedByteBuffer buffer;
+    private int entries;
+
+    private ReplayJournal(Path path, MappedByteBuffer buffer, int entries) {
+        this.path = path;
+        this.buffer = buffer;
+        this.entries = entries;
+    }
+
+    /**
+     * start a journal, replacing any file already there
+     * @param path
+     * @return ReplayJournal
+     * @throws IOException
+     * @throws IllegalStateException if the journal is already being written in this process
+     */
+    public static ReplayJournal create(Path path) throws IOException, IllegalStateException {
+        claim(path);
+        try {
+            MappedByteBuffer buffer;
+            try {
+                buffer = map(path, INITIAL_CAPACITY, StandardOpenOption.TRUNCATE_EXISTING);
+            } catch (NoSuchFileException e) {
+                Files.createDirectories(path.toAbsolutePath().getParent());
+                buffer = map(path, INITIAL_CAPACITY, StandardOpenOption.TRUNCATE_EXISTING);
+            }
+            buffer.putInt(MAGIC);
+            return new ReplayJournal(path, buffer, 0);
+        } catch (IOException e) {
+            OPEN.remove(path.toAbsolutePath());
+            throw e;
+        }
+    }
+
+    /**
+     * carry on writing a journal after its last whole entry, such as one left by a crash
+     * @param path
+     * @return ReplayJournal
+     * @throws IOException
+     * @throws IllegalStateException if the journal is already being written in this process
+     */
+    public static ReplayJournal reopen(Path path) throws IOException, IllegalStateException {
+        claim(path);
+        try {
+            MappedByteBuffer buffer = map(path, Math.max(INITIAL_CAPACITY, (int) Files.size(path)), StandardOpenOption.WRITE);
+            int entries = skipEntries(buffer);
+            return new ReplayJournal(path, buffer, entries);
+        } catch (IOException e) {
+            OPEN.remove(path.toAbsolutePath());
+            throw e;
+        }
+    }
+
+    /**
+     * @param path
+     * @return boolean true if the journal is being written in this process
+     */
+    public static boolean isOpen(Path path) {
+        return OPEN.contains(path.toAbsolutePath());
+    }
+
+    /**
+     * delete the journals of a directory that were written longest ago, leaving the newest keep of them.
+     * Journals being written in this process are always kept
+     * @param directory
+     * @param keep
+     * @return int number of journals deleted
+     * @throws IOException if the directory cannot be listed
+     */
+    public static int prune(Path directory, int keep) throws IOException {
+        List<Path> journals = new ArrayList<Path>();
+        Map<Path, FileTime> modified = new HashMap<Path, FileTime>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.journal")) {
+            for (Path file : files) {
+                try {
+                    modified.put(file, Files.getLastModifiedTime(file));
+                    journals.add(file);
+                } catch (NoSuchFileException e) {
+                    // deleted while listing
+                }
+            }
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+        if (journals.size() <= keep) {
+            return 0;
+        }
+        journals.sort(Comparator.comparing(modified::get));
+        int deleted = 0;
+        for (Path file : journals.subList(0, journals.size() - keep)) {
+            if (!isOpen(file) && Files.deleteIfExists(file)) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * read every whole entry of a journal
+     * @param path
+     * @return List<Entry>
+     * @throws IOException if the file is not a journal
+     */
+    public static List<Entry> read(Path path) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.remaining() < 4 || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a replay journal: " + path);
+        }
+        List<Entry> entries = new ArrayList<Entry>();
+        int length;
+        while ((length = nextLength(buffer)) > 0) {
+            ByteBuffer entry = buffer.slice();
+            entry.limit(length);
+            buffer.position(buffer.position() + length);
+            entries.add(readEntry(entry));
+        }
+        return entries;
+    }
+
+    /**
+     * @return Path
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * @return int number of entries, the start included
+     */
+    public int size() {
+        return entries;
+    }
+
+    /**
+     * @param dungeonName
+     * @param gameMode
+     * @param dungeonId
+     * @param seed
+     */
+    public void newGame(String dungeonName, String gameMode, String dungeonId, long seed) {
+        append(Kind.NEW_GAME, null, dungeonName, gameMode, dungeonId, String.valueOf(seed));
+    }
+
+    /**
+     * @param xStart
+     * @param yStart
+     * @param xEnd
+     * @param yEnd
+     * @param gameMode
+     * @param dungeonId
+     * @param seed
+     */
+    public void generate(int xStart, int yStart, int xEnd, int yEnd, String gameMode, String dungeonId, long seed) {
+        append(Kind.GENERATE, null, String.valueOf(xStart), String.valueOf(yStart), String.valueOf(xEnd), String.valueOf(yEnd),
+            gameMode, dungeonId, String.valueOf(seed));
+    }
+
+    /**
+     * the whole game as it is now, for where it did not get here by playing on from the entry before
+     * @param save a binary save of the game
+     */
+    public void checkpoint(byte[] save) {
+        append(Kind.CHECKPOINT, save);
+    }
+
+    /**
+     * @param itemUsed
+     * @param movementDirection the direction's name, which unlike its ordinal means the same to later builds
+     */
+    public void tick(String itemUsed, String movementDirection) {
+        append(Kind.TICK, null, itemUsed, movementDirection);
+    }
+
+    /**
+     * @param buildable
+     */
+    public void build(String buildable) {
+        append(Kind.BUILD, null, buildable);
+    }
+
+    /**
+     * @param entityId
+     */
+    public void interact(String entityId) {
+        append(Kind.INTERACT, null, entityId);
+    }
+
+    /**
+     * stop writing, so another journal can take over the file
+     */
+    @Override
+    public void close() {
+        OPEN.remove(path.toAbsolutePath());
+    }
+
+    /**
+     * @param kind
+     * @param save
+     * @param arguments
+     */
+    private void append(Kind kind, byte[] save, String... arguments) {
+        byte[][] encoded = new byte[arguments.length][];
+        int length = 2;
+        for (int i = 0; i < arguments.length; i++) {
+            encoded[i] = arguments[i] == null ? null : arguments[i].getBytes(StandardCharsets.UTF_8);
+            length += 4 + (encoded[i] == null ? 0 : encoded[i].length);
+        }
+        if (save != null) {
+            length += 4 + save.length;
+        }
+        // room for this entry and the zero length that ends the journal
+        ensureCapacity(4 + length + 4);
+
+        int start = buffer.position();
+        buffer.position(start + 4);
+        buffer.put((byte) kind.ordinal());
+        buffer.put((byte) arguments.length);
+        for (byte[] argument : encoded) {
+            putBytes(argument);
+        }
+        if (save != null) {
+            putBytes(save);
+        }
+        // what a crash left after the end, such as part of a longer entry, must not read as more entries
+        buffer.putInt(start + 4 + length, 0);
+        // only now is the entry there to be read
+        buffer.putInt(start, length);
+        entries++;
+    }
+
+    /**
+     * @param bytes null is kept apart from empty
+     */
+    private void putBytes(byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    /**
+     * @param needed
+     */
+    private void ensureCapacity(int needed) {
+        if (buffer.remaining() >= needed) {
+            return;
+        }
+        int position = buffer.position();
+        long capacity = Math.max((long) buffer.capacity() * 2, (long) position + needed);
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Replay journal is full: " + path);
+        }
+        try {
+            buffer = map(path, (int) capacity, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not grow replay journal " + path, e);
+        }
+        buffer.position(position);
+    }
+
+    /**
+     * @param path
+     * @throws IllegalStateException
+     */
+    private static void claim(Path path) throws IllegalStateException {
+        if (!OPEN.add(path.toAbsolutePath())) {
+            throw new IllegalStateException("Replay journal is already open: " + path);
+        }
+    }
+
+    /**
+     * map the file read and write, making it at least capacity bytes long
+     * @param path
+     * @param capacity
+     * @param option TRUNCATE_EXISTING to start the file afresh
+     * @return MappedByteBuffer
+     * @throws IOException
+     */
+    private static MappedByteBuffer map(Path path, int capacity, StandardOpenOption option) throws IOException {
+        // the mapping stays valid once the channel is closed, so an open journal holds no file handle
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, option)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        }
+    }
+
+    /**
+     * move the buffer past the magic number and every whole entry
+     * @param buffer
+     * @return int number of entries
+     * @throws IOException if the file is not a journal
+     */
+    private static int skipEntries(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a replay journal");
+        }
+        int entries = 0;
+        int length;
+        while ((length = nextLength(buffer)) > 0) {
+            buffer.position(buffer.position() + length);
+            entries++;
+        }
+        return entries;
+    }
+
+    /**
+     * read the length of the next entry, leaving the buffer on the end of the journal if there is none
+     * @param buffer
+     * @return int the entry's length, 0 at the end of the journal
+     */
+    private static int nextLength(ByteBuffer buffer) {
+        if (buffer.remaining() < 4) {
+            return 0;
+        }
+        int length = buffer.getInt(buffer.position());
+        if (length <= 0 || length > buffer.remaining() - 4) {
+            return 0;
+        }
+        buffer.position(buffer.position() + 4);
+        return length;
+    }
+
+    /**
+     * @param entry
+     * @return Entry
+     * @throws IOException if the entry does not hold what its kind needs
+     */
+    private static Entry readEntry(ByteBuffer entry) throws IOException {
+        try {
+            Kind kind = Kind.values()[entry.get()];
+            int count = entry.get();
+            List<String> arguments = new ArrayList<String>(count);
+            for (int i = 0; i < count; i++) {
+                byte[] bytes = getBytes(entry);
+                arguments.add(bytes == null ? null : new String(bytes, StandardCharsets.UTF_8));
+            }
+            byte[] save = kind == Kind.CHECKPOINT ? getBytes(entry) : null;
+            return new Entry(kind, Collections.unmodifiableList(arguments), save);
+        } catch (ArrayIndexOutOfBoundsException | BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Damaged replay journal entry", e);
+        }
+    }
+
+    /**
+     * @param buffer
+     * @return byte[] null if null was put
+     */
+    private static byte[] getBytes(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
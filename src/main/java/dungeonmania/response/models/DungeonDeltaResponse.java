@@ -0,0 +1,81 @@
+package dungeonmania.response.models;
+
+import java.util.List;
+
+/**
+ * The entities that changed since the client's last known version of the dungeon.
+ * If snapshot is true the client's version could not be used, and created holds every entity.
+ */
+public final class DungeonDeltaResponse {
+    private final String dungeonId;
+    private final String dungeonName;
+    private final int version;
+    private final boolean snapshot;
+    private final List<EntityResponse> created;
+    private final List<EntityResponse> moved;
+    private final List<EntityResponse> changed;
+    private final List<String> removed;
+    private final List<ItemResponse> inventory;
+    private final List<String> buildables;
+    private final String goals;
+
+    public DungeonDeltaResponse(String dungeonId, String dungeonName, int version, boolean snapshot,
+            List<EntityResponse> created, List<EntityResponse> moved, List<EntityResponse> changed,
+            List<String> removed, List<ItemResponse> inventory, List<String> buildables, String goals) {
+        this.dungeonId = dungeonId;
+        this.dungeonName = dungeonName;
+        this.version = version;
+        this.snapshot = snapshot;
+        this.created = created;
+        this.moved = moved;
+        this.changed = changed;
+        this.removed = removed;
+        this.inventory = inventory;
+        this.buildables = buildables;
+        this.goals = goals;
+    }
+
+    public final String getDungeonId() {
+        return dungeonId;
+    }
+
+    public final String getDungeonName() {
+        return dungeonName;
+    }
+
+    public final int getVersion() {
+        return version;
+    }
+
+    public final boolean isSnapshot() {
+        return snapshot;
+    }
+
+    public final List<EntityResponse> getCreated() {
+        return created;
+    }
+
+    public final List<EntityResponse> getMoved() {
+        return moved;
+    }
+
+    public final List<EntityResponse> getChanged() {
+        return changed;
+    }
+
+    public final List<String> getRemoved() {
+        return removed;
+    }
+
+    public final List<ItemResponse> getInventory() {
+        return inventory;
+    }
+
+    public final List<String> getBuildables() {
+        return buildables;
+    }
+
+    public final String getGoals() {
+        return goals;
+    }
+}
@@ -0,0 +1,37 @@
+package dungeonmania.response.models;
+
+public final class HistogramResponse {
+    private final long count;
+    private final double mean;
+    private final long p50;
+    private final long p99;
+    private final long max;
+
+    public HistogramResponse(long count, double mean, long p50, long p99, long max) {
+        this.count = count;
+        this.mean = mean;
+        this.p50 = p50;
+        this.p99 = p99;
+        this.max = max;
+    }
+
+    public final long getCount() {
+        return count;
+    }
+
+    public final double getMean() {
+        return mean;
+    }
+
+    public final long getP50() {
+        return p50;
+    }
+
+    public final long getP99() {
+        return p99;
+    }
+
+    public final long getMax() {
+        return max;
+    }
+}
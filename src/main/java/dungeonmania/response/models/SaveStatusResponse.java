@@ -0,0 +1,34 @@
+package dungeonmania.response.models;
+
+public final class SaveStatusResponse {
+    private final String name;
+    // "queued", "writing", "saved" or "failed"
+    private final String status;
+    // size of the save once it is written, -1 before that
+    private final long bytes;
+    // why the write failed, null otherwise
+    private final String error;
+
+    public SaveStatusResponse(String name, String status, long bytes, String error) {
+        this.name = name;
+        this.status = status;
+        this.bytes = bytes;
+        this.error = error;
+    }
+
+    public final String getName() {
+        return name;
+    }
+
+    public final String getStatus() {
+        return status;
+    }
+
+    public final long getBytes() {
+        return bytes;
+    }
+
+    public final String getError() {
+        return error;
+    }
+}
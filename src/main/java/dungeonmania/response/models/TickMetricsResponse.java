@@ -0,0 +1,30 @@
+package dungeonmania.response.models;
+
+import java.util.Map;
+
+public final class TickMetricsResponse {
+    // nanoseconds spent in each phase of a tick
+    private final Map<String, HistogramResponse> phases;
+    // nanoseconds for a whole tick
+    private final HistogramResponse tick;
+    // bytes allocated by a whole tick, null where the JVM cannot measure it
+    private final HistogramResponse allocatedBytes;
+
+    public TickMetricsResponse(Map<String, HistogramResponse> phases, HistogramResponse tick, HistogramResponse allocatedBytes) {
+        this.phases = phases;
+        this.tick = tick;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    public final Map<String, HistogramResponse> getPhases() {
+        return phases;
+    }
+
+    public final HistogramResponse getTick() {
+        return tick;
+    }
+
+    public final HistogramResponse getAllocatedBytes() {
+        return allocatedBytes;
+    }
+}
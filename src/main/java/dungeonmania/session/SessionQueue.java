@@ -0,0 +1,68 @@
+package dungeonmania.session;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Runs the calls on one session one at a time, in the order they arrive, each on the thread that made it.
+ * A caller waits its turn parked in the queue rather than on a monitor, so a waiting virtual thread
+ * gives its carrier back instead of pinning it.
+ */
+final class SessionQueue {
+    private final ConcurrentLinkedQueue<Thread> waiting = new ConcurrentLinkedQueue<Thread>();
+
+    /**
+     * wait for every call that arrived before this one, then run it
+     * @param <T>
+     * @param call
+     * @return T what the call returns
+     */
+    <T> T run(Supplier<T> call) {
+        Thread caller = Thread.currentThread();
+        waiting.add(caller);
+        boolean interrupted = false;
+        // the call ahead unparks the next caller once it is done
+        while (waiting.peek() != caller) {
+            LockSupport.park(this);
+            if (Thread.interrupted()) {
+                interrupted = true;
+            }
+        }
+        try {
+            return call.get();
+        } finally {
+            waiting.poll();
+            LockSupport.unpark(waiting.peek());
+            if (interrupted) {
+                caller.interrupt();
+            }
+        }
+    }
+
+    /**
+     * run the call only if no other call is running or waiting
+     * @param call
+     * @return boolean what the call returns, false if the session was busy and the call did not run
+     */
+    boolean tryRun(BooleanSupplier call) {
+        Thread caller = Thread.currentThread();
+        if (!waiting.isEmpty()) {
+            return false;
+        }
+        waiting.add(caller);
+        if (waiting.peek() != caller) {
+            waiting.remove(caller);
+            // the call ahead may have handed its turn to this caller in the meantime, so pass it on
+            LockSupport.unpark(waiting.peek());
+            return false;
+        }
+        try {
+            return call.getAsBoolean();
+        } finally {
+            waiting.poll();
+            LockSupport.unpark(waiting.peek());
+        }
+    }
+}
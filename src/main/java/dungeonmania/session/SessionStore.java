@@ -0,0 +1,287 @@
+package dungeonmania.session;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import dungeonmania.DungeonManiaController;
+import dungeonmania.loader.SaveFormat;
+
+/**
+ * The game of every web session, at most maxSessions of them in memory.
+ * A session left idle too long, or the least recently used one when there are too many, is saved to the spill
+ * directory and dropped from memory. Its next request loads it back, so the client never notices, except that
+ * the undo history starts again and named snapshots are gone, since only the game itself is spilled.
+ * A spill that is not loaded back within SPILL_LIFETIME_IDLES idle timeouts is taken to be of an abandoned
+ * session and deleted, and that session starts with no game if it ever comes back.
+ *
+ * Calls on one session run one at a time. Calls on different sessions never wait on each other.
+ */
+public final class SessionStore implements Closeable {
+    private static final int SPILL_LIFETIME_IDLES = 24;
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<String, Session>();
+    private final Path spillDirectory;
+    private final long idleNanos;
+    private final long spillLifetimeMillis;
+    private final int maxSessions;
+    private final Supplier<DungeonManiaController> newController;
+    private final ScheduledExecutorService evictor;
+
+    /**
+     * One session's game, null while it is spilled or before the first call.
+     */
+    private static final class Session {
+        private final String id;
+        private final SessionQueue queue = new SessionQueue();
+        private DungeonManiaController controller;
+        private volatile long lastUsed = System.nanoTime();
+        // set once the session is spilled, a call that still holds it has to look it up again
+        private boolean evicted;
+
+        private Session(String id) {
+            this.id = id;
+        }
+    }
+
+    /**
+     * @param spillDirectory where spilled games are written
+     * @param idleMillis how long a session may go without a call before it is spilled, spills are kept for
+     * SPILL_LIFETIME_IDLES times as long
+     * @param maxSessions most sessions kept in memory at once
+     */
+    public SessionStore(Path spillDirectory, long idleMillis, int maxSessions) {
+        this(spillDirectory, idleMillis, maxSessions, DungeonManiaController::new);
+    }
+
+    /**
+     * @param spillDirectory where spilled games are written
+     * @param idleMillis how long a session may go without a call before it is spilled, spills are kept for
+     * SPILL_LIFETIME_IDLES times as long
+     * @param maxSessions most sessions kept in memory at once
+     * @param newController makes the controller of a new or reloaded session, set up as the server wants
+     */
+    public SessionStore(Path spillDirectory, long idleMillis, int maxSessions, Supplier<DungeonManiaController> newController) {
+        this.spillDirectory = spillDirectory;
+        this.newController = newController;
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+        this.spillLifetimeMillis = idleMillis * SPILL_LIFETIME_IDLES;
+        this.maxSessions = maxSessions;
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, idleMillis / 4);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * run the action on the session's controller, loading its game back first if it was spilled
+     * @param <T>
+     * @param sessionId
+     * @param action
+     * @return T what the action returns
+     * @throws IllegalStateException if a spilled game cannot be read back
+     */
+    public <T> T call(String sessionId, Function<DungeonManiaController, T> action) throws IllegalStateException {
+        while (true) {
+            Session session = sessions.get(sessionId);
+            if (session == null) {
+                session = sessions.computeIfAbsent(sessionId, Session::new);
+                if (sessions.size() > maxSessions) {
+                    evictLeastRecentlyUsed(session);
+                }
+            }
+            Session current = session;
+            // null if the session was spilled while this call waited its turn
+            Optional<T> result = current.queue.run(() -> {
+                if (current.evicted) {
+                    return null;
+                }
+                if (current.controller == null) {
+                    current.controller = restore(current.id);
+                }
+                current.lastUsed = System.nanoTime();
+                return Optional.ofNullable(action.apply(current.controller));
+            });
+            if (result != null) {
+                return result.orElse(null);
+            }
+        }
+    }
+
+    /**
+     * @param sessionId
+     * @return DungeonManiaController the session's controller if its game is in memory, otherwise null
+     */
+    public DungeonManiaController peek(String sessionId) {
+        Session session = sessions.get(sessionId);
+        return session == null ? null : session.controller;
+    }
+
+    /**
+     * @return int number of sessions in memory
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * spill every session that has gone without a call for longer than the idle timeout,
+     * leaving any that are in the middle of one, then delete the spills that have expired
+     * @return int number of sessions spilled
+     */
+    public int evictIdle() {
+        long now = System.nanoTime();
+        int evicted = 0;
+        for (Session session : sessions.values()) {
+            if (now - session.lastUsed > idleNanos && tryEvict(session)) {
+                evicted++;
+            }
+        }
+        deleteExpiredSpills();
+        return evicted;
+    }
+
+    /**
+     * stop spilling idle sessions, the games in memory are left as they are
+     */
+    @Override
+    public void close() {
+        evictor.shutdownNow();
+    }
+
+    /**
+     * spill the least recently used sessions until there are no more than maxSessions
+     * @param keep the session about to be used, which is not spilled
+     */
+    private void evictLeastRecentlyUsed(Session keep) {
+        List<Session> busy = new ArrayList<Session>();
+        while (sessions.size() > maxSessions) {
+            Session oldest = null;
+            for (Session session : sessions.values()) {
+                if (session != keep && !busy.contains(session) && (oldest == null || session.lastUsed - oldest.lastUsed < 0)) {
+                    oldest = session;
+                }
+            }
+            if (oldest == null) {
+                // every other session is in a call, so memory goes over for now and the evictor catches up
+                return;
+            }
+            if (!tryEvict(oldest)) {
+                busy.add(oldest);
+            }
+        }
+    }
+
+    /**
+     * @param session
+     * @return boolean false if the session is in a call or could not be written
+     */
+    private boolean tryEvict(Session session) {
+        return session.queue.tryRun(() -> {
+            if (session.evicted) {
+                return false;
+            }
+            try {
+                if (session.controller != null && !session.controller.spillGame(spillDirectory, fileName(session.id))) {
+                    // nothing played yet, so nothing to keep
+                    Files.deleteIfExists(spillPath(session.id));
+                }
+            } catch (IOException e) {
+                // kept in memory rather than lost
+                System.out.println("Could not spill session: " + e);
+                return false;
+            }
+            session.controller = null;
+            session.evicted = true;
+            sessions.remove(session.id, session);
+            return true;
+        });
+    }
+
+    /**
+     * delete the spills written longer than the spill lifetime ago, other than those of sessions in memory,
+     * which may be loading theirs back
+     */
+    private void deleteExpiredSpills() {
+        long expired = System.currentTimeMillis() - spillLifetimeMillis;
+        Set<Path> inUse = new HashSet<Path>();
+        for (String sessionId : sessions.keySet()) {
+            inUse.add(spillPath(sessionId));
+        }
+        try (DirectoryStream<Path> spills = Files.newDirectoryStream(spillDirectory, "*" + SaveFormat.BINARY.getExtension())) {
+            for (Path spill : spills) {
+                try {
+                    if (!inUse.contains(spill) && Files.getLastModifiedTime(spill).toMillis() < expired) {
+                        Files.deleteIfExists(spill);
+                    }
+                } catch (NoSuchFileException e) {
+                    // loaded back meanwhile
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // nothing has been spilled yet
+        } catch (IOException e) {
+            System.out.println("Could not delete expired spills: " + e);
+        }
+    }
+
+    /**
+     * @param sessionId
+     * @return DungeonManiaController the spilled game if there is one, otherwise a fresh controller
+     * @throws IllegalStateException
+     */
+    private DungeonManiaController restore(String sessionId) throws IllegalStateException {
+        DungeonManiaController controller = newController.get();
+        Path spill = spillPath(sessionId);
+        if (!Files.exists(spill)) {
+            return controller;
+        }
+        try {
+            controller.reloadGame(spill);
+            // once it is in memory again the spill would only go out of date
+            Files.delete(spill);
+        } catch (NoSuchFileException e) {
+            // it expired just as the session came back
+            return newController.get();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not reload session", e);
+        }
+        return controller;
+    }
+
+    /**
+     * @param sessionId
+     * @return Path
+     */
+    private Path spillPath(String sessionId) {
+        return spillDirectory.resolve(fileName(sessionId) + SaveFormat.BINARY.getExtension());
+    }
+
+    /**
+     * @param sessionId
+     * @return String a file name only this session id has
+     */
+    private static String fileName(String sessionId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sessionId.getBytes(StandardCharsets.UTF_8));
+    }
+}
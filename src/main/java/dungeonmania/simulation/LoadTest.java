@@ -0,0 +1,142 @@
+package dungeonmania.simulation;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import dungeonmania.metrics.Histogram;
+import dungeonmania.response.models.HistogramResponse;
+import dungeonmania.util.Direction;
+
+/**
+ * Many simulated players, each with a web session of its own, playing a running server over http,
+ * to see how many ticks a second the server keeps up with and how long the slowest ones take.
+ * Every player starts a game and then ticks as fast as the server answers.
+ */
+public class LoadTest {
+    private static final Direction[] SQUARE = {Direction.UP, Direction.RIGHT, Direction.DOWN, Direction.LEFT};
+
+    private final URI server;
+    // microseconds from sending a tick to reading all of its response
+    private final Histogram tickLatency = new Histogram();
+
+    /**
+     * @param server such as http://localhost:4568
+     */
+    public LoadTest(URI server) {
+        this.server = server;
+    }
+
+    /**
+     * @param sessions number of players, each with its own session
+     * @param ticks ticks each player plays
+     * @param threads number of players playing at once
+     * @param dungeonName
+     * @param gameMode
+     * @return SimulationReport
+     * @throws InterruptedException
+     */
+    public SimulationReport run(int sessions, int ticks, int threads, String dungeonName, String gameMode) throws InterruptedException {
+        List<Callable<Integer>> players = new ArrayList<Callable<Integer>>();
+        for (int i = 0; i < sessions; i++) {
+            players.add(() -> play(ticks, dungeonName, gameMode));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        List<Future<Integer>> results;
+        try {
+            results = pool.invokeAll(players);
+        } finally {
+            pool.shutdown();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        long played = 0;
+        List<String> failures = new ArrayList<String>();
+        for (Future<Integer> result : results) {
+            try {
+                played += result.get();
+            } catch (ExecutionException e) {
+                failures.add(e.getCause().toString());
+            }
+        }
+        return new SimulationReport(sessions, played, elapsed, failures);
+    }
+
+    /**
+     * @return HistogramResponse tick latency in microseconds of every run so far
+     */
+    public HistogramResponse getTickLatency() {
+        return tickLatency.summary();
+    }
+
+    /**
+     * one player's game
+     * @param ticks
+     * @param dungeonName
+     * @param gameMode
+     * @return int number of ticks played
+     * @throws IOException if the server cannot be reached or answers with an error
+     * @throws InterruptedException
+     */
+    private int play(int ticks, String dungeonName, String gameMode) throws IOException, InterruptedException {
+        // its own cookies, so its own session
+        HttpClient client = HttpClient.newBuilder().cookieHandler(new CookieManager()).build();
+        post(client, "/api/game/new/?dungeonName=" + dungeonName + "&gameMode=" + gameMode + "&seed=1");
+        for (int i = 0; i < ticks; i++) {
+            long start = System.nanoTime();
+            post(client, "/api/game/tick/?movementDirection=" + SQUARE[(i / 5) % SQUARE.length]);
+            tickLatency.record((System.nanoTime() - start) / 1000);
+        }
+        return ticks;
+    }
+
+    /**
+     * @param client
+     * @param path
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    private void post(HttpClient client, String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(server.resolve(path)).POST(HttpRequest.BodyPublishers.noBody()).build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200 || response.body().contains("\"isError\":true")) {
+            throw new IOException(path + " answered " + response.statusCode() + ": " + response.body());
+        }
+    }
+
+    /**
+     * Usage: LoadTest [server] [sessions] [ticksPerSession] [threads] [dungeonName] [gameMode]
+     * Start the server first, for instance with gradle run.
+     * @param args
+     */
+    public static void main(String[] args) throws InterruptedException {
+        URI server = URI.create(args.length > 0 ? args[0] : "http://localhost:4568");
+        int sessions = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int ticks = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : 32;
+        String dungeonName = args.length > 4 ? args[4] : "advanced";
+        String gameMode = args.length > 5 ? args[5] : "peaceful";
+
+        LoadTest loadTest = new LoadTest(server);
+        SimulationReport report = loadTest.run(sessions, ticks, threads, dungeonName, gameMode);
+        System.out.println(report);
+        for (String failure : report.getFailures().subList(0, Math.min(5, report.getFailures().size()))) {
+            System.out.println("  " + failure);
+        }
+        HistogramResponse latency = loadTest.getTickLatency();
+        System.out.printf("tick latency: mean %.0f us, p50 %d us, p99 %d us, max %d us%n",
+            latency.getMean(), latency.getP50(), latency.getP99(), latency.getMax());
+    }
+}
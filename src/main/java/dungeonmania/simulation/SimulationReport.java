@@ -0,0 +1,55 @@
+package dungeonmania.simulation;
+
+import java.util.List;
+
+/**
+ * Outcome of a batch of simulated games.
+ */
+public final class SimulationReport {
+    private final int games;
+    private final long ticks;
+    private final long elapsedNanos;
+    private final List<String> failures;
+
+    public SimulationReport(int games, long ticks, long elapsedNanos, List<String> failures) {
+        this.games = games;
+        this.ticks = ticks;
+        this.elapsedNanos = elapsedNanos;
+        this.failures = failures;
+    }
+
+    public final int getGames() {
+        return games;
+    }
+
+    /**
+     * @return long ticks played by the games that finished their script
+     */
+    public final long getTicks() {
+        return ticks;
+    }
+
+    public final long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return List<String> the error that stopped each game that did not finish
+     */
+    public final List<String> getFailures() {
+        return failures;
+    }
+
+    /**
+     * @return double ticks per second across all games
+     */
+    public final double getTicksPerSecond() {
+        return elapsedNanos == 0 ? 0 : ticks * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d games, %d failed, %d ticks in %.1f ms: %.0f ticks/s",
+            games, failures.size(), ticks, elapsedNanos / 1e6, getTicksPerSecond());
+    }
+}
@@ -0,0 +1,132 @@
+package dungeonmania.simulation;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import dungeonmania.DungeonManiaController;
+import dungeonmania.util.Direction;
+import dungeonmania.util.FileLoader;
+import dungeonmania.util.SeededRandom;
+
+/**
+ * Plays one script against many independent copies of a dungeon in parallel, without the web server.
+ * Every copy has its own controller and dungeon, so the copies share no state and never wait on each other.
+ */
+public class SimulationRunner {
+    private final ForkJoinPool pool;
+
+    /**
+     * @param parallelism number of worker threads
+     */
+    public SimulationRunner(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * plays the script against the given number of fresh games made from the dungeon json
+     * @param dungeonName
+     * @param dungeonJson
+     * @param gameMode
+     * @param script
+     * @param games
+     * @return SimulationReport
+     * @throws InterruptedException
+     */
+    public SimulationReport run(String dungeonName, String dungeonJson, String gameMode, SimulationScript script, int games) throws InterruptedException {
+        return run(dungeonName, dungeonJson, gameMode, script, games, System.nanoTime());
+    }
+
+    /**
+     * plays the script against the given number of fresh games made from the dungeon json,
+     * each game gets its own seed drawn from the given one, so the same seed replays the whole batch
+     * @param dungeonName
+     * @param dungeonJson
+     * @param gameMode
+     * @param script
+     * @param games
+     * @param seed
+     * @return SimulationReport
+     * @throws InterruptedException
+     */
+    public SimulationReport run(String dungeonName, String dungeonJson, String gameMode, SimulationScript script, int games, long seed) throws InterruptedException {
+        SeededRandom seeds = new SeededRandom(seed);
+        List<Callable<Integer>> simulations = new ArrayList<Callable<Integer>>();
+        for (int i = 0; i < games; i++) {
+            long gameSeed = seeds.nextLong();
+            simulations.add(() -> {
+                DungeonManiaController controller = new DungeonManiaController();
+                // every copy can be made again from its seed, so none needs an undo history
+                controller.setHistory(false);
+                // batch ticks would only crowd the live games' latencies out of the shared histograms
+                controller.setMetrics(false);
+                controller.newGameFromJson(dungeonName, dungeonJson, gameMode, gameSeed);
+                return script.play(controller);
+            });
+        }
+
+        long start = System.nanoTime();
+        List<Future<Integer>> results = pool.invokeAll(simulations);
+        long elapsed = System.nanoTime() - start;
+
+        long ticks = 0;
+        List<String> failures = new ArrayList<String>();
+        for (Future<Integer> result : results) {
+            try {
+                ticks += result.get();
+            } catch (ExecutionException e) {
+                failures.add(e.getCause().toString());
+            }
+        }
+        return new SimulationReport(games, ticks, elapsed, failures);
+    }
+
+    /**
+     * stop the worker threads
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Usage: SimulationRunner dungeonName gameMode games [scriptFile|-] [threads] [seed]
+     * Without a script file every game walks in a square for 100 ticks.
+     * @param args
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 3) {
+            System.out.println("Usage: SimulationRunner dungeonName gameMode games [scriptFile|-] [threads] [seed]");
+            return;
+        }
+        String dungeonName = args[0];
+        String gameMode = args[1];
+        int games = Integer.parseInt(args[2]);
+
+        SimulationScript script;
+        if (args.length > 3 && !args[3].equals("-")) {
+            script = SimulationScript.fromJson(new String(Files.readAllBytes(Paths.get(args[3]))));
+        } else {
+            script = new SimulationScript();
+            Direction[] square = {Direction.UP, Direction.RIGHT, Direction.DOWN, Direction.LEFT};
+            for (int i = 0; i < 100; i++) {
+                script.tick(square[(i / 5) % square.length]);
+            }
+        }
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : System.nanoTime();
+
+        String dungeonJson = FileLoader.loadResourceFile("/dungeons/" + dungeonName + ".json");
+        SimulationRunner runner = new SimulationRunner(threads);
+        try {
+            System.out.println(runner.run(dungeonName, dungeonJson, gameMode, script, games, seed));
+        } finally {
+            runner.shutdown();
+        }
+    }
+}
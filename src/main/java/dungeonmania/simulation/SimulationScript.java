@@ -0,0 +1,155 @@
+package dungeonmania.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import dungeonmania.DungeonManiaController;
+import dungeonmania.exceptions.InvalidActionException;
+import dungeonmania.items.Item;
+import dungeonmania.util.Direction;
+
+/**
+ * A fixed sequence of controller calls to play against a dungeon.
+ *
+ * As json, a script is an array of steps such as
+ * [{"tick": "UP"}, {"tick": "NONE", "use": "invincibility_potion"}, {"build": "bow"}, {"interact": "12"}]
+ * where "use" names the type of an inventory item to use on that tick.
+ * Entity ids are handed out per dungeon, so the same id refers to the same entity in every copy of a game.
+ */
+public class SimulationScript {
+    private enum Action {
+        TICK,
+        BUILD,
+        INTERACT
+    }
+
+    private static class Step {
+        private final Action action;
+        private final String argument;
+        private final String itemType;
+
+        private Step(Action action, String argument, String itemType) {
+            this.action = action;
+            this.argument = argument;
+            this.itemType = itemType;
+        }
+    }
+
+    private List<Step> steps = new ArrayList<Step>();
+
+    /**
+     * @param movementDirection
+     * @return SimulationScript this script
+     */
+    public SimulationScript tick(Direction movementDirection) {
+        steps.add(new Step(Action.TICK, movementDirection.name(), null));
+        return this;
+    }
+
+    /**
+     * @param itemType type of the inventory item to use
+     * @param movementDirection
+     * @return SimulationScript this script
+     */
+    public SimulationScript tick(String itemType, Direction movementDirection) {
+        steps.add(new Step(Action.TICK, movementDirection.name(), itemType));
+        return this;
+    }
+
+    /**
+     * @param buildable
+     * @return SimulationScript this script
+     */
+    public SimulationScript build(String buildable) {
+        steps.add(new Step(Action.BUILD, buildable, null));
+        return this;
+    }
+
+    /**
+     * @param entityId
+     * @return SimulationScript this script
+     */
+    public SimulationScript interact(String entityId) {
+        steps.add(new Step(Action.INTERACT, entityId, null));
+        return this;
+    }
+
+    /**
+     * parse a script from its json form
+     * @param json
+     * @return SimulationScript
+     * @throws IllegalArgumentException if a step is not a tick, build or interact
+     */
+    public static SimulationScript fromJson(String json) throws IllegalArgumentException {
+        SimulationScript script = new SimulationScript();
+        JSONArray stepList = new JSONArray(json);
+        for (int i = 0; i < stepList.length(); i++) {
+            JSONObject step = stepList.getJSONObject(i);
+            if (step.has("tick")) {
+                Direction direction = Direction.valueOf(step.getString("tick").toUpperCase());
+                script.tick(step.optString("use", null), direction);
+            } else if (step.has("build")) {
+                script.build(step.getString("build"));
+            } else if (step.has("interact")) {
+                script.interact(step.getString("interact"));
+            } else {
+                throw new IllegalArgumentException("Invalid script step " + step);
+            }
+        }
+        return script;
+    }
+
+    /**
+     * play every step against the controller's active game
+     * @param controller
+     * @return int number of ticks played
+     * @throws IllegalArgumentException
+     * @throws InvalidActionException
+     */
+    public int play(DungeonManiaController controller) throws IllegalArgumentException, InvalidActionException {
+        int ticks = 0;
+        for (Step step : steps) {
+            switch (step.action) {
+                case TICK:
+                    controller.tick(findItemId(controller, step.itemType), Direction.valueOf(step.argument));
+                    ticks++;
+                    break;
+                case BUILD:
+                    controller.build(step.argument);
+                    break;
+                case INTERACT:
+                    controller.interact(step.argument);
+                    break;
+            }
+        }
+        return ticks;
+    }
+
+    /**
+     * @return int
+     */
+    public int size() {
+        return steps.size();
+    }
+
+    /**
+     * @param controller
+     * @param itemType
+     * @return String id of the first inventory item of that type, null if itemType is null
+     * @throws InvalidActionException if there is no such item
+     */
+    private static String findItemId(DungeonManiaController controller, String itemType) throws InvalidActionException {
+        if (itemType == null) {
+            return null;
+        }
+        for (Item item : controller.getActiveGame().getInventory().getInventoryList()) {
+            if (item.getType().equals(itemType)) {
+                return item.getId();
+            }
+        }
+        throw new InvalidActionException("No " + itemType + " in the inventory");
+    }
+}
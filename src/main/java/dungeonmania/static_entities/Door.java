@@ -11,6 +11,8 @@ public class Door extends StaticEntity {
     public Door(Position position, Dungeon dungeon, int key) {
         super(position, dungeon);
         this.key = key;
+        // the dungeon costed this cell before the lock was initialised
+        setLocked(true);
     }
     
     /** 
@@ -20,7 +22,7 @@ public class Door extends StaticEntity {
     @Override
     public void update(Direction direction) {
         if (this.getPosition().equals(this.getPlayerPosition())) {
-            this.locked = false;
+            setLocked(false);
             updateType("door_unlocked");
         }
     }
@@ -62,11 +64,21 @@ public class Door extends StaticEntity {
         }
     }
 
+    /** 
+     * setMovementFactor() runs before the door is initialised, so work the factor out from the lock each time
+     * @return double
+     */
+    @Override
+    public double getMovementFactor() {
+        return setMovementFactor();
+    }
+
     /**
      * @param locked the locked to set
      */
     public void setLocked(boolean locked) {
         this.locked = locked;
+        getDungeon().updateCellCost(getPosition());
     }
 
 }
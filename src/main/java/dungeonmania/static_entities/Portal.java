@@ -60,9 +60,9 @@ public class Portal extends StaticEntity {
      * @return Portal
      */
     public Portal findPairedPortal() {
-        for (Entity entity : this.getEntities()) {
-            if (entity instanceof Portal && !entity.equals(this) && ((Portal)entity).getPortalColour().equals(getPortalColour())) {
-                return (Portal)entity;
+        for (Portal portal : getDungeon().getEntitiesOfClass(Portal.class)) {
+            if (!portal.equals(this) && portal.getPortalColour().equals(getPortalColour())) {
+                return portal;
             }
         }
         // paired portal does not exist
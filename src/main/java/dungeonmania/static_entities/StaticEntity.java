@@ -27,13 +27,12 @@ public abstract class StaticEntity extends Entity {
      * @return Position
      */
     public Position getPlayerPosition() {
-        for (Entity entity : this.getEntities()) {
-            if (entity instanceof Player) {
-                return entity.getPosition();
-            }
-        }
+        Player player = getDungeon().getPlayer();
         // player does not exist
-        return null;
+        if (player == null) {
+            return null;
+        }
+        return player.getPosition();
     }
     
     /** 
@@ -49,7 +48,11 @@ public abstract class StaticEntity extends Entity {
      * @return double
      */
     public double setMovementFactor(double movementFactor) {
-        return this.movementFactor = movementFactor;
+        this.movementFactor = movementFactor;
+        if (getDungeon() != null) {
+            getDungeon().updateCellCost(getPosition());
+        }
+        return movementFactor;
     }
 
     /** 
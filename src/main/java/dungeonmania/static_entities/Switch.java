@@ -22,16 +22,12 @@ public class Switch extends StaticEntity {
     /** 
      * @return boolean
      */
-    // Refactor into lambda function
     public boolean hasBoulder() {
-        for (Entity entity : this.getEntities()) {
+        for (Entity entity : getDungeon().getEntities(getPosition())) {
             if (entity instanceof Boulder) {
-                if (this.getPosition().equals(entity.getPosition())) {
-                    return true;
-                }
+                return true;
             }
         }
-        
         return false;
     }
 
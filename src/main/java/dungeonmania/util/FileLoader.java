@@ -2,10 +2,15 @@ package dungeonmania.util;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.net.URI;
 import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -22,12 +27,35 @@ public final class FileLoader {
         if (!path.startsWith("/"))
             path = "/" + path;
         try {
-            return new String(Files.readAllBytes(Path.of(FileLoader.class.getResource(path).toURI())));
+            return new String(Files.readAllBytes(resourcePath(path)));
         } catch (URISyntaxException e) {
             throw new FileNotFoundException(path);
         }
     }
 
+    /**
+     * Resolves a resource to a Path, mounting the enclosing jar if the resource is packaged
+     * (as it is when running from the benchmark jar).
+     * 
+     * @param path Absolute resource path such as `/dungeons`
+     * @return The path of the resource
+     * @throws IOException If the resource doesn't exist / the jar can't be opened.
+     */
+    private static Path resourcePath(String path) throws IOException, URISyntaxException {
+        URL resource = FileLoader.class.getResource(path);
+        if (resource == null)
+            throw new FileNotFoundException(path);
+        URI uri = resource.toURI();
+        if ("jar".equals(uri.getScheme())) {
+            try {
+                FileSystems.newFileSystem(uri, Collections.emptyMap());
+            } catch (FileSystemAlreadyExistsException e) {
+                // another resource from the same jar already mounted it
+            }
+        }
+        return Paths.get(uri);
+    }
+
     /**
      * Lists file names (without extension) within a specified resource directory.
      * 
@@ -42,9 +70,9 @@ public final class FileLoader {
         if (!directory.startsWith("/"))
             directory = "/" + directory;
         try {
-            Path root = Paths.get(FileLoader.class.getResource(directory).toURI());
+            Path root = resourcePath(directory);
             return Files.walk(root).filter(Files::isRegularFile).map(x -> {
-                String nameAndExt = x.toFile().getName();
+                String nameAndExt = x.getFileName().toString();
                 int extIndex = nameAndExt.lastIndexOf('.');
                 return nameAndExt.substring(0, extIndex > -1 ? extIndex : nameAndExt.length());
             }).collect(Collectors.toList());
@@ -0,0 +1,175 @@
+package dungeonmania.util;
+
+import java.util.Arrays;
+
+/**
+ * Cost of the cheapest path from every cell of a PathGrid to a single target,
+ * found with one reverse Dijkstra search from the target.
+ * Any number of entities can then look up their next step towards the target,
+ * or away from it, without searching themselves.
+ */
+public final class FlowField {
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    // neighbours in the order up, down, left, right
+    private static final int[] DX = {0, 0, -1, 1};
+    private static final int[] DY = {-1, 1, 0, 0};
+    // the same neighbours ordered by lowest x, then lowest y: left, up, down, right
+    private static final int[] BY_POSITION = {2, 0, 1, 3};
+
+    private final PathGrid grid;
+    private final Position target;
+    private final int[] dist;
+
+    private FlowField(PathGrid grid, Position target, int[] dist) {
+        this.grid = grid;
+        this.target = target;
+        this.dist = dist;
+    }
+
+    /**
+     * builds the field of path costs towards target.
+     * The cost of a step is the cost of the cell being entered.
+     * @param grid
+     * @param target
+     * @return FlowField
+     */
+    public static FlowField towards(PathGrid grid, Position target) {
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+        int[] dist = new int[grid.size()];
+        Arrays.fill(dist, UNREACHABLE);
+
+        int targetIndex = grid.indexOf(target);
+        if (targetIndex == -1 || grid.isBlocked(targetIndex)) {
+            return new FlowField(grid, target, dist);
+        }
+
+        IndexedMinHeap queue = new IndexedMinHeap(grid.size());
+        dist[targetIndex] = 0;
+        queue.insertOrDecrease(targetIndex, 0);
+
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            // a blocked cell can be stood on but never walked through
+            if (grid.isBlocked(node)) {
+                continue;
+            }
+            // every neighbour reaches this cell by stepping onto it
+            int newDist = dist[node] + grid.getCost(node);
+            int x = node % width;
+            int y = node / width;
+            for (int i = 0; i < DX.length; i++) {
+                int nx = x + DX[i];
+                int ny = y + DY[i];
+                if (nx < 0 || ny < 0 || nx >= width || ny >= height) {
+                    continue;
+                }
+                int neighbour = ny * width + nx;
+                if (newDist < dist[neighbour]) {
+                    dist[neighbour] = newDist;
+                    queue.insertOrDecrease(neighbour, newDist);
+                }
+            }
+        }
+        return new FlowField(grid, target, dist);
+    }
+
+    /**
+     * @param position
+     * @return int cost of the cheapest path from position to the target, UNREACHABLE if there is none
+     */
+    public int getDistance(Position position) {
+        int index = grid.indexOf(position);
+        return index == -1 ? UNREACHABLE : dist[index];
+    }
+
+    /**
+     * finds the first step of a cheapest path to the target.
+     * Among equally cheap steps the one with the lowest x, then lowest y is taken.
+     * @param from
+     * @return Position the adjacent position to move to, null if from is the target or cannot reach it
+     */
+    public Position getNextStep(Position from) {
+        int index = grid.indexOf(from);
+        if (index == -1 || dist[index] == 0 || dist[index] == UNREACHABLE) {
+            return null;
+        }
+        int x = index % grid.getWidth();
+        int y = index / grid.getWidth();
+        for (int i : BY_POSITION) {
+            int neighbour = neighbourIndex(x + DX[i], y + DY[i]);
+            if (neighbour == -1 || grid.isBlocked(neighbour) || dist[neighbour] == UNREACHABLE) {
+                continue;
+            }
+            if (dist[neighbour] + grid.getCost(neighbour) == dist[index]) {
+                return grid.positionOf(neighbour);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * finds the adjacent position furthest from the target by path cost.
+     * Positions off the grid are treated as furthest of all. Ties go to the position furthest
+     * in a straight line, then to up, down, left and right in that order.
+     * @param from
+     * @return Position the adjacent position to move to, null if from cannot reach the target or is boxed in
+     */
+    public Position getFleeStep(Position from) {
+        int index = grid.indexOf(from);
+        if (index != -1 && dist[index] == UNREACHABLE) {
+            return null;
+        }
+        Position best = null;
+        long bestDist = -1;
+        int bestSquaredDist = -1;
+        for (int i = 0; i < DX.length; i++) {
+            Position next = new Position(from.getX() + DX[i], from.getY() + DY[i]);
+            int neighbour = grid.indexOf(next);
+            long nextDist;
+            if (neighbour == -1) {
+                nextDist = (long) UNREACHABLE + 1;
+            } else if (grid.isBlocked(neighbour) || dist[neighbour] == UNREACHABLE) {
+                continue;
+            } else {
+                nextDist = dist[neighbour];
+            }
+            int dx = next.getX() - target.getX();
+            int dy = next.getY() - target.getY();
+            int squaredDist = dx * dx + dy * dy;
+            if (nextDist > bestDist || (nextDist == bestDist && squaredDist > bestSquaredDist)) {
+                best = next;
+                bestDist = nextDist;
+                bestSquaredDist = squaredDist;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @param x
+     * @param y
+     * @return int index of the cell at grid coordinates x, y or -1 if outside the grid
+     */
+    private int neighbourIndex(int x, int y) {
+        if (x < 0 || y < 0 || x >= grid.getWidth() || y >= grid.getHeight()) {
+            return -1;
+        }
+        return y * grid.getWidth() + x;
+    }
+
+    /**
+     * @return PathGrid
+     */
+    public PathGrid getGrid() {
+        return grid;
+    }
+
+    /**
+     * @return Position
+     */
+    public Position getTarget() {
+        return target;
+    }
+}
@@ -0,0 +1,132 @@
+package dungeonmania.util;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap over the integers [0, capacity) keyed by long priorities.
+ * Each node's slot in the heap is tracked so decreasing a key is O(log n)
+ * and no boxing or per-node objects are needed.
+ */
+public final class IndexedMinHeap {
+    private final int[] heap;
+    private final int[] slotOf;
+    private final long[] priority;
+    private int size;
+
+    public IndexedMinHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.slotOf = new int[capacity];
+        this.priority = new long[capacity];
+        Arrays.fill(slotOf, -1);
+    }
+
+    /** 
+     * @return boolean
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** 
+     * @return int
+     */
+    public int size() {
+        return size;
+    }
+
+    /** 
+     * @param node
+     * @return boolean
+     */
+    public boolean contains(int node) {
+        return slotOf[node] != -1;
+    }
+
+    /** 
+     * inserts the node, or lowers its priority if it is already queued with a higher one
+     * @param node
+     * @param newPriority
+     */
+    public void insertOrDecrease(int node, long newPriority) {
+        int slot = slotOf[node];
+        if (slot == -1) {
+            slot = size++;
+            heap[slot] = node;
+            slotOf[node] = slot;
+            priority[node] = newPriority;
+            siftUp(slot);
+        } else if (newPriority < priority[node]) {
+            priority[node] = newPriority;
+            siftUp(slot);
+        }
+    }
+
+    /** 
+     * removes and returns the node with the lowest priority
+     * ties are broken in favour of the lower node index so results are deterministic
+     * @return int
+     */
+    public int poll() {
+        int top = heap[0];
+        slotOf[top] = -1;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            slotOf[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    /** 
+     * empties the heap without reallocating
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            slotOf[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private boolean less(int a, int b) {
+        return priority[a] < priority[b] || (priority[a] == priority[b] && a < b);
+    }
+
+    private void siftUp(int slot) {
+        int node = heap[slot];
+        while (slot > 0) {
+            int parentSlot = (slot - 1) >>> 1;
+            int parent = heap[parentSlot];
+            if (!less(node, parent)) {
+                break;
+            }
+            heap[slot] = parent;
+            slotOf[parent] = slot;
+            slot = parentSlot;
+        }
+        heap[slot] = node;
+        slotOf[node] = slot;
+    }
+
+    private void siftDown(int slot) {
+        int node = heap[slot];
+        int half = size >>> 1;
+        while (slot < half) {
+            int childSlot = 2 * slot + 1;
+            int child = heap[childSlot];
+            int rightSlot = childSlot + 1;
+            if (rightSlot < size && less(heap[rightSlot], child)) {
+                childSlot = rightSlot;
+                child = heap[childSlot];
+            }
+            if (!less(child, node)) {
+                break;
+            }
+            heap[slot] = child;
+            slotOf[child] = slot;
+            slot = childSlot;
+        }
+        heap[slot] = node;
+        slotOf[node] = slot;
+    }
+}
@@ -0,0 +1,147 @@
+package dungeonmania.util;
+
+import java.util.Arrays;
+
+/**
+ * A rectangular grid of movement costs stored in a flat array, one int per cell.
+ * Cells are addressed either by Position or by their index in the array.
+ * A cost of BLOCKED means the cell cannot be entered.
+ * A cost of PUSHABLE also cannot be walked through, but whatever is in it can be pushed aside.
+ */
+public final class PathGrid {
+    public static final int BLOCKED = -1;
+    public static final int PUSHABLE = -2;
+
+    private final int minX;
+    private final int minY;
+    private final int width;
+    private final int height;
+    private final int[] costs;
+
+    public PathGrid(int minX, int minY, int width, int height) {
+        this.minX = minX;
+        this.minY = minY;
+        this.width = width;
+        this.height = height;
+        this.costs = new int[width * height];
+        Arrays.fill(costs, 1);
+    }
+
+    /** 
+     * @param position
+     * @return boolean true if the position lies inside the grid
+     */
+    public boolean contains(Position position) {
+        int x = position.getX() - minX;
+        int y = position.getY() - minY;
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    /** 
+     * @param position
+     * @return int index of the cell, or -1 if it is outside the grid
+     */
+    public int indexOf(Position position) {
+        if (!contains(position)) {
+            return -1;
+        }
+        return (position.getY() - minY) * width + (position.getX() - minX);
+    }
+
+    /** 
+     * @param index
+     * @return Position
+     */
+    public Position positionOf(int index) {
+        return new Position(minX + index % width, minY + index / width);
+    }
+
+    /** 
+     * @param index
+     * @return int
+     */
+    public int getCost(int index) {
+        return costs[index];
+    }
+
+    /** 
+     * @param index
+     * @param cost
+     */
+    public void setCost(int index, int cost) {
+        costs[index] = cost;
+    }
+
+    /** 
+     * @param index
+     * @return boolean
+     */
+    public boolean isBlocked(int index) {
+        return costs[index] < 0;
+    }
+
+    /** 
+     * @param position
+     * @return int cost of the cell at position, 1 if it is outside the grid
+     */
+    public int getCost(Position position) {
+        int index = indexOf(position);
+        return index == -1 ? 1 : costs[index];
+    }
+
+    /** 
+     * copies the grid into a larger one that also covers the given rectangle
+     * @param x lowest x to cover
+     * @param y lowest y to cover
+     * @param toX highest x to cover
+     * @param toY highest y to cover
+     * @return PathGrid a new grid, cells that were not in this grid cost 1
+     */
+    public PathGrid grownToCover(int x, int y, int toX, int toY) {
+        int newMinX = Math.min(minX, x);
+        int newMinY = Math.min(minY, y);
+        int newWidth = Math.max(minX + width - 1, toX) - newMinX + 1;
+        int newHeight = Math.max(minY + height - 1, toY) - newMinY + 1;
+        PathGrid grown = new PathGrid(newMinX, newMinY, newWidth, newHeight);
+        for (int row = 0; row < height; row++) {
+            int offset = (minY - newMinY + row) * newWidth + (minX - newMinX);
+            System.arraycopy(costs, row * width, grown.costs, offset, width);
+        }
+        return grown;
+    }
+
+    /** 
+     * @return int
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /** 
+     * @return int
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /** 
+     * @return int
+     */
+    public int getMinX() {
+        return minX;
+    }
+
+    /** 
+     * @return int
+     */
+    public int getMinY() {
+        return minY;
+    }
+
+    /** 
+     * @return int number of cells in the grid
+     */
+    public int size() {
+        return costs.length;
+    }
+}
@@ -0,0 +1,74 @@
+package dungeonmania.util;
+
+/**
+ * A small, fast, seedable and splittable random number generator (SplitMix64).
+ * Unlike java.util.Random it is not synchronised, so each dungeon keeps its own,
+ * and its whole state is one long that can be saved and restored to continue the exact same sequence.
+ */
+public final class SeededRandom {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private long state;
+
+    public SeededRandom(long seed) {
+        this.state = seed;
+    }
+
+    /**
+     * @return long
+     */
+    public long nextLong() {
+        state += GOLDEN_GAMMA;
+        long z = state;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @return int any int, negative values included
+     */
+    public int nextInt() {
+        return (int) (nextLong() >>> 32);
+    }
+
+    /**
+     * @param bound
+     * @return int uniformly distributed in [0, bound)
+     */
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+        // reject the top of the range that would make lower values more likely
+        long range = 1L << 31;
+        long limit = range - (range % bound);
+        int r = nextInt() >>> 1;
+        while (r >= limit) {
+            r = nextInt() >>> 1;
+        }
+        return r % bound;
+    }
+
+    /**
+     * @return double uniformly distributed in [0, 1)
+     */
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * make an independent generator, for work that should not disturb this sequence
+     * @return SeededRandom
+     */
+    public SeededRandom split() {
+        return new SeededRandom(nextLong());
+    }
+
+    /**
+     * @return long the seed that continues this exact sequence
+     */
+    public long getState() {
+        return state;
+    }
+}
@@ -7,6 +7,11 @@ public class Environment {
     private volatile static Integer Port = null;
     private volatile static Boolean IsHeadless = null;
     private volatile static Boolean IsSecure = null;
+    private volatile static Boolean IsPreloading = null;
+    private volatile static Boolean IsUsingVirtualThreads = null;
+    private volatile static Boolean IsJournaling = null;
+    private volatile static Integer SessionIdleSeconds = null;
+    private volatile static Integer MaxSessions = null;
 
     public synchronized final static String getIPAddress() {
         return (IPAddress == null && (IPAddress = System.getenv(PREFIX + "ADDRESS")) == null)
@@ -30,4 +35,39 @@ public class Environment {
     public synchronized final static boolean isSecure() {
         return IsSecure != null ? IsSecure.booleanValue() : (IsSecure = (System.getenv(PREFIX + "SECURE") != null));
     }
+
+    // read every dungeon at startup instead of on first play
+    public synchronized final static boolean isPreloading() {
+        return IsPreloading != null ? IsPreloading.booleanValue() : (IsPreloading = (System.getenv(PREFIX + "PRELOAD") != null));
+    }
+
+    // run each request on its own virtual thread rather than on Jetty's pool of platform threads
+    public synchronized final static boolean isUsingVirtualThreads() {
+        return IsUsingVirtualThreads != null ? IsUsingVirtualThreads.booleanValue() : (IsUsingVirtualThreads = (System.getenv(PREFIX + "VIRTUAL_THREADS") != null));
+    }
+
+    // write a replay journal of every session's game, so a game can be replayed or recovered after a crash
+    public synchronized final static boolean isJournaling() {
+        return IsJournaling != null ? IsJournaling.booleanValue() : (IsJournaling = (System.getenv(PREFIX + "JOURNAL") != null));
+    }
+
+    // how long a session's game stays in memory without a request before it is spilled to disk
+    public synchronized final static int getSessionIdleSeconds() {
+        if (SessionIdleSeconds != null) return SessionIdleSeconds;
+        try {
+            return SessionIdleSeconds = Integer.parseInt(System.getenv(PREFIX + "SESSION_IDLE_SECONDS"));
+        } catch (Exception e) {
+            return SessionIdleSeconds = 1800;
+        }
+    }
+
+    // most sessions' games kept in memory at once
+    public synchronized final static int getMaxSessions() {
+        if (MaxSessions != null) return MaxSessions;
+        try {
+            return MaxSessions = Integer.parseInt(System.getenv(PREFIX + "MAX_SESSIONS"));
+        } catch (Exception e) {
+            return MaxSessions = 1000;
+        }
+    }
 }
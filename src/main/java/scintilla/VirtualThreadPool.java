@@ -0,0 +1,67 @@
+package scintilla;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.thread.ThreadPool;
+
+/**
+ * Package only thread pool for Jetty that runs every job on a new virtual thread,
+ * so a request waiting its turn on a session costs a parked virtual thread rather than a platform one.
+ * The server starts and stops it along with itself.
+ */
+final class VirtualThreadPool extends AbstractLifeCycle implements ThreadPool {
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger running = new AtomicInteger();
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    @Override
+    public void execute(Runnable job) {
+        executor.execute(() -> {
+            running.incrementAndGet();
+            try {
+                job.run();
+            } finally {
+                running.decrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * wait until the pool is stopped, the server's own join waits here for as long as it serves
+     */
+    @Override
+    public void join() throws InterruptedException {
+        stopped.await();
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        try {
+            executor.shutdown();
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } finally {
+            stopped.countDown();
+        }
+    }
+
+    @Override
+    public int getThreads() {
+        return running.get();
+    }
+
+    @Override
+    public int getIdleThreads() {
+        // a thread is made for each job and ends with it
+        return 0;
+    }
+
+    @Override
+    public boolean isLowOnThreads() {
+        return false;
+    }
+}
@@ -1,6 +1,9 @@
 package scintilla;
 import static spark.Spark.*;
 
+import spark.embeddedserver.EmbeddedServers;
+import spark.embeddedserver.jetty.EmbeddedJettyFactory;
+
 /**
  * Package only webserver, as to not expose it outside this package.
  */
@@ -10,6 +13,10 @@ final class WebServer {
     private boolean isSecure = Environment.isSecure();
 
     public void initialize() {
+        if (Environment.isUsingVirtualThreads()) {
+            // must be in place before the first route starts the server
+            EmbeddedServers.add(EmbeddedServers.defaultIdentifier(), new EmbeddedJettyFactory().withThreadPool(new VirtualThreadPool()));
+        }
         port(port);
         ipAddress(ipAddress);
 
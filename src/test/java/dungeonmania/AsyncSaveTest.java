@@ -0,0 +1,123 @@
+package dungeonmania;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import dungeonmania.loader.SaveCatalogue;
+import dungeonmania.loader.SaveFormat;
+import dungeonmania.loader.SaveQueue;
+import dungeonmania.loader.SaveSnapshot;
+import dungeonmania.response.models.DungeonResponse;
+import dungeonmania.response.models.EntityResponse;
+import dungeonmania.response.models.SaveStatusResponse;
+import dungeonmania.util.Direction;
+import dungeonmania.util.Position;
+
+public class AsyncSaveTest {
+    @AfterEach
+    public void deleteSaves() throws IOException {
+        for (String name : List.of("asyncOrder", "asyncSnapshot", "asyncStatus")) {
+            for (SaveFormat format : SaveFormat.values()) {
+                Files.deleteIfExists(Paths.get("saveFiles", name + format.getExtension()));
+            }
+        }
+    }
+
+    @Test
+    public void testAsyncSaveKeepsGameAtSaveTime() {
+        DungeonManiaController controller = new DungeonManiaController();
+        DungeonResponse saved = controller.newGame("advanced", "Peaceful", 42);
+        controller.saveGameAsync("asyncSnapshot", SaveFormat.JSON);
+        // the game plays on straight away, the save must not see these moves
+        for (int i = 0; i < 5; i++) {
+            controller.tick(null, Direction.DOWN);
+        }
+        assertTrue(controller.allGames().contains("asyncSnapshot"));
+
+        DungeonResponse loaded = controller.loadGame("asyncSnapshot");
+        assertEquals(playerPosition(saved), playerPosition(loaded));
+        assertEquals(saved.getEntities().size(), loaded.getEntities().size());
+    }
+
+    @Test
+    public void testSaveStatus() throws IOException {
+        DungeonManiaController controller = new DungeonManiaController();
+        controller.newGame("boulders", "Peaceful");
+        controller.saveGameAsync("asyncStatus", SaveFormat.BINARY);
+        String status = controller.saveStatus("asyncStatus").getStatus();
+        assertTrue(Stream.of("queued", "writing", "saved").anyMatch(status::equals), status);
+
+        // loading waits for the write
+        controller.loadGame("asyncStatus");
+        SaveStatusResponse written = controller.saveStatus("asyncStatus");
+        assertEquals("saved", written.getStatus());
+        assertEquals(Files.size(Paths.get("saveFiles", "asyncStatus.dmsave")), written.getBytes());
+
+        // saves from before this process started are reported as written
+        assertEquals("saved", controller.saveStatus("boulders").getStatus());
+        assertThrows(IllegalArgumentException.class, () -> controller.saveStatus("neverSaved"));
+    }
+
+    @Test
+    public void testLastSaveOfANameWins() throws IOException {
+        DungeonManiaController controller = new DungeonManiaController();
+        controller.newGame("boulders", "Peaceful");
+        controller.saveGameAsync("asyncOrder", SaveFormat.JSON);
+        controller.newGame("advanced", "Peaceful");
+        controller.saveGameAsync("asyncOrder", SaveFormat.BINARY);
+        controller.newGame("maze", "Peaceful");
+        // a blocking save after queued ones is not overwritten by them
+        controller.saveGame("asyncOrder", SaveFormat.JSON);
+
+        assertFalse(Files.exists(Paths.get("saveFiles", "asyncOrder.dmsave")));
+        assertEquals("maze", controller.loadGame("asyncOrder").getDungeonName());
+        try (Stream<String> files = Files.list(Paths.get("saveFiles")).map(path -> path.getFileName().toString())) {
+            assertFalse(files.anyMatch(name -> name.endsWith(".part")));
+        }
+    }
+
+    @Test
+    public void testUnawaitedSavesAreForgotten(@TempDir Path saveDirectory) {
+        SaveQueue saves = new SaveQueue(saveDirectory, SaveCatalogue.open(saveDirectory));
+        int count = 300;
+        for (int i = 0; i < count; i++) {
+            saves.submit(new SaveSnapshot("unawaited" + i, SaveFormat.BINARY, Map.of("dungeonName", "empty"),
+                new JSONObject(), List.of(), List.of()));
+        }
+        for (int i = 0; i < count; i++) {
+            saves.await("unawaited" + i);
+        }
+
+        assertEquals(0, saves.writesInFlight());
+        assertTrue(saves.pendingNames().isEmpty());
+        // only the newest statuses are kept, the files still say what was written
+        assertNull(saves.status("unawaited0"));
+        assertEquals(SaveQueue.SAVED, saves.status("unawaited" + (count - 1)).getStatus());
+        assertTrue(Files.exists(saveDirectory.resolve("unawaited0.dmsave")));
+    }
+
+    private Position playerPosition(DungeonResponse response) {
+        for (EntityResponse entity : response.getEntities()) {
+            if (entity.getType().equals("player")) {
+                return entity.getPosition();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,97 @@
+package dungeonmania;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import dungeonmania.loader.SaveFormat;
+import dungeonmania.response.models.DungeonResponse;
+import dungeonmania.response.models.EntityResponse;
+import dungeonmania.response.models.ItemResponse;
+import dungeonmania.util.Direction;
+
+public class BinarySaveTest {
+    @AfterEach
+    public void deleteSaves() throws IOException {
+        for (String name : List.of("binarySpawner", "formatSwap")) {
+            for (SaveFormat format : SaveFormat.values()) {
+                Files.deleteIfExists(Paths.get("saveFiles", name + format.getExtension()));
+            }
+        }
+    }
+
+    @Test
+    public void testFixturesRoundTrip() throws IOException {
+        DungeonManiaController controller = new DungeonManiaController();
+        for (String fixture : new String[] {"boulders", "briber", "hydra", "manyInventoryItems", "testingSpiders",
+                "invincibleStateSaved", "invisibleStateSaved", "differentEntitiesSaveTester", "craftingMidnightArmour"}) {
+            DungeonResponse fromJson = controller.loadGame(fixture);
+            controller.saveGame("binaryRoundTrip", SaveFormat.BINARY);
+            Path binary = Paths.get("saveFiles", "binaryRoundTrip.dmsave");
+            assertEquals(SaveFormat.BINARY, SaveFormat.detect(binary));
+            assertTrue(Files.size(binary) < Files.size(Paths.get("saveFiles", fixture + ".json")), fixture);
+
+            DungeonResponse fromBinary = controller.loadGame("binaryRoundTrip");
+            assertEquals(describe(fromJson), describe(fromBinary), fixture);
+            assertEquals(fromJson.getGoals(), fromBinary.getGoals(), fixture);
+            assertEquals(fromJson.getBuildables(), fromBinary.getBuildables(), fixture);
+        }
+        Files.deleteIfExists(Paths.get("saveFiles", "binaryRoundTrip.dmsave"));
+    }
+
+    @Test
+    public void testLoadedBinaryGamePlaysOn() {
+        DungeonManiaController controller = new DungeonManiaController();
+        controller.newGame("spawner", "Standard", 42);
+        for (int i = 0; i < 10; i++) {
+            controller.tick(null, i % 2 == 0 ? Direction.UP : Direction.DOWN);
+        }
+        controller.saveGame("binarySpawner", SaveFormat.BINARY);
+        List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < 30; i++) {
+            expected = describe(controller.tick(null, i % 2 == 0 ? Direction.UP : Direction.DOWN));
+        }
+
+        controller.loadGame("binarySpawner");
+        List<String> actual = new ArrayList<String>();
+        for (int i = 0; i < 30; i++) {
+            actual = describe(controller.tick(null, i % 2 == 0 ? Direction.UP : Direction.DOWN));
+        }
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testSavingReplacesOtherFormat() {
+        DungeonManiaController controller = new DungeonManiaController();
+        controller.newGame("boulders", "Peaceful");
+        controller.saveGame("formatSwap");
+        controller.saveGame("formatSwap", SaveFormat.BINARY);
+        assertFalse(Files.exists(Paths.get("saveFiles", "formatSwap.json")));
+        assertEquals(1, controller.allGames().stream().filter(name -> name.equals("formatSwap")).count());
+
+        controller.saveGame("formatSwap", SaveFormat.JSON);
+        assertFalse(Files.exists(Paths.get("saveFiles", "formatSwap.dmsave")));
+        assertEquals("boulders", controller.loadGame("formatSwap").getDungeonName());
+    }
+
+    private List<String> describe(DungeonResponse response) {
+        List<String> description = new ArrayList<String>();
+        for (EntityResponse entity : response.getEntities()) {
+            description.add(entity.getId() + entity.getType() + entity.getPosition() + entity.isInteractable());
+        }
+        for (ItemResponse item : response.getInventory()) {
+            description.add(item.getId() + item.getType());
+        }
+        return description;
+    }
+}
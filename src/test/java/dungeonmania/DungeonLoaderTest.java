@@ -0,0 +1,85 @@
+package dungeonmania;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import dungeonmania.loader.DungeonTemplates;
+import dungeonmania.response.models.DungeonResponse;
+import dungeonmania.response.models.EntityResponse;
+import dungeonmania.util.Direction;
+import dungeonmania.util.FileLoader;
+import dungeonmania.util.Position;
+
+public class DungeonLoaderTest {
+    @Test
+    public void testFieldOrderDoesNotMatter() {
+        DungeonManiaController controller = new DungeonManiaController();
+        String goalFirst = "{\"goal-condition\": {\"goal\": \"treasure\"}, \"entities\": ["
+            + "{\"x\": 1, \"y\": 2, \"type\": \"player\"}, {\"type\": \"treasure\", \"y\": 3, \"x\": 1}]}";
+        String goalLast = "{\"entities\": [{\"type\": \"player\", \"x\": 1, \"y\": 2}, "
+            + "{\"x\": 1, \"type\": \"treasure\", \"y\": 3}], \"goal-condition\": {\"goal\": \"treasure\"}}";
+
+        for (String json : new String[] {goalFirst, goalLast}) {
+            DungeonResponse response = controller.newGameFromJson("ordering", json, "standard", 1);
+            assertEquals(2, response.getEntities().size());
+            assertEquals("player", response.getEntities().get(0).getType());
+            assertEquals(new Position(1, 3), response.getEntities().get(1).getPosition());
+            assertEquals(":treasure ", response.getGoals());
+        }
+    }
+
+    @Test
+    public void testUnknownTypesAreSkipped() {
+        DungeonManiaController controller = new DungeonManiaController();
+        String json = "{\"entities\": [{\"x\": 0, \"y\": 0, \"type\": \"player\"}, "
+            + "{\"x\": 1, \"y\": 0, \"type\": \"statue\", \"extra\": {\"nested\": [1, 2]}}], \"goal-condition\": {\"goal\": \"exit\"}}";
+        DungeonResponse response = controller.newGameFromJson("unknown", json, "standard", 1);
+        assertEquals(1, response.getEntities().size());
+    }
+
+    @Test
+    public void testBadJson() {
+        DungeonManiaController controller = new DungeonManiaController();
+        assertThrows(IllegalArgumentException.class, () -> controller.newGameFromJson("bad", "{\"entities\": [", "standard", 1));
+        assertThrows(IllegalArgumentException.class, () -> controller.newGameFromJson("bad", "{\"entities\": []}", "standard", 1));
+    }
+
+    @Test
+    public void testTemplateGamesMatchParsedGames() throws IOException {
+        DungeonManiaController controller = new DungeonManiaController();
+        for (String dungeonName : new String[] {"advanced", "maze", "milestone3Entities", "swampAndEnemies"}) {
+            String json = FileLoader.loadResourceFile("/dungeons/" + dungeonName + ".json");
+            DungeonResponse parsed = controller.newGameFromJson(dungeonName, json, "standard", 7);
+            DungeonResponse fromTemplate = controller.newGame(dungeonName, "standard", 7);
+            assertEquals(describe(parsed), describe(fromTemplate), dungeonName);
+            assertEquals(parsed.getGoals(), fromTemplate.getGoals(), dungeonName);
+        }
+    }
+
+    @Test
+    public void testTemplateGamesAreIndependent() {
+        DungeonManiaController first = new DungeonManiaController();
+        DungeonManiaController second = new DungeonManiaController();
+        DungeonResponse start = first.newGame("boulders", "peaceful");
+        second.newGame("boulders", "peaceful");
+        first.tick(null, Direction.RIGHT);
+        assertEquals(describe(start), describe(second.tick(null, Direction.NONE)));
+
+        assertEquals(DungeonManiaController.dungeons().size(), DungeonTemplates.preload() + 1, "all but portals, which has no goal");
+        assertThrows(IllegalArgumentException.class, () -> first.newGame("noSuchDungeon", "peaceful"));
+    }
+
+    private List<String> describe(DungeonResponse response) {
+        List<String> description = new ArrayList<String>();
+        for (EntityResponse entity : response.getEntities()) {
+            description.add(entity.getId() + entity.getType() + entity.getPosition());
+        }
+        return description;
+    }
+}
@@ -5,15 +5,37 @@ import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
+import dungeonmania.loader.SaveFormat;
 import dungeonmania.response.models.DungeonResponse;
+import dungeonmania.response.models.EntityResponse;
+import dungeonmania.response.models.ItemResponse;
+import dungeonmania.util.Direction;
+import dungeonmania.util.IntMap;
 
+import java.io.IOException;
 import java.lang.IllegalArgumentException;
 
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
 
 public class DungeonTest {
+    @AfterEach
+    public void deleteSave() throws IOException {
+        for (SaveFormat format : SaveFormat.values()) {
+            Files.deleteIfExists(Paths.get("saveFiles", "idIndex" + format.getExtension()));
+        }
+    }
+
     @Test
     public void testNewGame() {
 
@@ -85,5 +107,59 @@ public class DungeonTest {
 
     }
 
+    @Test
+    public void testIdIndexFollowsPickupCraftingAndLoading() {
+        DungeonManiaController controller = new DungeonManiaController();
+        DungeonResponse response = controller.newGame("craftingTest", "Peaceful");
+        List<String> pickedUp = new ArrayList<String>();
+        for (int i = 0; i < 4; i++) {
+            response = controller.tick(null, Direction.DOWN);
+        }
+        for (ItemResponse item : response.getInventory()) {
+            pickedUp.add(item.getId());
+        }
+        assertEquals(4, pickedUp.size());
+        assertIndexMatches(controller.getActiveGame(), response);
+
+        response = controller.build("bow");
+        assertIndexMatches(controller.getActiveGame(), response);
+        // the wood and arrows went into the bow
+        for (String id : pickedUp) {
+            assertNull(controller.getActiveGame().getEntityById(id));
+            assertThrows(IllegalArgumentException.class, () -> controller.getActiveGame().getEntityTypeFromId(id));
+        }
+        assertNull(controller.getActiveGame().getEntityById("not a number"));
+
+        controller.saveGame("idIndex");
+        response = controller.loadGame("idIndex");
+        assertIndexMatches(controller.getActiveGame(), response);
+    }
+
+    @Test
+    public void testIntMapAgreesWithHashMap() {
+        IntMap<Integer> map = new IntMap<Integer>();
+        Map<Integer, Integer> expected = new HashMap<Integer, Integer>();
+        Random random = new Random(7);
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(300) - 20;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, i), map.put(key, i));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (int key = -20; key < 280; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+    }
 
-}
\ No newline at end of file
+    private void assertIndexMatches(Dungeon dungeon, DungeonResponse response) {
+        for (EntityResponse entity : response.getEntities()) {
+            assertEquals(entity.getType(), dungeon.getEntityTypeFromId(entity.getId()));
+        }
+        for (ItemResponse item : response.getInventory()) {
+            assertEquals(item.getType(), dungeon.getEntityTypeFromId(item.getId()));
+        }
+    }
+}
@@ -4,15 +4,20 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
 import dungeonmania.items.Item;
 
+import dungeonmania.loader.SaveFormat;
 import dungeonmania.player.Player;
 import dungeonmania.response.models.DungeonResponse;
 import dungeonmania.response.models.EntityResponse;
@@ -23,6 +28,13 @@ import dungeonmania.util.Position;
 
 
 public class GameProcessingTest {
+    @AfterEach
+    public void deleteSave() throws IOException {
+        for (SaveFormat format : SaveFormat.values()) {
+            Files.deleteIfExists(Paths.get("saveFiles", "seededSpawner" + format.getExtension()));
+        }
+    }
+
     @Test
     public void testNewGame() {
 
@@ -84,6 +96,37 @@ public class GameProcessingTest {
         assertDoesNotThrow(() -> controller.saveGame("boulders"));
     }
 
+    @Test
+    public void testLoadGameKeepsRandomSequence() {
+        DungeonManiaController controller = new DungeonManiaController();
+        controller.newGame("spawner", "Standard", 42);
+        for (int i = 0; i < 10; i++) {
+            controller.tick(null, i % 2 == 0 ? Direction.UP : Direction.DOWN);
+        }
+        controller.saveGame("seededSpawner");
+
+        // what happens next without the save
+        List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < 30; i++) {
+            expected = describe(controller.tick(null, i % 2 == 0 ? Direction.UP : Direction.DOWN));
+        }
+
+        controller.loadGame("seededSpawner");
+        List<String> actual = new ArrayList<String>();
+        for (int i = 0; i < 30; i++) {
+            actual = describe(controller.tick(null, i % 2 == 0 ? Direction.UP : Direction.DOWN));
+        }
+        assertEquals(expected, actual);
+    }
+
+    private List<String> describe(DungeonResponse response) {
+        List<String> entities = new ArrayList<String>();
+        for (EntityResponse entity : response.getEntities()) {
+            entities.add(entity.getType() + entity.getPosition());
+        }
+        return entities;
+    }
+
     @Test
     public void testLoadGameDoesntExist() {
 
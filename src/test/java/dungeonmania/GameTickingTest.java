@@ -3,6 +3,7 @@ package dungeonmania;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import org.junit.jupiter.api.Test;
@@ -11,6 +12,7 @@ import dungeonmania.exceptions.InvalidActionException;
 import dungeonmania.items.InvincibilityPotion;
 import dungeonmania.items.Item;
 import dungeonmania.player.Player;
+import dungeonmania.response.models.DungeonDeltaResponse;
 import dungeonmania.response.models.DungeonResponse;
 import dungeonmania.response.models.EntityResponse;
 import dungeonmania.response.models.ItemResponse;
@@ -452,7 +454,85 @@ public class GameTickingTest {
         assertEquals(false, dungeonInfo.getEntities().stream().anyMatch(x -> x.getType().equals("wall")));
     }
 
+    @Test
+    public void testTickDeltaOnlyHasChanges() {
+        DungeonManiaController controller = new DungeonManiaController();
+        controller.newGame("boulderGoalTester", "Standard");
+        String dungeonId = controller.getActiveGame().getDungeonId();
+
+        // no version known yet, so everything is sent
+        DungeonDeltaResponse snapshot = controller.tickDelta(null, Direction.NONE, null, -1);
+        assertEquals(true, snapshot.isSnapshot());
+        assertEquals(3, snapshot.getCreated().size());
+
+        // pushing the boulder moves just the player and the boulder
+        DungeonDeltaResponse delta = controller.tickDelta(null, Direction.UP, dungeonId, snapshot.getVersion());
+        assertEquals(false, delta.isSnapshot());
+        assertEquals(0, delta.getCreated().size());
+        assertEquals(2, delta.getMoved().size());
+        assertEquals("player", delta.getMoved().get(0).getType());
+        assertEquals(new Position(1, 1), delta.getMoved().get(0).getPosition());
+        assertEquals("boulder", delta.getMoved().get(1).getType());
+        assertEquals(new Position(1, 0), delta.getMoved().get(1).getPosition());
+        assertEquals(0, delta.getRemoved().size());
+        assertEquals("", delta.getGoals());
+
+        // standing still changes nothing
+        delta = controller.tickDelta(null, Direction.NONE, dungeonId, delta.getVersion());
+        assertEquals(false, delta.isSnapshot());
+        assertEquals(0, delta.getMoved().size());
+    }
+
+    @Test
+    public void testTickDeltaAfterVersionGap() {
+        DungeonManiaController controller = new DungeonManiaController();
+        controller.newGame("boulderGoalTester", "Standard");
+        String dungeonId = controller.getActiveGame().getDungeonId();
+        DungeonDeltaResponse first = controller.tickDelta(null, Direction.NONE, null, -1);
+
+        // a full response in between means the client's version is out of date
+        controller.tick(null, Direction.UP);
+        DungeonDeltaResponse delta = controller.tickDelta(null, Direction.NONE, dungeonId, first.getVersion());
+        assertEquals(true, delta.isSnapshot());
+        assertEquals(3, delta.getCreated().size());
+
+        // a different dungeon also needs a snapshot
+        delta = controller.tickDelta(null, Direction.NONE, "another dungeon", delta.getVersion());
+        assertEquals(true, delta.isSnapshot());
+    }
+
+    @Test
+    public void testSameSeedSameGame() {
+        // spawners, spiders and zombies all move at random
+        List<String> first = playSeeded(42);
+        List<String> second = playSeeded(42);
+        assertEquals(first, second);
+        assertNotEquals(first, playSeeded(43));
+    }
 
+    @Test
+    public void testSameSeedSameMaze() {
+        DungeonManiaController controller = new DungeonManiaController();
+        DungeonResponse first = controller.generateDungeon(1, 1, 48, 48, "standard", 7);
+        DungeonResponse second = controller.generateDungeon(1, 1, 48, 48, "standard", 7);
+        assertEquals(describe(first), describe(second));
+    }
 
+    private List<String> playSeeded(long seed) {
+        DungeonManiaController controller = new DungeonManiaController();
+        controller.newGame("spawner", "Standard", seed);
+        DungeonResponse response = null;
+        for (int i = 0; i < 60; i++) {
+            response = controller.tick(null, i % 2 == 0 ? Direction.UP : Direction.DOWN);
+        }
+        return describe(response);
+    }
 
+    private List<String> describe(DungeonResponse response) {
+        List<String> entities = new ArrayList<String>();
+        for (EntityResponse entity : response.getEntities()) {
+            entities.add(entity.getType() + entity.getPosition());
+        }
+        return entities;
+    }
 }
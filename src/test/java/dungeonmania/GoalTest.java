@@ -1,16 +1,23 @@
 package dungeonmania;
 
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
+import dungeonmania.loader.SaveFormat;
 import dungeonmania.response.models.DungeonResponse;
 
 import dungeonmania.util.Direction;
 
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.List;
 
 import dungeonmania.util.Position;
@@ -20,6 +27,12 @@ import dungeonmania.util.Position;
 
 
 public class GoalTest {
+    @AfterEach
+    public void deleteSave() throws IOException {
+        for (SaveFormat format : SaveFormat.values()) {
+            Files.deleteIfExists(Paths.get("saveFiles", "boulderGoalLoaded" + format.getExtension()));
+        }
+    }
 
     // Test ExitGoal
     @Test
@@ -95,6 +108,61 @@ public class GoalTest {
         dungeonInfo = controller.tick(null , Direction.UP);
         assertEquals(dungeonInfo.getGoals(), "");
 
-    } 
+    }
+
+    @Test
+    public void testAndGoalFollowsPlayerLeavingExit() {
+        DungeonManiaController controller = new DungeonManiaController();
+
+        controller.newGame("andGoalTester", "Peaceful");
+        controller.tick(null, Direction.UP);
+        DungeonResponse dungeonInfo = controller.tick(null, Direction.UP);
+        assertEquals("", dungeonInfo.getGoals());
+        assertTrue(controller.getActiveGame().getOverallGoal().isComplete());
+
+        // the treasure stays collected but the exit goal is undone
+        dungeonInfo = controller.tick(null, Direction.DOWN);
+        assertFalse(controller.getActiveGame().getOverallGoal().isComplete());
+        assertTrue(dungeonInfo.getGoals().contains(":exit"));
+
+        dungeonInfo = controller.tick(null, Direction.UP);
+        assertEquals("", dungeonInfo.getGoals());
+    }
+
+    @Test
+    public void testBoulderGoalAfterLoading() {
+        DungeonManiaController controller = new DungeonManiaController();
+
+        controller.newGame("boulderGoalTester", "Peaceful");
+        controller.tick(null, Direction.UP);
+        controller.saveGame("boulderGoalLoaded");
+
+        // the boulder is already on the switch as the game loads, without a tick to notice
+        DungeonResponse dungeonInfo = controller.loadGame("boulderGoalLoaded");
+        assertEquals("", dungeonInfo.getGoals());
+    }
+
+    @Test
+    public void testGoalStringKeptUntilGoalsChange() {
+        DungeonManiaController controller = new DungeonManiaController();
+
+        DungeonResponse dungeonInfo = controller.newGame("manyGoals", "Peaceful");
+        assertEquals(":boulders :treasure :exit ", dungeonInfo.getGoals());
+        int version = controller.getActiveGame().getGoalVersion();
+
+        // collecting one of the treasures and pressing one of the switches leaves hundreds more of each
+        controller.tick(null, Direction.DOWN);
+        dungeonInfo = controller.tick(null, Direction.DOWN);
+        assertEquals(1, dungeonInfo.getInventory().size());
+        assertEquals(version, controller.getActiveGame().getGoalVersion());
+        assertSame(controller.getActiveGame().getGoalString(), dungeonInfo.getGoals());
+
+        // walking onto the exit changes one subgoal but not the whole goal
+        controller.tick(null, Direction.UP);
+        dungeonInfo = controller.tick(null, Direction.UP);
+        dungeonInfo = controller.tick(null, Direction.LEFT);
+        assertEquals(":boulders :treasure :exit ", dungeonInfo.getGoals());
+        assertEquals(version, controller.getActiveGame().getGoalVersion());
+    }
 
-}
\ No newline at end of file
+}
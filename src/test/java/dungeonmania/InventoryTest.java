@@ -1,23 +1,34 @@
 package dungeonmania;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import dungeonmania.util.Position;
+import dungeonmania.crafting.Recipe;
+import dungeonmania.crafting.Recipe.Ingredient;
 import dungeonmania.exceptions.InvalidActionException;
 import dungeonmania.items.Armour;
 import dungeonmania.items.Arrow;
 import dungeonmania.items.Key;
 import dungeonmania.items.SunStone;
+import dungeonmania.items.Sword;
 import dungeonmania.items.Treasure;
 import dungeonmania.items.Wood;
 import dungeonmania.moving_entities.ZombieToast;
 import dungeonmania.player.Inventory;
 import dungeonmania.player.Player;
+import dungeonmania.static_entities.Door;
 
 
 public class InventoryTest {
@@ -79,6 +90,35 @@ public class InventoryTest {
         assertEquals(2, inv.count("treasure"));
     }
 
+    @Test
+    public void largeInventoryKeepsOrderAndCounts() {
+        Player character = new Player(new Position(0, 0), new Dungeon("Dungeon", "Standard", "1"));
+        Inventory inv = character.getInventory();
+        for (int i = 0; i < 5000; i++) {
+            inv.add(i % 2 == 0 ? new Treasure(new Position(0, 0), character.getDungeon()) : new Wood(new Position(0, 0), character.getDungeon()));
+        }
+        Key key3 = new Key(new Position(0, 0), character.getDungeon(), 3);
+        Key key7 = new Key(new Position(0, 0), character.getDungeon(), 7);
+        inv.add(key3);
+        inv.add(key7);
+        assertEquals(2500, inv.count("treasure"));
+        assertEquals(2500, inv.count("wood"));
+        assertEquals(2, inv.count("key"));
+
+        for (int i = 0; i < 2499; i++) {
+            inv.use("treasure", character);
+        }
+        assertEquals(1, inv.count("treasure"));
+        assertEquals("treasure", inv.listInventory().get(0));
+        assertEquals(2503, inv.listInventory().size());
+
+        // the key is found by the number of its door, whatever order the keys came in
+        assertTrue(inv.useKey(new Door(new Position(1, 0), character.getDungeon(), 7), character));
+        assertFalse(inv.useKey(new Door(new Position(2, 0), character.getDungeon(), 7), character));
+        assertEquals(key3, inv.getItem("key"));
+        assertEquals(Arrays.asList("wood", "key"), inv.listInventory().subList(2500, 2502));
+    }
+
     @Test
     public void craftBow() {
         Player character = new Player(new Position(0, 0), new Dungeon("Dungeon", "Standard", "1"));
@@ -245,5 +285,48 @@ public class InventoryTest {
         inv.add(s);
         assertThrows(InvalidActionException.class, () -> inv.craftSceptre(character));
     }
-    
+
+    @Test
+    public void buildablesFollowCountsAndZombies() {
+        Player character = new Player(new Position(0, 0), new Dungeon("Dungeon", "Standard", "1"));
+        Inventory inv = character.getInventory();
+        inv.add(new Armour(character.getDungeon(), Armour.DURABILITY));
+        assertEquals(Arrays.asList(), inv.getBuildables());
+        inv.add(new SunStone(new Position(0, 1), character.getDungeon()));
+        inv.add(new Wood(new Position(0, 0), character.getDungeon()));
+        assertEquals(Arrays.asList("midnight_armour"), inv.getBuildables());
+        inv.add(new Treasure(new Position(0, 0), character.getDungeon()));
+        assertEquals(Arrays.asList("sceptre", "midnight_armour"), inv.getBuildables());
+
+        // nothing a recipe uses, so the same list is kept
+        List<String> buildables = inv.getBuildables();
+        inv.add(new Sword(new Position(0, 0), character.getDungeon()));
+        assertSame(buildables, inv.getBuildables());
+
+        ZombieToast z = new ZombieToast(new Position(3, 3), character.getDungeon());
+        assertEquals(Arrays.asList("sceptre"), inv.getBuildables());
+        character.getDungeon().removeEntity(z);
+        assertEquals(Arrays.asList("sceptre", "midnight_armour"), inv.getBuildables());
+
+        // the sun stone went into the armour, so there is none left for the sceptre
+        inv.craftMidnightArmour(character);
+        assertEquals(Arrays.asList(), inv.getBuildables());
+    }
+
+    @Test
+    public void recipeAlternativesShareIngredients() {
+        Recipe recipe = Recipe.of("test", dungeon -> null)
+            .needs("sun_stone", 1)
+            .needsOneOf(new Ingredient("treasure", 1), new Ingredient("sun_stone", 2))
+            .build();
+        Map<String, Integer> counts = new HashMap<String, Integer>();
+        counts.put("sun_stone", 2);
+        assertNull(recipe.match(type -> counts.getOrDefault(type, 0)));
+        counts.put("sun_stone", 3);
+        List<Ingredient> used = recipe.match(type -> counts.getOrDefault(type, 0));
+        assertEquals(2, used.get(1).getAmount());
+        counts.put("treasure", 1);
+        used = recipe.match(type -> counts.getOrDefault(type, 0));
+        assertEquals("treasure", used.get(1).getType());
+    }
 }
@@ -0,0 +1,194 @@
+package dungeonmania;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import dungeonmania.replay.ReplayJournal;
+import dungeonmania.response.models.DungeonResponse;
+import dungeonmania.response.models.EntityResponse;
+import dungeonmania.response.models.ItemResponse;
+import dungeonmania.util.Direction;
+
+public class ReplayTest {
+    private static final Direction[] MOVES = {Direction.UP, Direction.RIGHT, Direction.DOWN, Direction.LEFT};
+
+    @Test
+    public void testReplayToAnyStep() {
+        DungeonManiaController controller = journaled();
+        List<List<String>> states = new ArrayList<List<String>>();
+        states.add(describe(controller.newGame("spawner", "standard", 7)));
+        for (int i = 0; i < 30; i++) {
+            states.add(describe(controller.tick(null, MOVES[(i / 3) % MOVES.length])));
+        }
+        String journalName = controller.getJournalName();
+
+        DungeonManiaController replayer = journaled();
+        for (int step : new int[] {0, 1, 15, 30}) {
+            assertEquals(states.get(step), describe(replayer.replayGame(journalName, step)), "step " + step);
+        }
+        assertEquals(states.get(30), describe(replayer.replayGame(journalName, -1)));
+        assertThrows(IllegalArgumentException.class, () -> replayer.replayGame("noSuchJournal", -1));
+    }
+
+    @Test
+    public void testRecoveredGameCarriesOnTheJournal() {
+        DungeonManiaController controller = journaled();
+        controller.newGame("advanced", "peaceful", 3);
+        for (int i = 0; i < 5; i++) {
+            controller.tick(null, Direction.RIGHT);
+        }
+        // a failed call is journaled too, and fails again on replay
+        assertThrows(IllegalArgumentException.class, () -> controller.interact("noSuchEntity"));
+        controller.undo();
+        List<String> expected = describe(controller.tick(null, Direction.DOWN));
+        String journalName = controller.getJournalName();
+
+        // as if the process had died and a new one picked the game up
+        DungeonManiaController recovered = journaled();
+        controller.setJournaling(false);
+        controller.newGame("advanced", "peaceful", 3);
+        assertNull(controller.getJournalName());
+        assertEquals(expected, describe(recovered.replayGame(journalName, -1)));
+        assertEquals(journalName, recovered.getJournalName());
+
+        expected = describe(recovered.tick(null, Direction.DOWN));
+        assertEquals(expected, describe(journaled().replayGame(journalName, -1)));
+    }
+
+    @Test
+    public void testPlayingOnFromPartWayStartsANewJournal() {
+        DungeonManiaController controller = journaled();
+        controller.newGame("advanced", "peaceful", 3);
+        controller.tick(null, Direction.RIGHT);
+        List<String> end = describe(controller.tick(null, Direction.RIGHT));
+        String journalName = controller.getJournalName();
+
+        DungeonManiaController replayer = journaled();
+        replayer.replayGame(journalName, 1);
+        assertNotEquals(journalName, replayer.getJournalName());
+        replayer.tick(null, Direction.DOWN);
+        assertEquals(end, describe(replayer.replayGame(journalName, -1)));
+    }
+
+    @Test
+    public void testReopenSkipsToTheEnd(@TempDir Path directory) throws IOException {
+        Path path = directory.resolve("game.journal");
+        ReplayJournal journal = ReplayJournal.create(path);
+        journal.newGame("advanced", "peaceful", "0", 3);
+        journal.tick(null, "UP");
+        assertThrows(IllegalStateException.class, () -> ReplayJournal.create(path));
+        journal.close();
+
+        journal = ReplayJournal.reopen(path);
+        assertEquals(2, journal.size());
+        journal.build("bow");
+        journal.close();
+
+        List<ReplayJournal.Entry> entries = ReplayJournal.read(path);
+        assertEquals(3, entries.size());
+        assertEquals(ReplayJournal.Kind.NEW_GAME, entries.get(0).getKind());
+        assertNull(entries.get(1).getArgument(0));
+        assertEquals("UP", entries.get(1).getArgument(1));
+        assertEquals("bow", entries.get(2).getArgument(0));
+    }
+
+    @Test
+    public void testShorterEntryAfterTruncatedOneEndsTheJournal(@TempDir Path directory) throws IOException {
+        Path path = directory.resolve("game.journal");
+        ReplayJournal journal = ReplayJournal.create(path);
+        journal.newGame("advanced", "peaceful", "0", 3);
+        // bytes that would read as more entries if left where the next length goes
+        StringBuilder leftover = new StringBuilder();
+        for (int i = 0; i < 64; i++) {
+            leftover.append("\0\u0005\0\0");
+        }
+        journal.interact(leftover.toString());
+        journal.close();
+
+        // as if the process had died before the interaction's length was written
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer first = ByteBuffer.allocate(4);
+            channel.read(first, 4);
+            channel.write(ByteBuffer.allocate(4), 8 + first.getInt(0));
+        }
+
+        journal = ReplayJournal.reopen(path);
+        assertEquals(1, journal.size());
+        journal.tick(null, "UP");
+        journal.close();
+
+        List<ReplayJournal.Entry> entries = ReplayJournal.read(path);
+        assertEquals(2, entries.size());
+        assertEquals("UP", entries.get(1).getArgument(1));
+        journal = ReplayJournal.reopen(path);
+        assertEquals(2, journal.size());
+        journal.close();
+    }
+
+    @Test
+    public void testPruneKeepsNewestAndOpenJournals(@TempDir Path directory) throws IOException {
+        List<Path> paths = new ArrayList<Path>();
+        for (int i = 0; i < 5; i++) {
+            Path path = directory.resolve(i + ".journal");
+            ReplayJournal.create(path).close();
+            Files.setLastModifiedTime(path, FileTime.fromMillis(1000L * i));
+            paths.add(path);
+        }
+        ReplayJournal open = ReplayJournal.reopen(paths.get(0));
+        Files.write(directory.resolve("other.txt"), new byte[0]);
+
+        assertEquals(2, ReplayJournal.prune(directory, 2));
+        assertTrue(Files.exists(paths.get(0)));
+        assertFalse(Files.exists(paths.get(1)));
+        assertFalse(Files.exists(paths.get(2)));
+        assertTrue(Files.exists(paths.get(3)));
+        assertTrue(Files.exists(paths.get(4)));
+        assertTrue(Files.exists(directory.resolve("other.txt")));
+        open.close();
+        assertEquals(0, ReplayJournal.prune(directory.resolve("missing"), 2));
+    }
+
+    @Test
+    public void testJournalingIsOffUnlessTurnedOn() {
+        DungeonManiaController controller = new DungeonManiaController();
+        controller.newGame("advanced", "peaceful", 3);
+        controller.tick(null, Direction.RIGHT);
+        assertNull(controller.getJournalName());
+    }
+
+    private DungeonManiaController journaled() {
+        DungeonManiaController controller = new DungeonManiaController();
+        controller.setJournaling(true);
+        return controller;
+    }
+
+    private List<String> describe(DungeonResponse response) {
+        List<String> description = new ArrayList<String>();
+        for (EntityResponse entity : response.getEntities()) {
+            description.add(entity.getId() + entity.getType() + entity.getPosition() + entity.isInteractable());
+        }
+        for (ItemResponse item : response.getInventory()) {
+            description.add(item.getId() + item.getType());
+        }
+        description.add(response.getGoals());
+        description.addAll(response.getBuildables());
+        return description;
+    }
+}
@@ -0,0 +1,104 @@
+package dungeonmania;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import dungeonmania.loader.SaveCatalogue;
+import dungeonmania.loader.SaveFormat;
+
+public class SaveCatalogueTest {
+    @AfterEach
+    public void deleteSave() throws IOException {
+        for (SaveFormat format : SaveFormat.values()) {
+            Files.deleteIfExists(Paths.get("saveFiles", "catalogued" + format.getExtension()));
+        }
+    }
+
+    @Test
+    public void testIndexesSavesOnly(@TempDir Path saveDirectory) throws IOException {
+        copyFixture("boulders", saveDirectory.resolve("first.json"));
+        copyFixture("briber", saveDirectory.resolve(".second.json.part"));
+        Files.writeString(saveDirectory.resolve("notes.txt"), "not a save");
+
+        SaveCatalogue catalogue = SaveCatalogue.open(saveDirectory);
+        assertEquals(List.of("first"), catalogue.names());
+        SaveCatalogue.Entry first = catalogue.find("first");
+        assertEquals(SaveFormat.JSON, first.getFormat());
+        assertEquals(Files.size(saveDirectory.resolve("first.json")), first.getSize());
+        assertEquals("boulders", first.getDungeonName());
+        assertNull(catalogue.find("second"));
+    }
+
+    @Test
+    public void testSeesChangesMadeOutsideTheProcess(@TempDir Path saveDirectory) throws IOException, InterruptedException {
+        SaveCatalogue catalogue = SaveCatalogue.open(saveDirectory);
+        assertTrue(catalogue.names().isEmpty());
+
+        // found on lookup even before the watcher reports it
+        copyFixture("boulders", saveDirectory.resolve("added.json"));
+        assertEquals("added", catalogue.find("added").getName());
+
+        copyFixture("briber", saveDirectory.resolve("watched.json"));
+        Files.delete(saveDirectory.resolve("added.json"));
+        for (int i = 0; i < 100 && !catalogue.names().equals(List.of("watched")); i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(List.of("watched"), catalogue.names());
+    }
+
+    @Test
+    public void testIndexesSubdirectories(@TempDir Path saveDirectory) throws IOException, InterruptedException {
+        Files.createDirectories(saveDirectory.resolve("old"));
+        copyFixture("boulders", saveDirectory.resolve("old").resolve("nested.json"));
+        SaveCatalogue catalogue = SaveCatalogue.open(saveDirectory);
+        assertEquals(List.of("nested"), catalogue.names());
+        assertEquals(saveDirectory.resolve("old").resolve("nested.json"), catalogue.find("nested").getPath());
+
+        // a subdirectory made later is watched too, along with what was put in it first
+        Path later = saveDirectory.resolve("later");
+        Files.createDirectories(later);
+        copyFixture("briber", later.resolve("first.json"));
+        for (int i = 0; i < 100 && !catalogue.names().contains("first"); i++) {
+            Thread.sleep(50);
+        }
+        copyFixture("briber", later.resolve("second.json"));
+        for (int i = 0; i < 100 && !catalogue.names().contains("second"); i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(catalogue.names().containsAll(List.of("nested", "first", "second")));
+
+        // a save at the top level is found before one of the same name further down
+        copyFixture("briber", saveDirectory.resolve("nested.json"));
+        assertEquals(saveDirectory.resolve("nested.json"), catalogue.find("nested").getPath());
+    }
+
+    @Test
+    public void testLoadingAMissingSave() {
+        DungeonManiaController controller = new DungeonManiaController();
+        assertFalse(controller.allGames().contains("noSuchSave"));
+        assertThrows(IllegalArgumentException.class, () -> controller.loadGame("noSuchSave"));
+
+        controller.newGame("boulders", "Peaceful");
+        controller.saveGame("catalogued");
+        assertTrue(controller.allGames().contains("catalogued"));
+        assertEquals("boulders", controller.loadGame("catalogued").getDungeonName());
+    }
+
+    private void copyFixture(String fixture, Path target) throws IOException {
+        Files.copy(Paths.get("saveFiles", fixture + ".json"), target, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -0,0 +1,132 @@
+package dungeonmania;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import dungeonmania.response.models.DungeonResponse;
+import dungeonmania.response.models.EntityResponse;
+import dungeonmania.session.SessionStore;
+import dungeonmania.util.Direction;
+
+public class SessionStoreTest {
+    @Test
+    public void testLeastRecentlyUsedIsSpilledAndReloaded(@TempDir Path spillDirectory) throws IOException {
+        SessionStore store = new SessionStore(spillDirectory, 60000, 2);
+        DungeonManiaController unspilled = new DungeonManiaController();
+        unspilled.newGame("spawner", "standard", 5);
+        store.call("first", dmc -> dmc.newGame("spawner", "standard", 5));
+        for (int i = 0; i < 5; i++) {
+            unspilled.tick(null, Direction.UP);
+            store.call("first", dmc -> dmc.tick(null, Direction.UP));
+        }
+        store.call("second", dmc -> dmc.newGame("advanced", "peaceful", 1));
+        store.call("third", dmc -> dmc.newGame("advanced", "peaceful", 2));
+
+        assertEquals(2, store.size());
+        assertNull(store.peek("first"));
+        assertEquals(1, countFiles(spillDirectory));
+
+        // the spilled game carries on just as if it had stayed in memory
+        for (int i = 0; i < 5; i++) {
+            assertEquals(describe(unspilled.tick(null, Direction.DOWN)), describe(store.call("first", dmc -> dmc.tick(null, Direction.DOWN))));
+        }
+        assertEquals(2, store.size());
+        store.close();
+    }
+
+    @Test
+    public void testIdleSessionsAreSpilled(@TempDir Path spillDirectory) throws IOException, InterruptedException {
+        SessionStore store = new SessionStore(spillDirectory, 1, 100);
+        DungeonResponse before = store.call("played", dmc -> dmc.newGame("advanced", "peaceful", 1));
+        store.call("unplayed", dmc -> dmc.getGameModes());
+        Thread.sleep(20);
+
+        assertEquals(2, store.evictIdle());
+        assertEquals(0, store.size());
+        // a session with no game has nothing to keep
+        assertEquals(1, countFiles(spillDirectory));
+
+        assertEquals(describe(before), describe(store.call("played", dmc -> dmc.createDungeonResponse())));
+        assertEquals(0, countFiles(spillDirectory));
+        assertNull(store.call("unplayed", dmc -> dmc.getActiveGame()));
+        assertEquals(2, store.size());
+        store.close();
+    }
+
+    @Test
+    public void testAbandonedSpillsExpire(@TempDir Path spillDirectory) throws IOException, InterruptedException {
+        SessionStore store = new SessionStore(spillDirectory, 1, 100);
+        store.call("abandoned", dmc -> dmc.newGame("advanced", "peaceful", 1));
+        store.call("returning", dmc -> dmc.newGame("advanced", "peaceful", 2));
+        Thread.sleep(20);
+        assertEquals(2, store.evictIdle());
+        assertEquals(2, countFiles(spillDirectory));
+
+        store.call("returning", dmc -> dmc.tick(null, Direction.UP));
+        Thread.sleep(50);
+        store.evictIdle();
+        // the returning session's newer spill is kept
+        assertEquals(1, countFiles(spillDirectory));
+        assertNull(store.call("abandoned", dmc -> dmc.getActiveGame()));
+        assertNotNull(store.call("returning", dmc -> dmc.getActiveGame()));
+        store.close();
+    }
+
+    @Test
+    public void testCallsOnOneSessionRunOneAtATime(@TempDir Path spillDirectory) throws InterruptedException {
+        SessionStore store = new SessionStore(spillDirectory, 60000, 100);
+        int[] counter = new int[1];
+        AtomicInteger inCall = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 8; i++) {
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < 500; j++) {
+                    store.call("shared", dmc -> {
+                        if (inCall.incrementAndGet() > 1) {
+                            overlaps.incrementAndGet();
+                        }
+                        counter[0]++;
+                        inCall.decrementAndGet();
+                        return null;
+                    });
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, overlaps.get());
+        assertEquals(4000, counter[0]);
+        store.close();
+    }
+
+    private long countFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    private String describe(DungeonResponse response) {
+        StringBuilder description = new StringBuilder();
+        for (EntityResponse entity : response.getEntities()) {
+            description.append(entity.getId() + entity.getType() + entity.getPosition() + ";");
+        }
+        return description.toString() + response.getGoals() + response.getInventory().size();
+    }
+}
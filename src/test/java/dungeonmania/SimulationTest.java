@@ -0,0 +1,49 @@
+package dungeonmania;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import dungeonmania.simulation.SimulationReport;
+import dungeonmania.simulation.SimulationRunner;
+import dungeonmania.simulation.SimulationScript;
+import dungeonmania.util.Direction;
+import dungeonmania.util.FileLoader;
+
+public class SimulationTest {
+    @Test
+    public void testManyGamesInParallel() throws Exception {
+        String dungeonJson = FileLoader.loadResourceFile("/dungeons/boulderGoalTester.json");
+        SimulationScript script = new SimulationScript().tick(Direction.UP).tick(Direction.DOWN).tick(Direction.UP);
+
+        SimulationRunner runner = new SimulationRunner(4);
+        SimulationReport report = runner.run("boulderGoalTester", dungeonJson, "standard", script, 50);
+        runner.shutdown();
+
+        assertEquals(50, report.getGames());
+        assertEquals(0, report.getFailures().size());
+        assertEquals(150, report.getTicks());
+    }
+
+    @Test
+    public void testScriptFromJson() throws Exception {
+        SimulationScript script = SimulationScript.fromJson("[{\"tick\": \"up\"}, {\"tick\": \"NONE\", \"use\": \"bomb\"}, {\"build\": \"bow\"}]");
+        assertEquals(3, script.size());
+        assertThrows(IllegalArgumentException.class, () -> SimulationScript.fromJson("[{\"jump\": \"UP\"}]"));
+    }
+
+    @Test
+    public void testFailedGamesAreReported() throws Exception {
+        String dungeonJson = FileLoader.loadResourceFile("/dungeons/boulderGoalTester.json");
+        // nothing to build with in this dungeon
+        SimulationScript script = new SimulationScript().tick(Direction.UP).build("bow");
+
+        SimulationRunner runner = new SimulationRunner(2);
+        SimulationReport report = runner.run("boulderGoalTester", dungeonJson, "standard", script, 5);
+        runner.shutdown();
+
+        assertEquals(5, report.getFailures().size());
+        assertEquals(0, report.getTicks());
+    }
+}
@@ -0,0 +1,63 @@
+package dungeonmania;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import dungeonmania.metrics.Histogram;
+import dungeonmania.metrics.TickMetrics;
+import dungeonmania.response.models.HistogramResponse;
+import dungeonmania.response.models.TickMetricsResponse;
+import dungeonmania.util.Direction;
+
+public class TickMetricsTest {
+    @Test
+    public void testHistogramPercentiles() {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        HistogramResponse summary = histogram.summary();
+        assertEquals(1000, summary.getCount());
+        assertEquals(500.5, summary.getMean());
+        assertEquals(1000, summary.getMax());
+        // within a quarter of the true value, never below it
+        assertTrue(summary.getP50() >= 500 && summary.getP50() <= 625);
+        assertTrue(summary.getP99() >= 990 && summary.getP99() <= 1000);
+    }
+
+    @Test
+    public void testEmptyHistogram() {
+        HistogramResponse summary = new Histogram().summary();
+        assertEquals(0, summary.getCount());
+        assertEquals(0, summary.getP99());
+    }
+
+    @Test
+    public void testTickRecordsEveryPhase() {
+        DungeonManiaController controller = new DungeonManiaController();
+        controller.newGame("advanced", "standard", 42);
+        TickMetricsResponse before = TickMetrics.summary();
+        controller.tick(null, Direction.RIGHT);
+        controller.tickDelta(null, Direction.LEFT, null, -1);
+        TickMetricsResponse after = TickMetrics.summary();
+
+        assertEquals(before.getTick().getCount() + 2, after.getTick().getCount());
+        for (String phase : after.getPhases().keySet()) {
+            assertEquals(before.getPhases().get(phase).getCount() + 2, after.getPhases().get(phase).getCount(), phase);
+        }
+        assertTrue(after.getTick().getMax() > 0);
+    }
+
+    @Test
+    public void testMetricsCanBeTurnedOff() {
+        DungeonManiaController controller = new DungeonManiaController();
+        controller.setMetrics(false);
+        controller.newGame("advanced", "standard", 42);
+        long before = TickMetrics.summary().getTick().getCount();
+        controller.tick(null, Direction.RIGHT);
+        controller.tickDelta(null, Direction.LEFT, null, -1);
+        assertEquals(before, TickMetrics.summary().getTick().getCount());
+    }
+}
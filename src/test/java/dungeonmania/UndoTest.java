@@ -0,0 +1,166 @@
+package dungeonmania;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import dungeonmania.exceptions.InvalidActionException;
+import dungeonmania.response.models.DungeonResponse;
+import dungeonmania.response.models.EntityResponse;
+import dungeonmania.response.models.ItemResponse;
+import dungeonmania.util.Direction;
+
+public class UndoTest {
+    private static final Direction[] MOVES = {Direction.RIGHT, Direction.RIGHT, Direction.DOWN, Direction.DOWN,
+        Direction.LEFT, Direction.DOWN, Direction.RIGHT, Direction.RIGHT};
+
+    @Test
+    public void testUndoAndRedo() {
+        DungeonManiaController controller = new DungeonManiaController();
+        List<List<String>> states = new ArrayList<List<String>>();
+        states.add(describe(controller.newGame("advanced", "peaceful", 3)));
+        for (Direction move : MOVES) {
+            states.add(describe(controller.tick(null, move)));
+        }
+
+        for (int i = MOVES.length - 1; i >= 0; i--) {
+            assertEquals(states.get(i), describe(controller.undo()), "undo to " + i);
+        }
+        assertThrows(InvalidActionException.class, () -> controller.undo());
+
+        for (int i = 1; i <= 3; i++) {
+            assertEquals(states.get(i), describe(controller.redo()), "redo to " + i);
+        }
+        // a new move drops what was left to redo
+        controller.tick(null, Direction.UP);
+        assertThrows(InvalidActionException.class, () -> controller.redo());
+    }
+
+    @Test
+    public void testUndoneGamePlaysTheSame() {
+        DungeonManiaController controller = new DungeonManiaController();
+        controller.newGame("spawner", "standard", 42);
+        for (int i = 0; i < 10; i++) {
+            controller.tick(null, i % 2 == 0 ? Direction.UP : Direction.DOWN);
+        }
+        List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < 20; i++) {
+            expected = describe(controller.tick(null, i % 2 == 0 ? Direction.UP : Direction.DOWN));
+        }
+
+        for (int i = 0; i < 20; i++) {
+            controller.undo();
+        }
+        List<String> actual = new ArrayList<String>();
+        for (int i = 0; i < 20; i++) {
+            actual = describe(controller.tick(null, i % 2 == 0 ? Direction.UP : Direction.DOWN));
+        }
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testRestoringEveryStepPlaysTheSame() {
+        Direction[] directions = Direction.values();
+        for (String dungeon : new String[] {"advanced", "swampAndEnemies", "milestone3Entities", "bombs"}) {
+            Random random = new Random(7);
+            Direction[] moves = new Direction[60];
+            for (int i = 0; i < moves.length; i++) {
+                moves[i] = directions[random.nextInt(directions.length)];
+            }
+
+            DungeonManiaController straight = new DungeonManiaController();
+            DungeonManiaController restored = new DungeonManiaController();
+            straight.newGame(dungeon, "standard", 11);
+            restored.newGame(dungeon, "standard", 11);
+            for (int i = 0; i < moves.length; i++) {
+                DungeonResponse response = straight.tick(null, moves[i]);
+                restored.tick(null, moves[i]);
+                // carry on from the game as the snapshot recorded it
+                restored.undo();
+                assertEquals(describe(response), describe(restored.redo()), dungeon + " after move " + i);
+                if (response.getEntities().stream().noneMatch(entity -> entity.getType().equals("player"))) {
+                    break;
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testNamedSnapshots() {
+        DungeonManiaController controller = new DungeonManiaController();
+        controller.newGame("advanced", "peaceful", 3);
+        controller.tick(null, Direction.RIGHT);
+        List<String> kept = describe(controller.snapshot("beforeDown"));
+        for (int i = 0; i < 4; i++) {
+            controller.tick(null, Direction.DOWN);
+        }
+        List<String> moved = describe(controller.tick(null, Direction.DOWN));
+        assertNotEquals(kept, moved);
+
+        assertEquals(kept, describe(controller.restoreSnapshot("beforeDown")));
+        assertEquals(moved, describe(controller.undo()));
+        assertThrows(IllegalArgumentException.class, () -> controller.restoreSnapshot("noSuchSnapshot"));
+    }
+
+    @Test
+    public void testNoHistoryStillSnapshots() {
+        DungeonManiaController controller = new DungeonManiaController();
+        controller.setHistory(false);
+        controller.newGame("advanced", "peaceful", 3);
+        controller.tick(null, Direction.RIGHT);
+        assertThrows(InvalidActionException.class, () -> controller.undo());
+
+        List<String> kept = describe(controller.snapshot("afterRight"));
+        controller.tick(null, Direction.DOWN);
+        assertEquals(kept, describe(controller.restoreSnapshot("afterRight")));
+        assertThrows(InvalidActionException.class, () -> controller.undo());
+    }
+
+    @Test
+    public void testHistorySwitchedMidGameWaitsForTheNextGame() {
+        DungeonManiaController controller = new DungeonManiaController();
+        controller.setHistory(false);
+        controller.newGame("advanced", "peaceful", 3);
+        controller.setHistory(true);
+        controller.tick(null, Direction.RIGHT);
+        assertThrows(InvalidActionException.class, () -> controller.undo());
+
+        List<String> started = describe(controller.newGame("advanced", "peaceful", 3));
+        controller.setHistory(false);
+        controller.tick(null, Direction.RIGHT);
+        assertEquals(started, describe(controller.undo()));
+    }
+
+    @Test
+    public void testUndoBuildAndPickUp() {
+        DungeonManiaController controller = new DungeonManiaController();
+        controller.newGame("craftingTest", "peaceful", 1);
+        DungeonResponse response = null;
+        for (int i = 0; i < 8 && (response == null || response.getBuildables().isEmpty()); i++) {
+            response = controller.tick(null, Direction.DOWN);
+        }
+        List<String> beforeBuild = describe(response);
+        String buildable = response.getBuildables().get(0);
+        assertNotEquals(beforeBuild, describe(controller.build(buildable)));
+        assertEquals(beforeBuild, describe(controller.undo()));
+    }
+
+    private List<String> describe(DungeonResponse response) {
+        List<String> description = new ArrayList<String>();
+        for (EntityResponse entity : response.getEntities()) {
+            description.add(entity.getId() + entity.getType() + entity.getPosition() + entity.isInteractable());
+        }
+        for (ItemResponse item : response.getInventory()) {
+            description.add(item.getId() + item.getType());
+        }
+        description.add(response.getGoals());
+        description.addAll(response.getBuildables());
+        return description;
+    }
+}
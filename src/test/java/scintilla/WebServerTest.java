@@ -0,0 +1,40 @@
+package scintilla;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import org.junit.jupiter.api.Test;
+
+import spark.Spark;
+
+public class WebServerTest {
+    @Test
+    public void testServesOnVirtualThreads() throws IOException, InterruptedException {
+        // the Gradle test task sets scintilla:VIRTUAL_THREADS
+        assertTrue(Environment.isUsingVirtualThreads());
+        WebServer server = new WebServer();
+        server.initialize();
+        Spark.get("/thread", (request, response) -> Thread.currentThread().isVirtual() ? "virtual" : "platform");
+        server.finalizeWebServer();
+        try {
+            HttpClient client = HttpClient.newHttpClient();
+            HttpRequest request = HttpRequest.newBuilder(URI.create(server.getHostUrl() + "/thread")).build();
+            // the server's join runs straight after it starts, later requests must still be served
+            for (int i = 0; i < 5; i++) {
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                assertEquals(200, response.statusCode());
+                assertEquals("virtual", response.body());
+                Thread.sleep(50);
+            }
+        } finally {
+            Spark.stop();
+            Spark.awaitStop();
+        }
+    }
+}